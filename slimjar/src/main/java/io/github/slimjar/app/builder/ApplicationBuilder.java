@@ -25,9 +25,11 @@
 package io.github.slimjar.app.builder;
 
 import io.github.slimjar.app.Application;
+import io.github.slimjar.downloader.ChunkedDownloader;
 import io.github.slimjar.downloader.DependencyDownloaderFactory;
 import io.github.slimjar.downloader.URLDependencyDownloaderFactory;
 import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.output.Durability;
 import io.github.slimjar.downloader.output.OutputWriterFactory;
 import io.github.slimjar.downloader.strategy.ChecksumFilePathStrategy;
 import io.github.slimjar.downloader.strategy.FilePathStrategy;
@@ -36,10 +38,14 @@ import io.github.slimjar.injector.DependencyInjector;
 import io.github.slimjar.injector.DependencyInjectorFactory;
 import io.github.slimjar.injector.SimpleDependencyInjectorFactory;
 import io.github.slimjar.injector.helper.InjectionHelperFactory;
+import io.github.slimjar.injector.scheduler.DependencyScheduler;
 import io.github.slimjar.injector.loader.Injectable;
 import io.github.slimjar.logging.LogDispatcher;
 import io.github.slimjar.logging.MediatingProcessLogger;
 import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.progress.MediatingProgressListener;
+import io.github.slimjar.progress.ProgressDispatcher;
+import io.github.slimjar.progress.ProgressListener;
 import io.github.slimjar.relocation.JarFileRelocatorFactory;
 import io.github.slimjar.relocation.RelocatorFactory;
 import io.github.slimjar.relocation.facade.JarRelocatorFacadeFactory;
@@ -49,14 +55,24 @@ import io.github.slimjar.relocation.helper.VerifyingRelocationHelperFactory;
 import io.github.slimjar.relocation.meta.FlatFileMetaMediatorFactory;
 import io.github.slimjar.relocation.meta.MetaMediatorFactory;
 import io.github.slimjar.resolver.CachingDependencyResolverFactory;
+import io.github.slimjar.resolver.ChecksumFetcher;
 import io.github.slimjar.resolver.DependencyResolverFactory;
+import io.github.slimjar.resolver.SnapshotMetadataFetcher;
+import io.github.slimjar.resolver.breaker.CircuitBreakers;
+import io.github.slimjar.resolver.cache.PersistentNegativeCache;
+import io.github.slimjar.resolver.cache.PersistentResolutionCache;
+import io.github.slimjar.resolver.cache.PersistentSnapshotMetadataCache;
+import io.github.slimjar.resolver.cache.ResolutionCache;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.enquirer.PingingRepositoryEnquirerFactory;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.mirrors.MirrorSelector;
 import io.github.slimjar.resolver.mirrors.SimpleMirrorSelector;
-import io.github.slimjar.resolver.pinger.HttpURLPinger;
+import io.github.slimjar.resolver.pinger.CachingURLPinger;
+import io.github.slimjar.resolver.pinger.TransportURLPinger;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.resolver.ranking.HedgeBudget;
+import io.github.slimjar.resolver.ranking.RepositoryRanker;
 import io.github.slimjar.resolver.reader.dependency.DependencyDataProviderFactory;
 import io.github.slimjar.resolver.reader.dependency.ExternalDependencyDataProviderFactory;
 import io.github.slimjar.resolver.reader.dependency.GsonDependencyDataProviderFactory;
@@ -67,6 +83,14 @@ import io.github.slimjar.resolver.reader.resolution.GsonPreResolutionDataProvide
 import io.github.slimjar.resolver.reader.resolution.PreResolutionDataProvider;
 import io.github.slimjar.resolver.reader.resolution.PreResolutionDataProviderFactory;
 import io.github.slimjar.resolver.strategy.*;
+import io.github.slimjar.transport.AdaptiveTimeouts;
+import io.github.slimjar.transport.CircuitBreakingHttpTransport;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.LimitingHttpTransport;
+import io.github.slimjar.transport.ReflectiveHttpClientTransport;
+import io.github.slimjar.transport.TimeoutHttpTransport;
+import io.github.slimjar.transport.URLConnectionTransport;
+import io.github.slimjar.util.Threads;
 
 import java.io.File;
 import java.io.IOException;
@@ -75,9 +99,13 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Serves as a configuration for different components slimjar will use during injection.
@@ -88,6 +116,11 @@ public abstract class ApplicationBuilder {
     // ~/.slimjar/
     private static final Path DEFAULT_DOWNLOAD_DIRECTORY;
 
+    private static final Duration DEFAULT_RELEASE_RESOLUTION_TTL = Duration.ofDays(7);
+    private static final Duration DEFAULT_SNAPSHOT_RESOLUTION_TTL = Duration.ofHours(1);
+    private static final int DEFAULT_NEGATIVE_CACHE_SIZE = 4096;
+    private static final Duration DEFAULT_NEGATIVE_CACHE_TTL = Duration.ofMinutes(10);
+
     static {
         final String userHome = System.getProperty("user.home");
         final String defaultPath = String.format("%s/.slimjar", userHome);
@@ -110,7 +143,34 @@ public abstract class ApplicationBuilder {
     private DependencyVerifierFactory verifierFactory;
     private MirrorSelector mirrorSelector;
     private ProcessLogger logger;
+    private ProgressListener progressListener;
+    private Executor ioExecutor;
+    private Duration releaseResolutionTtl = DEFAULT_RELEASE_RESOLUTION_TTL;
+    private Duration snapshotResolutionTtl = DEFAULT_SNAPSHOT_RESOLUTION_TTL;
+    private PersistentResolutionCache resolutionCache;
+    private int negativeCacheSize = DEFAULT_NEGATIVE_CACHE_SIZE;
+    private Duration negativeCacheTtl = DEFAULT_NEGATIVE_CACHE_TTL;
+    private PersistentNegativeCache negativeCache;
+    private PersistentSnapshotMetadataCache snapshotMetadataCache;
+    private URLPinger urlPinger;
+    private RepositoryRanker repositoryRanker;
+    private HedgeBudget hedgeBudget;
+    private CircuitBreakers circuitBreakers;
+    private int initialHostConcurrency = LimitingHttpTransport.DEFAULT_INITIAL_LIMIT;
+    private int maxHostConcurrency = LimitingHttpTransport.DEFAULT_MAX_LIMIT;
+    private int maxOverloadRetries = LimitingHttpTransport.DEFAULT_MAX_RETRIES;
+    private AdaptiveTimeouts timeouts;
+    private boolean optimisticDownloads;
+    private boolean resumableDownloads;
+    private boolean chunkedDownloads;
+    private long chunkedDownloadThreshold = ChunkedDownloader.DEFAULT_THRESHOLD_BYTES;
+    private int downloadChunks = ChunkedDownloader.DEFAULT_CHUNKS;
+    private boolean preallocateDownloads;
+    private Durability downloadDurability = Durability.NONE;
+    private HttpTransport httpTransport;
+    private ChecksumFetcher checksumFetcher;
     private URL jarURL = VerifyingRelocationHelperFactory.class.getProtectionDomain().getCodeSource().getLocation();
+    private Boolean bootSnapshot;
 
     /**
      * Generate a application builder for an application with given name.
@@ -296,11 +356,216 @@ public abstract class ApplicationBuilder {
         return this;
     }
 
+    /**
+     * Listener that receives per-dependency progress while this application is being built:
+     * stage transitions, downloaded bytes and failures.
+     * @param progressListener Listener to receive progress events, called from worker threads
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder progressListener(final ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Executor that runs blocking network I/O (pings, enquiries and downloads) as well as the injection stages.
+     * Defaults to a virtual-thread-per-task executor on Java 21+ and to a cached pool of daemon threads otherwise,
+     * so blocking calls never starve the common ForkJoinPool.
+     * Tasks on this executor wait for other tasks on it, so a custom executor must not be a small fixed-size pool.
+     * @param ioExecutor Executor for blocking I/O
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder ioExecutor(final Executor ioExecutor) {
+        this.ioExecutor = ioExecutor;
+        return this;
+    }
+
+    /**
+     * How long runtime resolutions are remembered in the download directory, so later boots can skip enquiring
+     * repositories for dependencies that are missing from the resolution file.
+     * Releases and snapshots expire separately. A zero duration disables caching for that kind of dependency.
+     * @param releaseResolutionTtl Time a release resolution stays valid (Default 7 days)
+     * @param snapshotResolutionTtl Time a snapshot resolution stays valid (Default 1 hour)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder resolutionCacheTtl(final Duration releaseResolutionTtl, final Duration snapshotResolutionTtl) {
+        this.releaseResolutionTtl = Objects.requireNonNull(releaseResolutionTtl);
+        this.snapshotResolutionTtl = Objects.requireNonNull(snapshotResolutionTtl);
+        return this;
+    }
+
+    /**
+     * Bounds of the persistent cache of artifact, checksum and pom urls that repositories reported as missing.
+     * Known misses are not requested again until they expire, so repeated boots with several repositories
+     * do not pay for them again. A zero duration disables the cache.
+     * @param negativeCacheSize Maximum number of remembered misses, least recently used ones are evicted first (Default 4096)
+     * @param negativeCacheTtl Time a miss is remembered (Default 10 minutes)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder negativeCache(final int negativeCacheSize, final Duration negativeCacheTtl) {
+        this.negativeCacheSize = negativeCacheSize;
+        this.negativeCacheTtl = Objects.requireNonNull(negativeCacheTtl);
+        return this;
+    }
+
+    /**
+     * Global cap on hedged requests. When a repository has not answered within its 95th latency percentile,
+     * the same request is also sent to the next best repository and the first answer wins. Hedges are limited
+     * to a share of all requests so a slow network does not double the load on every repository.
+     * @param hedgeRatio Maximum number of hedges per request, 0 disables hedging (Default 0.1)
+     * @param maxConcurrentHedges Maximum number of hedges in flight at once (Default 4)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder hedging(final double hedgeRatio, final int maxConcurrentHedges) {
+        this.hedgeBudget = new HedgeBudget(hedgeRatio, maxConcurrentHedges);
+        return this;
+    }
+
+    /**
+     * Timeouts of pings, metadata (checksums and snapshot metadata) and artifacts. The artifact timeout also bounds
+     * how long an artifact body may stall, a stalled download is retried once from the next best repository.
+     * @param ping Longest wait for the answer to a ping (Default 10 seconds)
+     * @param metadata Longest wait for checksums and metadata (Default 15 seconds)
+     * @param artifact Longest wait for an artifact's response and for each read of its body (Default 30 seconds)
+     * @param adaptive Whether to wait less on hosts that are known to answer quickly, based on their observed latency (Default true)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder timeouts(final Duration ping, final Duration metadata, final Duration artifact, final boolean adaptive) {
+        this.timeouts = new AdaptiveTimeouts(ping.toMillis(), metadata.toMillis(), artifact.toMillis(), adaptive);
+        return this;
+    }
+
+    /**
+     * Limits the requests in flight to each host. The limit adapts to the host: it grows while requests succeed and
+     * halves when the host answers 429 Too Many Requests or 503 Service Unavailable. Such answers are retried after
+     * the delay given by <code>Retry-After</code>, or after a jittered backoff if the host sent none.
+     * @param initialLimit Requests in flight to a host before its limit has adapted (Default 8)
+     * @param maxLimit Upper bound of the requests in flight to a host (Default 64)
+     * @param maxRetries Retries of a request answered with 429 or 503, 0 disables them (Default 3)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder hostConcurrency(final int initialLimit, final int maxLimit, final int maxRetries) {
+        this.initialHostConcurrency = initialLimit;
+        this.maxHostConcurrency = maxLimit;
+        this.maxOverloadRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Skips hosts that stopped answering. After the given number of consecutive connection failures or timeouts of
+     * any request to a host, the host is skipped for the cool-down period, then a single probe decides whether it is
+     * used again.
+     * @param failureThreshold Consecutive failures after which a host is skipped (Default 3)
+     * @param coolDown Time a host is skipped before it is probed again (Default 30 seconds)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder circuitBreaker(final int failureThreshold, final Duration coolDown) {
+        this.circuitBreakers = new CircuitBreakers(failureThreshold, coolDown.toMillis());
+        return this;
+    }
+
+    /**
+     * Downloads artifacts straight from their candidate locations in each repository instead of pinging
+     * the artifact and its checksum first. A missing artifact moves on to the next candidate and the checksum
+     * is fetched while the artifact downloads, which saves at least two round trips per download.
+     * Dependencies that no candidate serves, such as aggregators, are resolved as usual.
+     * @param optimisticDownloads Whether to skip resolving dependencies before downloading them (Default false)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder optimisticDownloads(final boolean optimisticDownloads) {
+        this.optimisticDownloads = optimisticDownloads;
+        return this;
+    }
+
+    /**
+     * Downloads resolved artifacts into a <code>.part</code> file next to their final location, together with a small
+     * record of the response validators and the offset reached. An interrupted download, in this run or after a
+     * restart, continues from that offset with a range request instead of starting from zero.
+     * @param resumableDownloads Whether to continue interrupted downloads (Default false)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder resumableDownloads(final boolean resumableDownloads) {
+        this.resumableDownloads = resumableDownloads;
+        return this;
+    }
+
+    /**
+     * Downloads large artifacts as several byte ranges at once, written straight to their position in the file.
+     * Only used where the repository advertises range support, and not for resumable downloads.
+     * @param chunkedDownloads Whether to download large artifacts in ranges (Default false)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder chunkedDownloads(final boolean chunkedDownloads) {
+        this.chunkedDownloads = chunkedDownloads;
+        return this;
+    }
+
+    /**
+     * Enables chunked downloads with the given sizing.
+     * @param thresholdBytes Size from which artifacts are downloaded in ranges (Default 32 MiB)
+     * @param chunks Number of ranges downloaded at once, 1 disables chunked downloads (Default 4)
+     * @return <code>this</code>
+     * @see #chunkedDownloads(boolean)
+     */
+    public final ApplicationBuilder chunkedDownloads(final long thresholdBytes, final int chunks) {
+        this.chunkedDownloads = true;
+        this.chunkedDownloadThreshold = thresholdBytes;
+        this.downloadChunks = chunks;
+        return this;
+    }
+
+    /**
+     * Sets the size of downloaded artifacts to their announced Content-Length before writing them. This only sets the
+     * file size, file systems that support sparse files do not reserve any blocks for it up front.
+     * @param preallocateDownloads Whether to pre-size downloaded artifacts (Default false)
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder preallocateDownloads(final boolean preallocateDownloads) {
+        this.preallocateDownloads = preallocateDownloads;
+        return this;
+    }
+
+    /**
+     * Downloaded artifacts are written to a temporary file and renamed into place once complete and checked, this
+     * controls how far they are flushed to storage on the way. Flushing survives power loss but costs throughput.
+     * @param downloadDurability Flushing of downloaded artifacts (Default {@link Durability#NONE})
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder downloadDurability(final Durability downloadDurability) {
+        this.downloadDurability = downloadDurability;
+        return this;
+    }
+
+    /**
+     * Transport used for all pings and downloads of this builder.
+     * Defaults to an HTTP/2 capable <code>java.net.http.HttpClient</code> on Java 11+, which multiplexes concurrent
+     * requests to the same repository over one connection, and to pooled {@link java.net.URLConnection}s otherwise.
+     * @param httpTransport Transport for HTTP requests
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder httpTransport(final HttpTransport httpTransport) {
+        this.httpTransport = httpTransport;
+        return this;
+    }
+
     public final ApplicationBuilder jarURL(final URL jarURL) {
         this.jarURL = jarURL;
         return this;
     }
 
+    /**
+     * Whether the resolved classpath should be persisted as a boot snapshot in the download directory.
+     * When the dependency file and resolutions are unchanged and all jars are intact, the next boot injects
+     * straight from the snapshot without resolving, downloading, verifying or relocating anything.
+     * By default this is only enabled when no data provider or relocation components were customised.
+     * @param bootSnapshot true to always use boot snapshots, false to never use them
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder bootSnapshot(final boolean bootSnapshot) {
+        this.bootSnapshot = bootSnapshot;
+        return this;
+    }
+
     protected final String getApplicationName() {
         return applicationName;
     }
@@ -370,15 +635,14 @@ public abstract class ApplicationBuilder {
 
     protected final DependencyInjectorFactory getInjectorFactory() {
         if (injectorFactory == null) {
-            this.injectorFactory = new SimpleDependencyInjectorFactory();
+            this.injectorFactory = new SimpleDependencyInjectorFactory(DependencyScheduler.defaultLimits(), getIoExecutor(), getProgressListener());
         }
         return injectorFactory;
     }
 
     protected final DependencyResolverFactory getResolverFactory() {
         if (resolverFactory == null) {
-            final URLPinger pinger = new HttpURLPinger();
-            this.resolverFactory = new CachingDependencyResolverFactory(pinger);
+            this.resolverFactory = new CachingDependencyResolverFactory(getURLPinger(), getIoExecutor(), getResolutionCache(), getRepositoryRanker(), getHedgeBudget());
         }
         return resolverFactory;
     }
@@ -387,18 +651,19 @@ public abstract class ApplicationBuilder {
         if (enquirerFactory == null) {
             final PathResolutionStrategy releaseStrategy = new MavenPathResolutionStrategy();
             final PathResolutionStrategy snapshotStrategy = new MavenSnapshotPathResolutionStrategy();
-            final PathResolutionStrategy resolutionStrategy = new MediatingPathResolutionStrategy(releaseStrategy, snapshotStrategy);
+            final PathResolutionStrategy layoutStrategy = new MediatingPathResolutionStrategy(releaseStrategy, snapshotStrategy);
+            final PathResolutionStrategy resolutionStrategy = new MavenMetadataSnapshotPathResolutionStrategy(layoutStrategy, getSnapshotMetadataCache());
             final PathResolutionStrategy pomURLCreationStrategy = new MavenPomPathResolutionStrategy();
             final PathResolutionStrategy checksumResolutionStrategy = new MavenChecksumPathResolutionStrategy("SHA-256", resolutionStrategy);
-            final URLPinger urlPinger = new HttpURLPinger();
-            this.enquirerFactory = new PingingRepositoryEnquirerFactory(resolutionStrategy, checksumResolutionStrategy, pomURLCreationStrategy, urlPinger);
+            this.enquirerFactory = new PingingRepositoryEnquirerFactory(resolutionStrategy, checksumResolutionStrategy, pomURLCreationStrategy, getURLPinger(), getIoExecutor(), getChecksumFetcher(), new SnapshotMetadataFetcher(getHttpTransport(), getSnapshotMetadataCache()));
         }
         return enquirerFactory;
     }
 
     protected final DependencyDownloaderFactory getDownloaderFactory() {
         if (downloaderFactory == null) {
-            this.downloaderFactory = new URLDependencyDownloaderFactory();
+            final ChunkedDownloader chunkedDownloader = chunkedDownloads ? new ChunkedDownloader(getHttpTransport(), getIoExecutor(), chunkedDownloadThreshold, downloadChunks, downloadDurability) : null;
+            this.downloaderFactory = new URLDependencyDownloaderFactory(getHttpTransport(), getRepositoryRanker(), getHedgeBudget(), optimisticDownloads, resumableDownloads, chunkedDownloader, getProgressListener(), downloadDurability);
         }
         return downloaderFactory;
     }
@@ -420,6 +685,90 @@ public abstract class ApplicationBuilder {
         }
         return mirrorSelector;
     }
+    protected final Executor getIoExecutor() {
+        if (ioExecutor == null) {
+            ioExecutor = Threads.ioExecutor();
+        }
+        return ioExecutor;
+    }
+
+    protected final ResolutionCache getResolutionCache() {
+        if (resolutionCache == null) {
+            final Path path = getDownloadDirectoryPath().resolve("cache").resolve("resolutions");
+            resolutionCache = PersistentResolutionCache.load(path, releaseResolutionTtl.toMillis(), snapshotResolutionTtl.toMillis(), getChecksumFetcher());
+        }
+        return resolutionCache;
+    }
+
+    protected final PersistentNegativeCache getNegativeCache() {
+        if (negativeCache == null) {
+            final Path path = getDownloadDirectoryPath().resolve("cache").resolve("misses");
+            negativeCache = PersistentNegativeCache.load(path, negativeCacheSize, negativeCacheTtl.toMillis());
+        }
+        return negativeCache;
+    }
+
+    protected final PersistentSnapshotMetadataCache getSnapshotMetadataCache() {
+        if (snapshotMetadataCache == null) {
+            final Path path = getDownloadDirectoryPath().resolve("cache").resolve("snapshot-metadata");
+            snapshotMetadataCache = PersistentSnapshotMetadataCache.load(path, PersistentSnapshotMetadataCache.DEFAULT_FRESHNESS_MILLIS);
+        }
+        return snapshotMetadataCache;
+    }
+
+    protected final RepositoryRanker getRepositoryRanker() {
+        if (repositoryRanker == null) {
+            repositoryRanker = RepositoryRanker.load(getDownloadDirectoryPath().resolve("cache").resolve("repositories"));
+        }
+        return repositoryRanker;
+    }
+
+    protected final HedgeBudget getHedgeBudget() {
+        if (hedgeBudget == null) {
+            hedgeBudget = new HedgeBudget();
+        }
+        return hedgeBudget;
+    }
+
+    protected final CircuitBreakers getCircuitBreakers() {
+        if (circuitBreakers == null) {
+            circuitBreakers = new CircuitBreakers();
+        }
+        return circuitBreakers;
+    }
+
+    protected final HttpTransport getHttpTransport() {
+        if (httpTransport == null) {
+            final HttpTransport fallback = new URLConnectionTransport(getIoExecutor());
+            HttpTransport transport;
+            try {
+                transport = ReflectiveHttpClientTransport.create(getIoExecutor(), URLConnectionTransport.DEFAULT_CONNECT_TIMEOUT_MILLIS, fallback);
+            } catch (final ReflectiveOperationException exception) {
+                // java.net.http is only available on Java 11+
+                transport = fallback;
+            }
+            if (timeouts == null) {
+                timeouts = new AdaptiveTimeouts();
+            }
+            httpTransport = new LimitingHttpTransport(new CircuitBreakingHttpTransport(new TimeoutHttpTransport(transport, timeouts), getCircuitBreakers()), initialHostConcurrency, maxHostConcurrency, maxOverloadRetries, timeouts);
+        }
+        return httpTransport;
+    }
+
+    protected final ChecksumFetcher getChecksumFetcher() {
+        if (checksumFetcher == null) {
+            checksumFetcher = new ChecksumFetcher(getHttpTransport());
+        }
+        return checksumFetcher;
+    }
+
+    protected final URLPinger getURLPinger() {
+        if (urlPinger == null) {
+            urlPinger = new CachingURLPinger(new TransportURLPinger(getHttpTransport()), getNegativeCache());
+        }
+        return urlPinger;
+    }
+
     protected final ProcessLogger getLogger() {
         if (logger == null) {
             logger = (msg, args) -> {};
@@ -427,6 +776,36 @@ public abstract class ApplicationBuilder {
         return logger;
     }
 
+    /**
+     * Listener that only receives the progress of this application, plus listeners registered with the
+     * {@link ProgressDispatcher} that follow every application.
+     */
+    protected final ProgressListener getProgressListener() {
+        final MediatingProgressListener globalListener = ProgressDispatcher.getMediatingListener();
+        if (progressListener == null) {
+            return globalListener;
+        }
+        return new MediatingProgressListener(Arrays.asList(progressListener, globalListener));
+    }
+
+    /**
+     * Must be queried before any of the lazy getters populate their defaults.
+     */
+    protected final boolean isBootSnapshotEnabled() {
+        if (bootSnapshot != null) {
+            return bootSnapshot;
+        }
+        return dataProviderFactory == null
+                && preResolutionDataProviderFactory == null
+                && relocatorFactory == null
+                && relocationHelperFactory == null
+                && injectorFactory == null;
+    }
+
+    protected final Path getBootSnapshotPath() {
+        return getDownloadDirectoryPath().resolve("snapshots").resolve(getApplicationName() + ".snapshot");
+    }
+
     protected final DependencyInjector createInjector() throws IOException, URISyntaxException, NoSuchAlgorithmException, ReflectiveOperationException, InterruptedException {
         final InjectionHelperFactory injectionHelperFactory = new InjectionHelperFactory(
                 getDownloadDirectoryPath(),
@@ -438,7 +817,8 @@ public abstract class ApplicationBuilder {
                 getEnquirerFactory(),
                 getDownloaderFactory(),
                 getVerifierFactory(),
-                getMirrorSelector()
+                getMirrorSelector(),
+                new DependencyOutputWriterFactory(FilePathStrategy.createDefault(getDownloadDirectoryPath().toFile()), preallocateDownloads, downloadDurability)
         );
         return getInjectorFactory().create(injectionHelperFactory);
     }
@@ -447,9 +827,65 @@ public abstract class ApplicationBuilder {
         final MediatingProcessLogger mediatingLogger = LogDispatcher.getMediatingLogger();
         final ProcessLogger logger = getLogger();
         mediatingLogger.addLogger(logger);
-        final Application result = buildApplication();
-        mediatingLogger.removeLogger(logger);
-        return result;
+        try {
+            return buildApplication();
+        } finally {
+            saveCaches();
+            mediatingLogger.removeLogger(logger);
+        }
+    }
+
+    /**
+     * Builds the application on the given executor so the caller can continue its own initialisation meanwhile.
+     * Use {@link #progressListener(ProgressListener)} to follow the progress of the build.
+     * @param executor Executor to run the build on
+     * @return Future completed with the application, or exceptionally with the cause of a failed build
+     */
+    public final CompletableFuture<Application> buildAsync(final Executor executor) {
+        final CompletableFuture<Application> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(build());
+            } catch (final Throwable throwable) {
+                if (throwable instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+
+    private void saveCaches() {
+        final ProcessLogger logger = LogDispatcher.getMediatingLogger();
+        if (resolutionCache != null) {
+            try {
+                resolutionCache.save();
+            } catch (final IOException exception) {
+                logger.debug("Could not save resolution cache: %s", exception);
+            }
+        }
+        if (negativeCache != null) {
+            try {
+                negativeCache.save();
+            } catch (final IOException exception) {
+                logger.debug("Could not save negative cache: %s", exception);
+            }
+        }
+        if (snapshotMetadataCache != null) {
+            try {
+                snapshotMetadataCache.save();
+            } catch (final IOException exception) {
+                logger.debug("Could not save snapshot metadata cache: %s", exception);
+            }
+        }
+        if (repositoryRanker != null) {
+            try {
+                repositoryRanker.save();
+            } catch (final IOException exception) {
+                logger.debug("Could not save repository ranking: %s", exception);
+            }
+        }
     }
 
     protected abstract Application buildApplication() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException, InterruptedException;
@@ -26,22 +26,31 @@ package io.github.slimjar.app.builder;
 
 import io.github.slimjar.app.AppendingApplication;
 import io.github.slimjar.app.Application;
+import io.github.slimjar.app.snapshot.BootSnapshot;
 import io.github.slimjar.injector.DependencyInjector;
 import io.github.slimjar.injector.loader.*;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
 import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.DependencyData;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.reader.dependency.DependencyDataProvider;
 import io.github.slimjar.resolver.reader.resolution.PreResolutionDataProvider;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 public final class InjectingApplicationBuilder extends ApplicationBuilder {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
     private final Function<ApplicationBuilder, Injectable> injectableSupplier;
 
     public InjectingApplicationBuilder(final String applicationName, final Injectable injectable) {
@@ -55,6 +64,26 @@ public final class InjectingApplicationBuilder extends ApplicationBuilder {
 
     @Override
     public Application buildApplication() throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException, InterruptedException {
+        if (!isBootSnapshotEnabled() || getDependencyFileUrl() == null) {
+            injectDependencies(injectableSupplier.apply(this));
+            return new AppendingApplication();
+        }
+        final String snapshotKey = BootSnapshot.keyOf(getApplicationName(), getDependencyFileUrl(), getPreResolutionFileUrl());
+        final Path snapshotPath = getBootSnapshotPath();
+        final BootSnapshot snapshot = BootSnapshot.read(snapshotPath);
+        final Injectable injectable = injectableSupplier.apply(this);
+        if (snapshot != null && snapshot.matches(snapshotKey) && snapshot.isIntact()) {
+            LOGGER.debug("Injecting %s dependencies from boot snapshot", snapshot.getEntries().size());
+            injectable.injectAll(snapshot.urls());
+            return new AppendingApplication();
+        }
+        final RecordingInjectable recordingInjectable = new RecordingInjectable(injectable);
+        injectDependencies(recordingInjectable);
+        writeSnapshot(snapshotKey, snapshotPath, recordingInjectable.getInjected());
+        return new AppendingApplication();
+    }
+
+    private void injectDependencies(final Injectable injectable) throws IOException, ReflectiveOperationException, URISyntaxException, NoSuchAlgorithmException, InterruptedException {
         final DependencyDataProvider dataProvider = getDataProviderFactory().create(getDependencyFileUrl());
         final DependencyData dependencyData = dataProvider.get();
         final DependencyInjector dependencyInjector = createInjector();
@@ -62,8 +91,24 @@ public final class InjectingApplicationBuilder extends ApplicationBuilder {
         final PreResolutionDataProvider preResolutionDataProvider = getPreResolutionDataProviderFactory().create(getPreResolutionFileUrl());
         final Map<String, ResolutionResult> preResolutionResultMap = preResolutionDataProvider.get();
 
-        dependencyInjector.inject(injectableSupplier.apply(this), dependencyData, preResolutionResultMap);
-        return new AppendingApplication();
+        dependencyInjector.inject(injectable, dependencyData, preResolutionResultMap);
+    }
+
+    private static void writeSnapshot(final String key, final Path path, final List<URL> injected) {
+        try {
+            final List<BootSnapshot.Entry> entries = new ArrayList<>(injected.size());
+            for (final URL url : injected) {
+                if (!"file".equals(url.getProtocol())) {
+                    LOGGER.debug("Not writing boot snapshot, %s is not a local file", url);
+                    return;
+                }
+                final File file = new File(url.toURI());
+                entries.add(new BootSnapshot.Entry(file, file.length(), file.lastModified()));
+            }
+            new BootSnapshot(key, entries).write(path);
+        } catch (final IOException | URISyntaxException exception) {
+            LOGGER.debug("Could not write boot snapshot %s: %s", path, exception);
+        }
     }
 
     public static ApplicationBuilder createAppending(final String applicationName) {
@@ -74,7 +119,7 @@ public final class InjectingApplicationBuilder extends ApplicationBuilder {
     public static ApplicationBuilder createAppending(final String applicationName, final ClassLoader classLoader) {
         return new InjectingApplicationBuilder(applicationName, (ApplicationBuilder builder) -> {
             try {
-                return InjectableFactory.create(builder, builder.getDownloadDirectoryPath(), Collections.singleton(Repository.central()), classLoader);
+                return InjectableFactory.create(builder, builder.getDownloadDirectoryPath(), Collections.singleton(Repository.central()), classLoader, builder.getIoExecutor());
             } catch (URISyntaxException | ReflectiveOperationException | NoSuchAlgorithmException | IOException | InterruptedException exception) {
                 exception.printStackTrace();
             }
@@ -0,0 +1,196 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.app.snapshot;
+
+import io.github.slimjar.util.AtomicFiles;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a previous successful boot: the ordered classpath that was injected, together with the size and
+ * modification time of each jar.
+ * A snapshot is keyed by the inputs that decided that classpath, so a matching and intact snapshot can be injected
+ * as-is without reading dependency data, resolving, downloading, verifying or relocating anything.
+ */
+public final class BootSnapshot {
+    private static final String HEADER = "# slimjar boot snapshot v2";
+    private static final String KEY_PREFIX = "key=";
+    private final String key;
+    private final List<Entry> entries;
+
+    public BootSnapshot(final String key, final List<Entry> entries) {
+        this.key = key;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public boolean matches(final String key) {
+        return this.key.equals(key);
+    }
+
+    /**
+     * Checks that every jar still has the size and modification time it had when the snapshot was taken.
+     * Only file metadata is read, contents are not hashed.
+     * @return true if all jars are unchanged
+     */
+    public boolean isIntact() {
+        for (final Entry entry : entries) {
+            final File file = entry.getFile();
+            if (!file.isFile() || file.length() != entry.getSize() || file.lastModified() != entry.getLastModified()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<URL> urls() throws IOException {
+        final List<URL> urls = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            urls.add(entry.getFile().toURI().toURL());
+        }
+        return urls;
+    }
+
+    public void write(final Path path) throws IOException {
+        final List<String> lines = new ArrayList<>(entries.size() + 2);
+        lines.add(HEADER);
+        lines.add(KEY_PREFIX + key);
+        for (final Entry entry : entries) {
+            lines.add(entry.getSize() + "\t" + entry.getLastModified() + "\t" + entry.getFile().getPath());
+        }
+        AtomicFiles.writeLines(path, lines);
+    }
+
+    /**
+     * Reads a snapshot previously written with {@link #write(Path)}.
+     * @param path location of the snapshot
+     * @return the snapshot, or null if none exists or it cannot be parsed
+     */
+    public static BootSnapshot read(final Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            final String header = reader.readLine();
+            final String keyLine = reader.readLine();
+            if (!HEADER.equals(header) || keyLine == null || !keyLine.startsWith(KEY_PREFIX)) {
+                return null;
+            }
+            final List<Entry> entries = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                final String[] parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    return null;
+                }
+                entries.add(new Entry(new File(parts[2]), Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+            }
+            return new BootSnapshot(keyLine.substring(KEY_PREFIX.length()), entries);
+        } catch (final IOException | NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Derives a snapshot key from the application name and the raw contents of the dependency and resolution files.
+     * Relocation rules, repositories and mirrors are all declared in the dependency file and therefore part of the key.
+     * @param applicationName name of the application the classpath is relocated for
+     * @param sources dependency and resolution file urls, null entries are allowed
+     * @return hex encoded SHA-256 key
+     */
+    public static String keyOf(final String applicationName, final URL... sources) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+        digest.update(applicationName.getBytes(StandardCharsets.UTF_8));
+        for (final URL source : sources) {
+            digest.update((byte) 0);
+            if (source == null) continue;
+            final URLConnection connection = source.openConnection();
+            // Do not cache so changes to the jar are picked up
+            connection.setUseCaches(false);
+            try (final InputStream inputStream = connection.getInputStream()) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        final StringBuilder builder = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            builder.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+        }
+        return builder.toString();
+    }
+
+    public static final class Entry {
+        private final File file;
+        private final long size;
+        private final long lastModified;
+
+        public Entry(final File file, final long size, final long lastModified) {
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
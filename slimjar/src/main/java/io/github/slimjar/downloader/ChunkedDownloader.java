@@ -0,0 +1,368 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.Durability;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.progress.ProgressEvent;
+import io.github.slimjar.progress.ProgressListener;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
+import io.github.slimjar.util.AtomicFiles;
+import io.github.slimjar.util.Checksums;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Downloads large artifacts as several byte ranges at once. The file is sized to its full length up front and
+ * every range is written at its position, the first range is taken from the response that announced the artifact
+ * so splitting costs no extra round trip. Only used for responses at or above the size threshold whose server
+ * advertises <code>Accept-Ranges: bytes</code>, everything else is downloaded as a single stream.
+ */
+public final class ChunkedDownloader {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    public static final long DEFAULT_THRESHOLD_BYTES = 32L * 1024 * 1024;
+    public static final int DEFAULT_CHUNKS = 4;
+    private static final long REPORT_INTERVAL = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private final HttpTransport transport;
+    private final Executor executor;
+    private final long thresholdBytes;
+    private final int chunks;
+    private final Durability durability;
+
+    public ChunkedDownloader(final HttpTransport transport) {
+        this(transport, ForkJoinPool.commonPool());
+    }
+
+    public ChunkedDownloader(final HttpTransport transport, final Executor executor) {
+        this(transport, executor, DEFAULT_THRESHOLD_BYTES, DEFAULT_CHUNKS);
+    }
+
+    /**
+     * @param executor Executor the ranges are copied to disk on
+     * @param thresholdBytes Size from which artifacts are downloaded in ranges
+     * @param chunks Number of ranges downloaded at once
+     */
+    public ChunkedDownloader(final HttpTransport transport, final Executor executor, final long thresholdBytes, final int chunks) {
+        this(transport, executor, thresholdBytes, chunks, Durability.NONE);
+    }
+
+    /**
+     * @param executor Executor the ranges are copied to disk on
+     * @param thresholdBytes Size from which artifacts are downloaded in ranges
+     * @param chunks Number of ranges downloaded at once
+     * @param durability How far a downloaded artifact is flushed to storage when it is moved into place
+     */
+    public ChunkedDownloader(final HttpTransport transport, final Executor executor, final long thresholdBytes, final int chunks, final Durability durability) {
+        if (chunks < 1) throw new IllegalArgumentException("chunks must be at least 1");
+        this.transport = transport;
+        this.executor = executor;
+        this.thresholdBytes = thresholdBytes;
+        this.chunks = chunks;
+        this.durability = durability;
+    }
+
+    /**
+     * @param response response to a plain GET of the artifact, before any of its body was read
+     * @return true if the artifact should be downloaded in ranges
+     */
+    public boolean accepts(final TransportResponse response) {
+        return chunks > 1
+                && response.statusCode() == HttpURLConnection.HTTP_OK
+                && response.contentLength() >= thresholdBytes
+                && "bytes".equalsIgnoreCase(trim(response.header("Accept-Ranges")));
+    }
+
+    /**
+     * Downloads the artifact into <code>target</code>, replacing it once all ranges arrived.
+     * @param response accepted response to a plain GET of <code>url</code>, its body supplies the first range
+     * @return SHA-256 digest of the whole file as hex, or null if the algorithm is not available
+     */
+    public String download(final Dependency dependency, final URL url, final TransportResponse response, final Path target, final ProgressListener listener) throws IOException, InterruptedException {
+        return download(dependency, url, response, target, listener, digest -> true);
+    }
+
+    /**
+     * Downloads the artifact into <code>target</code>, replacing it once all ranges arrived and <code>check</code>
+     * accepted the digest of the whole file. A rejected download leaves <code>target</code> untouched.
+     * @param response accepted response to a plain GET of <code>url</code>, its body supplies the first range
+     * @param check Check of the SHA-256 digest as hex, which is null if the algorithm is not available
+     * @return SHA-256 digest of the whole file as hex, or null if the algorithm is not available
+     */
+    public String download(final Dependency dependency, final URL url, final TransportResponse response, final Path target, final ProgressListener listener, final Predicate<String> check) throws IOException, InterruptedException {
+        return download(dependency, url, response, target, listener, DIGEST_ALGORITHM, check);
+    }
+
+    /**
+     * Downloads the artifact into <code>target</code>, replacing it once all ranges arrived and <code>check</code>
+     * accepted the digest of the whole file. A rejected download leaves <code>target</code> untouched.
+     * @param response accepted response to a plain GET of <code>url</code>, its body supplies the first range
+     * @param algorithm Algorithm the file is digested with, such as SHA-256
+     * @param check Check of the digest as hex, which is null if the algorithm is not available
+     * @return digest of the whole file as hex, or null if the algorithm is not available
+     */
+    public String download(final Dependency dependency, final URL url, final TransportResponse response, final Path target, final ProgressListener listener, final String algorithm, final Predicate<String> check) throws IOException, InterruptedException {
+        final long length = response.contentLength();
+        final long chunkSize = (length + chunks - 1) / chunks;
+        final String validator = validatorOf(response);
+        final Progress progress = new Progress(dependency, length, listener);
+        LOGGER.debug("Downloading %s in %s ranges of %s bytes", url, chunks, chunkSize);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        final Path temporary = AtomicFiles.createTemporary(target);
+        try {
+            final String digest;
+            try (final RandomAccessFile file = new RandomAccessFile(temporary.toFile(), "rw")) {
+                file.setLength(length);
+                final FileChannel channel = file.getChannel();
+                final OrderedDigest orderedDigest = new OrderedDigest(channel, length, chunkSize, algorithm);
+                final List<CompletableFuture<Void>> ranges = new ArrayList<>(chunks - 1);
+                for (long start = chunkSize; start < length; start += chunkSize) {
+                    final long from = start;
+                    final long to = Math.min(length, start + chunkSize) - 1;
+                    ranges.add(fetchRange(url, validator, from, to, channel, progress, orderedDigest));
+                }
+                try {
+                    // The first range starts the file, so it is digested as it streams in
+                    copy(response.body(), channel, 0, Math.min(chunkSize, length), progress, orderedDigest.digest);
+                    orderedDigest.complete(0, true);
+                    for (final CompletableFuture<Void> range : ranges) {
+                        range.get();
+                    }
+                } catch (final ExecutionException exception) {
+                    final Throwable cause = exception.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException("Could not download from " + url, cause);
+                } finally {
+                    for (final CompletableFuture<Void> range : ranges) {
+                        range.cancel(true);
+                    }
+                }
+                digest = orderedDigest.toHex();
+                durability.force(channel);
+            }
+            if (!check.test(digest)) {
+                throw new IOException("Checksum mismatch for " + dependency.artifactId() + " downloaded from " + url);
+            }
+            AtomicFiles.moveIntoPlace(temporary, target);
+            durability.forceDirectory(target.toAbsolutePath().getParent());
+            return digest;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private CompletableFuture<Void> fetchRange(final URL url, final String validator, final long from, final long to, final FileChannel channel, final Progress progress, final OrderedDigest orderedDigest) {
+        // The primary response holds the download's place in the host limit until all ranges are in
+        TransportRequest request = TransportRequest.get(url)
+                .withHeader("User-Agent", TransportRequest.DOWNLOAD_USER_AGENT)
+                .withHeader("Range", "bytes=" + from + "-" + to)
+                .withKind(TransportRequest.Kind.ARTIFACT)
+                .asFollowUp();
+        if (validator != null) {
+            request = request.withHeader("If-Range", validator);
+        }
+        final CompletableFuture<TransportResponse> sent = transport.sendAsync(request);
+        final CompletableFuture<Void> range = sent.thenAcceptAsync(response -> {
+            try (final TransportResponse body = response) {
+                final String contentRange = trim(body.header("Content-Range"));
+                // A full response means the artifact changed since the first range was requested
+                if (body.statusCode() != HttpURLConnection.HTTP_PARTIAL || contentRange == null || !contentRange.startsWith("bytes " + from + "-")) {
+                    throw new IOException("Range " + from + "-" + to + " of " + url + " not served (" + body.statusCode() + ")");
+                }
+                copy(body.body(), channel, from, to - from + 1, progress, null);
+                orderedDigest.complete(orderedDigest.indexOf(from), false);
+            } catch (final IOException exception) {
+                throw new CompletionException(exception);
+            }
+        }, executor);
+        // A range cancelled before it got to its response still has to close it, which frees its connection
+        range.whenComplete((ignored, throwable) -> {
+            if (range.isCancelled()) {
+                sent.thenAccept(ChunkedDownloader::closeQuietly);
+            }
+        });
+        return range;
+    }
+
+    private static void closeQuietly(final TransportResponse response) {
+        try {
+            response.close();
+        } catch (final IOException exception) {
+            LOGGER.debug("Failed to close response: %s", exception);
+        }
+    }
+
+    /**
+     * @param digest Digest to feed the copied bytes into, may be null
+     */
+    private static void copy(final InputStream inputStream, final FileChannel channel, final long position, final long length, final Progress progress, final MessageDigest digest) throws IOException {
+        final byte[] bytes = new byte[BUFFER_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long written = 0;
+        while (written < length) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Interrupted while downloading");
+            }
+            final int read = inputStream.read(bytes, 0, (int) Math.min(bytes.length, length - written));
+            if (read == -1) {
+                throw new IOException("Range ended after " + written + " of " + length + " bytes");
+            }
+            if (digest != null) {
+                digest.update(bytes, 0, read);
+            }
+            buffer.clear().limit(read);
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer, position + written);
+            }
+            progress.add(read);
+        }
+    }
+
+    private static String validatorOf(final TransportResponse response) {
+        final String etag = trim(response.header("ETag"));
+        if (etag != null && !etag.startsWith("W/")) return etag;
+        return trim(response.header("Last-Modified"));
+    }
+
+    private static String trim(final String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static final class Progress {
+        private final Dependency dependency;
+        private final long totalBytes;
+        private final ProgressListener listener;
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong reported = new AtomicLong();
+
+        private Progress(final Dependency dependency, final long totalBytes, final ProgressListener listener) {
+            this.dependency = dependency;
+            this.totalBytes = totalBytes;
+            this.listener = listener;
+        }
+
+        private void add(final long read) {
+            final long current = bytes.addAndGet(read);
+            final long last = reported.get();
+            if ((current - last >= REPORT_INTERVAL || current == totalBytes) && reported.compareAndSet(last, current)) {
+                listener.onProgress(ProgressEvent.bytes(dependency, current, totalBytes));
+            }
+        }
+    }
+
+    /**
+     * Digest of the file built in file order while the ranges arrive out of order. The first range is digested
+     * as it streams in. Every other range is digested as soon as all ranges before it are, reading it back while it is
+     * still in the page cache, so the digest is complete when the last range is and the file is not read again.
+     */
+    private static final class OrderedDigest {
+        private final MessageDigest digest;
+        private final FileChannel channel;
+        private final long length;
+        private final long chunkSize;
+        private final boolean[] completed;
+        private int digested;
+
+        private OrderedDigest(final FileChannel channel, final long length, final long chunkSize, final String algorithm) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance(algorithm);
+            } catch (final NoSuchAlgorithmException exception) {
+                digest = null;
+            }
+            this.digest = digest;
+            this.channel = channel;
+            this.length = length;
+            this.chunkSize = chunkSize;
+            this.completed = new boolean[(int) ((length + chunkSize - 1) / chunkSize)];
+        }
+
+        private int indexOf(final long from) {
+            return (int) (from / chunkSize);
+        }
+
+        /**
+         * Marks a range as written and digests every range the digest can now be extended by.
+         * @param streamed true if the range was already fed into the digest while it was copied
+         */
+        private synchronized void complete(final int index, final boolean streamed) throws IOException {
+            completed[index] = true;
+            if (streamed && index == digested) {
+                digested++;
+            }
+            while (digest != null && digested < completed.length && completed[digested]) {
+                final long from = digested * chunkSize;
+                digestRange(from, Math.min(length, from + chunkSize));
+                digested++;
+            }
+        }
+
+        private void digestRange(final long from, final long to) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = from;
+            while (position < to) {
+                buffer.clear().limit((int) Math.min(BUFFER_SIZE, to - position));
+                final int read = channel.read(buffer, position);
+                if (read == -1) throw new IOException("File ended at " + position + " of " + to + " bytes");
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+        }
+
+        /**
+         * @return digest of the whole file as hex, or null if the algorithm is not available
+         */
+        private synchronized String toHex() throws IOException {
+            if (digest == null) return null;
+            if (digested < completed.length) throw new IOException("Digest is missing ranges");
+            return Checksums.toHex(digest.digest());
+        }
+    }
+}
@@ -31,4 +31,12 @@ import java.io.IOException;
 
 public interface DependencyDownloader {
     File download(final Dependency dependency) throws IOException, InterruptedException;
+
+    /**
+     * @return false if this downloader locates artifacts by itself, so resolving dependencies ahead of the
+     * download would only cost extra round trips
+     */
+    default boolean needsResolution() {
+        return true;
+    }
 }
@@ -24,36 +24,166 @@
 
 package io.github.slimjar.downloader;
 
+import io.github.slimjar.downloader.output.Durability;
 import io.github.slimjar.downloader.output.OutputWriter;
 import io.github.slimjar.downloader.output.OutputWriterFactory;
+import io.github.slimjar.downloader.output.PartFile;
 import io.github.slimjar.downloader.verify.DependencyVerifier;
 import io.github.slimjar.logging.LogDispatcher;
 import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.progress.ProgressDispatcher;
+import io.github.slimjar.progress.ProgressInputStream;
+import io.github.slimjar.progress.ProgressListener;
+import io.github.slimjar.resolver.ChecksumFetcher;
 import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionCandidate;
 import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.UnresolvedDependencyException;
 import io.github.slimjar.resolver.data.Dependency;
-import io.github.slimjar.util.Connections;
+import io.github.slimjar.resolver.ranking.HedgeBudget;
+import io.github.slimjar.resolver.ranking.RepositoryRanker;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
+import io.github.slimjar.transport.URLConnectionTransport;
+import io.github.slimjar.util.Checksums;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 public final class URLDependencyDownloader implements DependencyDownloader {
     private static final byte[] BOM_BYTES = "bom-file".getBytes();
+    private static final String FALLBACK_CHECKSUM_ALGORITHM = "SHA-256";
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
     private final OutputWriterFactory outputWriterProducer;
     private final DependencyResolver dependencyResolver;
     private final DependencyVerifier verifier;
+    private final HttpTransport transport;
+    private final RepositoryRanker repositoryRanker;
+    private final HedgeBudget hedgeBudget;
+    private final boolean optimistic;
+    private final boolean resumable;
+    private final ChunkedDownloader chunkedDownloader;
+    private final ChecksumFetcher checksumFetcher;
+    private final ProgressListener progressListener;
+    private final Durability durability;
+    private final String digestAlgorithm;
 
     public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, DependencyResolver dependencyResolver, DependencyVerifier verifier) {
+        this(outputWriterProducer, dependencyResolver, verifier, new URLConnectionTransport(Runnable::run));
+    }
+
+    public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpTransport transport) {
+        this(outputWriterProducer, dependencyResolver, verifier, transport, null, null);
+    }
+
+    /**
+     * @param repositoryRanker Ranking providing the delay after which a slow download is hedged, may be null
+     * @param hedgeBudget Global cap on hedged downloads, may be null to never hedge
+     */
+    public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget) {
+        this(outputWriterProducer, dependencyResolver, verifier, transport, repositoryRanker, hedgeBudget, false);
+    }
+
+    /**
+     * @param optimistic Whether to download straight from the candidate locations of the resolver without resolving
+     *                   the dependency first. A missing artifact just moves on to the next candidate, the checksum is
+     *                   fetched while the artifact downloads. Dependencies no candidate serves are resolved as usual.
+     */
+    public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic) {
+        this(outputWriterProducer, dependencyResolver, verifier, transport, repositoryRanker, hedgeBudget, optimistic, false);
+    }
+
+    /**
+     * @param optimistic Whether to download straight from the candidate locations of the resolver without resolving
+     *                   the dependency first. A missing artifact just moves on to the next candidate, the checksum is
+     *                   fetched while the artifact downloads. Dependencies no candidate serves are resolved as usual.
+     * @param resumable Whether to download resolved artifacts into a <code>.part</code> file that an interrupted
+     *                  download is continued from with a range request, in this run or the next one
+     */
+    public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable) {
+        this(outputWriterProducer, dependencyResolver, verifier, transport, repositoryRanker, hedgeBudget, optimistic, resumable, null);
+    }
+
+    /**
+     * @param optimistic Whether to download straight from the candidate locations of the resolver without resolving
+     *                   the dependency first. A missing artifact just moves on to the next candidate, the checksum is
+     *                   fetched while the artifact downloads. Dependencies no candidate serves are resolved as usual.
+     * @param resumable Whether to download resolved artifacts into a <code>.part</code> file that an interrupted
+     *                  download is continued from with a range request, in this run or the next one
+     * @param chunkedDownloader Downloader for large resolved artifacts in parallel ranges, may be null to always
+     *                          download a single stream. Not used for resumable downloads.
+     */
+    public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable, final ChunkedDownloader chunkedDownloader) {
+        this(outputWriterProducer, dependencyResolver, verifier, transport, repositoryRanker, hedgeBudget, optimistic, resumable, chunkedDownloader, ProgressDispatcher.getMediatingListener());
+    }
+
+    /**
+     * @param optimistic Whether to download straight from the candidate locations of the resolver without resolving
+     *                   the dependency first. A missing artifact just moves on to the next candidate, the checksum is
+     *                   fetched while the artifact downloads. Dependencies no candidate serves are resolved as usual.
+     * @param resumable Whether to download resolved artifacts into a <code>.part</code> file that an interrupted
+     *                  download is continued from with a range request, in this run or the next one
+     * @param chunkedDownloader Downloader for large resolved artifacts in parallel ranges, may be null to always
+     *                          download a single stream. Not used for resumable downloads.
+     * @param progressListener Listener that receives the downloaded bytes of this downloader
+     */
+    public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable, final ChunkedDownloader chunkedDownloader, final ProgressListener progressListener) {
+        this(outputWriterProducer, dependencyResolver, verifier, transport, repositoryRanker, hedgeBudget, optimistic, resumable, chunkedDownloader, progressListener, Durability.NONE);
+    }
+
+    /**
+     * @param optimistic Whether to download straight from the candidate locations of the resolver without resolving
+     *                   the dependency first. A missing artifact just moves on to the next candidate, the checksum is
+     *                   fetched while the artifact downloads. Dependencies no candidate serves are resolved as usual.
+     * @param resumable Whether to download resolved artifacts into a <code>.part</code> file that an interrupted
+     *                  download is continued from with a range request, in this run or the next one
+     * @param chunkedDownloader Downloader for large resolved artifacts in parallel ranges, may be null to always
+     *                          download a single stream. Not used for resumable downloads.
+     * @param progressListener Listener that receives the downloaded bytes of this downloader
+     * @param durability How far a completed <code>.part</code> file is flushed to storage when it is moved into place
+     */
+    public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable, final ChunkedDownloader chunkedDownloader, final ProgressListener progressListener, final Durability durability) {
         this.outputWriterProducer = outputWriterProducer;
         this.dependencyResolver = dependencyResolver;
         this.verifier = verifier;
+        this.transport = transport;
+        this.repositoryRanker = repositoryRanker;
+        this.hedgeBudget = hedgeBudget;
+        this.optimistic = optimistic;
+        this.resumable = resumable;
+        this.chunkedDownloader = chunkedDownloader;
+        this.checksumFetcher = new ChecksumFetcher(transport);
+        this.progressListener = progressListener;
+        this.durability = durability;
+        // Downloads are checked against the published checksum in the algorithm the verifier compares
+        this.digestAlgorithm = verifier.getAlgorithm() != null ? verifier.getAlgorithm() : FALLBACK_CHECKSUM_ALGORITHM;
+    }
+
+    @Override
+    public boolean needsResolution() {
+        return !optimistic;
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -68,6 +198,15 @@ public final class URLDependencyDownloader implements DependencyDownloader {
 
         if (verifier.verify(expectedOutputFile, dependency)) return expectedOutputFile;
 
+        if (optimistic) {
+            final List<ResolutionCandidate> candidates = dependencyResolver.candidates(dependency);
+            if (!candidates.isEmpty()) {
+                final File downloaded = downloadDirect(dependency, expectedOutputFile, candidates);
+                if (downloaded != null) return downloaded;
+                LOGGER.debug("No candidate location serves %s, resolving it", dependency.artifactId());
+            }
+        }
+
         final ResolutionResult result = dependencyResolver.resolve(dependency)
                 .orElseThrow(() -> new UnresolvedDependencyException(dependency));
 
@@ -78,30 +217,430 @@ public final class URLDependencyDownloader implements DependencyDownloader {
             return null;
         }
 
-        expectedOutputFile.delete();
-        final File checksumFile = verifier.getChecksumFile(dependency);
-        if (checksumFile != null) {
-            checksumFile.delete();
-        }
+        clearChecksum(dependency);
 
         LOGGER.log("Downloading %s...", dependency.artifactId());
 
         final URL url = result.getDependencyURL();
         LOGGER.debug("Connecting to %s", url);
 
-        final URLConnection connection = Connections.createDownloadConnection(url);
-        final InputStream inputStream = connection.getInputStream();
+        File downloadResult;
+        try {
+            downloadResult = resumable ? downloadResumable(dependency, result, expectedOutputFile) : downloadFrom(dependency, result, expectedOutputFile);
+        } catch (final IOException exception) {
+            downloadResult = retry(dependency, result, expectedOutputFile, exception);
+        }
+        LOGGER.debug("Artifact %s downloaded successfully!", dependency.artifactId());
+
+        LOGGER.log("Downloaded %s successfully!", dependency.artifactId());
+        return downloadResult;
+    }
+
+    private File downloadFrom(final Dependency dependency, final ResolutionResult result, final File expectedOutputFile) throws IOException, InterruptedException {
+        try (final Answer answer = open(dependency, result)) {
+            final TransportResponse response = answer.response;
+            if (chunkedDownloader != null && chunkedDownloader.accepts(response)) {
+                // The ranges have to come from the repository that answered, a hedge may have won over the resolved one
+                final String digest = chunkedDownloader.download(dependency, answer.url, response, expectedOutputFile.toPath(), progressListener, digestAlgorithm, checksum -> matchesChecksum(result, checksum));
+                if (digest != null) {
+                    verifier.recordDigest(expectedOutputFile, digestAlgorithm, digest);
+                }
+                return expectedOutputFile;
+            }
+            return write(dependency, response.body(), response.contentLength(), createDigest(), checksum -> matchesChecksum(result, checksum));
+        }
+    }
+
+    /**
+     * Retries a transfer that timed out or stalled once instead of failing the boot. Resumable downloads continue
+     * where they broke off, others start over from the next repository known to serve the artifact, or from the same
+     * location if there is none. Any other failure, such as an error status or a checksum mismatch, is final.
+     */
+    private File retry(final Dependency dependency, final ResolutionResult result, final File expectedOutputFile, final IOException exception) throws IOException, InterruptedException {
+        if (!isTimeout(exception)) throw exception;
+        final URL url = result.getDependencyURL();
+        try {
+            if (resumable) {
+                LOGGER.debug("Download from %s timed out (%s), resuming it", url, exception);
+                return downloadResumable(dependency, result, expectedOutputFile);
+            }
+            final List<URL> alternatives = dependencyResolver.alternativeURLs(dependency, result);
+            final URL alternative = alternatives.isEmpty() ? url : alternatives.get(0);
+            LOGGER.debug("Download from %s timed out (%s), retrying from %s", url, exception, alternative);
+            try (final TransportResponse response = successful(transport.send(request(alternative)), alternative)) {
+                return write(dependency, response.body(), response.contentLength(), createDigest(), checksum -> matchesChecksum(result, checksum));
+            }
+        } catch (final IOException retryException) {
+            if (retryException != exception) {
+                retryException.addSuppressed(exception);
+            }
+            throw retryException;
+        }
+    }
+
+    private static boolean isTimeout(final Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            // java.net.http.HttpTimeoutException is not available on Java 8
+            if (cause instanceof SocketTimeoutException || cause.getClass().getSimpleName().endsWith("TimeoutException")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Downloads into the <code>.part</code> file of the artifact, continuing a previous attempt with a range request
+     * if the server still serves the same content (checked with <code>If-Range</code>). A server that cannot serve the
+     * range where the part ends is asked for the whole artifact instead. The part replaces the artifact once complete
+     * and, where a checksum is published, once its digest matches.
+     */
+    private File downloadResumable(final Dependency dependency, final ResolutionResult result, final File expectedOutputFile) throws IOException, InterruptedException {
+        final URL url = result.getDependencyURL();
+        final PartFile partFile = new PartFile(expectedOutputFile, durability);
+        final long resumableOffset = partFile.resumableOffset(url);
+        TransportRequest request = request(url);
+        if (resumableOffset > 0) {
+            request = request.withHeader("Range", "bytes=" + resumableOffset + "-").withHeader("If-Range", partFile.validator());
+        }
+        TransportResponse response = transport.send(request);
+        if (response.statusCode() == HTTP_RANGE_NOT_SATISFIABLE || response.statusCode() == HttpURLConnection.HTTP_PARTIAL && !startsAt(response, resumableOffset)) {
+            // The server cannot continue the part where it ends, its body would not line up with the stored bytes
+            closeQuietly(response);
+            request = request(url);
+            response = transport.send(request);
+        }
+        final MessageDigest digest = createDigest();
+        try (final TransportResponse body = successful(response, url)) {
+            final boolean partial = body.statusCode() == HttpURLConnection.HTTP_PARTIAL;
+            if (partial && !request.getHeaders().containsKey("Range")) {
+                throw new IOException("Unrequested partial content from " + url);
+            }
+            final long offset = partial ? resumableOffset : 0;
+            if (offset > 0) {
+                LOGGER.log("Resuming download of %s at %s bytes...", dependency.artifactId(), offset);
+            }
+            partFile.begin(url, body.header("ETag"), body.header("Last-Modified"), offset);
+            if (digest != null) {
+                partFile.digestExisting(digest);
+            }
+            final long contentLength = body.contentLength();
+            final InputStream inputStream = digest == null ? body.body() : new DigestInputStream(body.body(), digest);
+            partFile.append(new ProgressInputStream(inputStream, progressListener, dependency, contentLength < 0 ? -1 : offset + contentLength));
+        }
+        final String checksum = digest == null ? null : Checksums.toHex(digest.digest());
+        if (!matchesChecksum(result, checksum)) {
+            partFile.discard();
+            throw new IOException("Checksum mismatch for " + dependency.artifactId() + " downloaded from " + url);
+        }
+        final File file = partFile.complete();
+        if (checksum != null) {
+            verifier.recordDigest(file, digestAlgorithm, checksum);
+        }
+        return file;
+    }
+
+    /**
+     * @param actualChecksum digest of the downloaded artifact as hex, may be null if unknown
+     * @return false if the resolved checksum differs or could not be fetched
+     */
+    private boolean matchesChecksum(final ResolutionResult result, final String actualChecksum) {
+        if (actualChecksum == null) return true;
+        try {
+            return matchesChecksum(result.getChecksum(), actualChecksum);
+        } catch (final UncheckedIOException exception) {
+            LOGGER.log("Could not fetch checksum from %s: %s", result.getChecksumURL(), exception.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * A published checksum of another algorithm than the digest cannot vouch for the download, so it rejects it
+     * instead of letting the download replace the artifact unchecked.
+     * @param expectedChecksum checksum published for the artifact, may be null if there is none
+     * @param actualChecksum digest of the downloaded artifact as hex, may be null if unknown
+     * @return false if the expected checksum differs or is not a checksum of the digest algorithm
+     */
+    private boolean matchesChecksum(final String expectedChecksum, final String actualChecksum) {
+        if (expectedChecksum == null || actualChecksum == null) return true;
+        final String expected = expectedChecksum.trim().split("\\s+")[0];
+        if (expected.length() != actualChecksum.length()) {
+            LOGGER.log("Published checksum %s is not a %s checksum", expected, digestAlgorithm);
+            return false;
+        }
+        return expected.equalsIgnoreCase(actualChecksum);
+    }
+
+    private static boolean startsAt(final TransportResponse response, final long offset) {
+        final String contentRange = response.header("Content-Range");
+        return contentRange != null && contentRange.trim().startsWith("bytes " + offset + "-");
+    }
+
+    /**
+     * Drops the stored checksum of a dependency that is downloaded again. The artifact itself stays in place until the
+     * new download replaces it, so a failed download does not leave the dependency without any file.
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private void clearChecksum(final Dependency dependency) {
+        final File checksumFile = verifier.getChecksumFile(dependency);
+        if (checksumFile != null) {
+            checksumFile.delete();
+        }
+    }
+
+    /**
+     * Writes the body while feeding it through <code>digest</code>. The written file only replaces the artifact if
+     * <code>check</code> accepts its digest. Once the whole body reached the file, the digest is handed to the verifier
+     * so verifying the fresh download does not read it from disk again.
+     * @param digest digest to update, may be null
+     * @param check Check of the digest as hex, which is null if unknown
+     */
+    private File write(final Dependency dependency, final InputStream body, final long contentLength, final MessageDigest digest, final Predicate<String> check) throws IOException {
+        final ProgressInputStream inputStream = new ProgressInputStream(digest == null ? body : new DigestInputStream(body, digest), progressListener, dependency, contentLength);
         LOGGER.debug("Connection successful! Downloading %s" ,dependency.artifactId() + "...");
 
         final OutputWriter outputWriter = outputWriterProducer.create(dependency);
-        LOGGER.debug("%s.Size = %s", dependency.artifactId(), connection.getContentLength());
+        if (!outputWriter.replacesExisting()) {
+            Files.deleteIfExists(outputWriterProducer.getStrategy().selectFileFor(dependency).toPath());
+        }
+        LOGGER.debug("%s.Size = %s", dependency.artifactId(), contentLength);
 
-        final File downloadResult = outputWriter.writeFrom(inputStream, connection.getContentLength());
-        Connections.tryDisconnect(connection);
-        verifier.verify(downloadResult, dependency);
-        LOGGER.debug("Artifact %s downloaded successfully!", dependency.artifactId());
+        final File file = outputWriter.writeFrom(inputStream, contentLength, written -> {
+            if (check.test(digest == null ? null : peekChecksum(digest))) return true;
+            LOGGER.log("Checksum mismatch for %s, discarding the download", dependency.artifactId());
+            return false;
+        });
+        // Writers may keep an existing file instead of consuming the body, its digest would not describe the file then
+        if (digest != null && file.length() == inputStream.getBytesRead()) {
+            final String checksum = peekChecksum(digest);
+            if (checksum != null) {
+                verifier.recordDigest(file, digestAlgorithm, checksum);
+            }
+        }
+        return file;
+    }
 
-        LOGGER.log("Downloaded %s successfully!", dependency.artifactId());
-        return downloadResult;
+    /**
+     * @return digest of the bytes so far as hex, leaving <code>digest</code> open for callers that finish it themselves
+     */
+    private static String peekChecksum(final MessageDigest digest) {
+        try {
+            return Checksums.toHex(((MessageDigest) digest.clone()).digest());
+        } catch (final CloneNotSupportedException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Requests the artifact from each candidate in turn until one serves it, skipping the usual pings. The checksum
+     * is requested as soon as the artifact is found and arrives while the artifact downloads. The outcome is recorded
+     * with the resolver so verification does not resolve the dependency again. Without a remote checksum it is
+     * recorded without one, the digest of the downloaded bytes must not vouch for those very bytes.
+     * Only a candidate that answers 404 or 410 is skipped, any other error status leaves the dependency to resolution.
+     * @return the downloaded file, or null if the dependency has to be resolved instead
+     */
+    private File downloadDirect(final Dependency dependency, final File expectedOutputFile, final List<ResolutionCandidate> candidates) throws IOException, InterruptedException {
+        clearChecksum(dependency);
+        for (final ResolutionCandidate candidate : candidates) {
+            final URL url = candidate.getDependencyURL();
+            LOGGER.debug("Trying %s", url);
+            final TransportResponse response;
+            try {
+                response = transport.send(request(url));
+            } catch (final IOException exception) {
+                LOGGER.debug("Could not reach %s: %s", url, exception);
+                continue;
+            }
+            if (!response.isSuccessful()) {
+                LOGGER.debug("%s answered %s", url, response.statusCode());
+                closeQuietly(response);
+                if (response.statusCode() == HttpURLConnection.HTTP_NOT_FOUND || response.statusCode() == HttpURLConnection.HTTP_GONE) {
+                    continue;
+                }
+                return null;
+            }
+            final CompletableFuture<String> remoteChecksum = fetchChecksum(candidate.getChecksumURLs(), 0);
+            final MessageDigest digest = createDigest();
+            LOGGER.log("Downloading %s...", dependency.artifactId());
+            final File downloadResult;
+            try (final TransportResponse body = response) {
+                downloadResult = write(dependency, body.body(), body.contentLength(), digest, checksum -> matchesRemoteChecksum(remoteChecksum, checksum));
+            } catch (final IOException exception) {
+                remoteChecksum.cancel(true);
+                throw exception;
+            }
+            dependencyResolver.record(dependency, new ResolutionResult(candidate.getRepository(), url, awaitChecksum(remoteChecksum), false, true));
+            LOGGER.log("Downloaded %s successfully!", dependency.artifactId());
+            return downloadResult;
+        }
+        return null;
+    }
+
+    /**
+     * Requests the checksum locations in order and completes with the content of the first one that exists,
+     * or with null if none does.
+     */
+    private CompletableFuture<String> fetchChecksum(final List<URL> checksumURLs, final int index) {
+        if (index >= checksumURLs.size()) return CompletableFuture.completedFuture(null);
+        return checksumFetcher.fetch(checksumURLs.get(index)).thenCompose(checksum -> checksum != null
+                ? CompletableFuture.completedFuture(checksum)
+                : fetchChecksum(checksumURLs, index + 1));
+    }
+
+    /**
+     * @return the remote checksum, or null if none is published
+     * @throws IOException if the checksum could not be fetched
+     */
+    private static String awaitChecksum(final CompletableFuture<String> checksum) throws IOException, InterruptedException {
+        try {
+            return checksum.get();
+        } catch (final ExecutionException exception) {
+            throw unwrap(exception, null);
+        } catch (final CancellationException exception) {
+            throw new IOException("Checksum fetch was cancelled", exception);
+        }
+    }
+
+    /**
+     * Waits for the remote checksum where checked exceptions cannot be thrown. A checksum that could not be fetched
+     * rejects the download.
+     */
+    private boolean matchesRemoteChecksum(final CompletableFuture<String> remoteChecksum, final String actualChecksum) {
+        try {
+            return matchesChecksum(remoteChecksum.join(), actualChecksum);
+        } catch (final CompletionException | CancellationException exception) {
+            LOGGER.log("Could not fetch checksum: %s", exception.getCause() == null ? exception : exception.getCause());
+            return false;
+        }
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(digestAlgorithm);
+        } catch (final NoSuchAlgorithmException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Sends the download request. If the resolved repository has not answered within its hedge delay, the same
+     * artifact is also requested from the best alternative repository, budget permitting. The first successful
+     * response wins and the other one is closed.
+     * @return the winning response along with the location that served it
+     */
+    private Answer open(final Dependency dependency, final ResolutionResult result) throws IOException, InterruptedException {
+        final URL url = result.getDependencyURL();
+        final List<URL> alternatives = hedgeBudget == null ? null : dependencyResolver.alternativeURLs(dependency, result);
+        if (alternatives == null || alternatives.isEmpty()) {
+            return new Answer(url, successful(transport.send(request(url)), url));
+        }
+        hedgeBudget.recordRequest();
+        final CompletableFuture<TransportResponse> primary = transport.sendAsync(request(url));
+        final long hedgeDelayMillis = repositoryRanker == null
+                ? RepositoryRanker.DEFAULT_HEDGE_DELAY_MILLIS
+                : repositoryRanker.hedgeDelayMillis(result.getRepository().url().toString());
+        try {
+            return new Answer(url, successful(primary.get(hedgeDelayMillis, TimeUnit.MILLISECONDS), url));
+        } catch (final TimeoutException exception) {
+            if (!hedgeBudget.tryAcquire()) {
+                return new Answer(url, successful(await(primary), url));
+            }
+        } catch (final ExecutionException exception) {
+            throw unwrap(exception, url);
+        }
+        final URL alternative = alternatives.get(0);
+        LOGGER.debug("%s is slow to answer, also trying %s", url, alternative);
+        try {
+            return race(new PendingAnswer(url, primary), new PendingAnswer(alternative, transport.sendAsync(request(alternative))));
+        } finally {
+            hedgeBudget.release();
+        }
+    }
+
+    private static TransportRequest request(final URL url) {
+        return TransportRequest.get(url).withHeader("User-Agent", TransportRequest.DOWNLOAD_USER_AGENT);
+    }
+
+    /**
+     * Waits for the first successful response of the two requests, a failed request leaves the race to the other one.
+     * The losing request is closed as soon as it answers, which aborts the transfer of its body. Cancelling its future
+     * would not stop the request and would drop a response that arrives later without ever closing it.
+     */
+    private static Answer race(final PendingAnswer primary, final PendingAnswer hedge) throws IOException, InterruptedException {
+        final CompletableFuture<Answer> winner = new CompletableFuture<>();
+        final AtomicInteger failures = new AtomicInteger();
+        for (final PendingAnswer candidate : Arrays.asList(primary, hedge)) {
+            candidate.response.whenComplete((response, throwable) -> {
+                if (throwable == null && response.isSuccessful() && winner.complete(new Answer(candidate.url, response))) return;
+                if (response != null) closeQuietly(response);
+                if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(new IOException("Could not download from " + primary.url));
+                }
+            });
+        }
+        try {
+            return await(winner);
+        } catch (final InterruptedException exception) {
+            // Nobody takes the winning response any more
+            winner.thenAccept(answer -> closeQuietly(answer.response));
+            throw exception;
+        }
+    }
+
+    private static <T> T await(final CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (final ExecutionException exception) {
+            throw unwrap(exception, null);
+        }
+    }
+
+    private static TransportResponse successful(final TransportResponse response, final URL url) throws IOException {
+        if (!response.isSuccessful()) {
+            closeQuietly(response);
+            throw new IOException("Could not download from " + url + " (" + response.statusCode() + ")");
+        }
+        return response;
+    }
+
+    private static IOException unwrap(final ExecutionException exception, final URL url) {
+        final Throwable cause = exception.getCause();
+        if (cause instanceof IOException) return (IOException) cause;
+        return new IOException(url == null ? "Download failed" : "Could not download from " + url, cause);
+    }
+
+    private static void closeQuietly(final TransportResponse response) {
+        try {
+            response.close();
+        } catch (final IOException exception) {
+            LOGGER.debug("Failed to close response: %s", exception);
+        }
+    }
+
+    /**
+     * Response to a download request together with the location it came from.
+     */
+    private static final class Answer implements Closeable {
+        private final URL url;
+        private final TransportResponse response;
+
+        private Answer(final URL url, final TransportResponse response) {
+            this.url = url;
+            this.response = response;
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.close();
+        }
+    }
+
+    private static final class PendingAnswer {
+        private final URL url;
+        private final CompletableFuture<TransportResponse> response;
+
+        private PendingAnswer(final URL url, final CompletableFuture<TransportResponse> response) {
+            this.url = url;
+            this.response = response;
+        }
     }
 }
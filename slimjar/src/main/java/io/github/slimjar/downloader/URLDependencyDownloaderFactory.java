@@ -24,14 +24,118 @@
 
 package io.github.slimjar.downloader;
 
+import io.github.slimjar.downloader.output.Durability;
 import io.github.slimjar.downloader.output.OutputWriterFactory;
 import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.progress.ProgressDispatcher;
+import io.github.slimjar.progress.ProgressListener;
 import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ranking.HedgeBudget;
+import io.github.slimjar.resolver.ranking.RepositoryRanker;
+import io.github.slimjar.transport.HttpTransport;
 
 public final class URLDependencyDownloaderFactory implements DependencyDownloaderFactory {
+    private final HttpTransport transport;
+    private final RepositoryRanker repositoryRanker;
+    private final HedgeBudget hedgeBudget;
+    private final boolean optimistic;
+    private final boolean resumable;
+    private final ChunkedDownloader chunkedDownloader;
+    private final ProgressListener progressListener;
+    private final Durability durability;
+
+    public URLDependencyDownloaderFactory() {
+        this(null);
+    }
+
+    /**
+     * @param transport Transport shared by all created downloaders, or null to open a plain connection per download
+     */
+    public URLDependencyDownloaderFactory(final HttpTransport transport) {
+        this(transport, null, null);
+    }
+
+    /**
+     * @param transport Transport shared by all created downloaders, or null to open a plain connection per download
+     * @param repositoryRanker Ranking providing the hedge delay per repository, may be null
+     * @param hedgeBudget Hedge cap shared by all created downloaders, may be null to never hedge downloads
+     */
+    public URLDependencyDownloaderFactory(final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget) {
+        this(transport, repositoryRanker, hedgeBudget, false);
+    }
+
+    /**
+     * @param transport Transport shared by all created downloaders, or null to open a plain connection per download
+     * @param repositoryRanker Ranking providing the hedge delay per repository, may be null
+     * @param hedgeBudget Hedge cap shared by all created downloaders, may be null to never hedge downloads
+     * @param optimistic Whether created downloaders download straight from candidate locations without resolving first
+     */
+    public URLDependencyDownloaderFactory(final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic) {
+        this(transport, repositoryRanker, hedgeBudget, optimistic, false);
+    }
+
+    /**
+     * @param transport Transport shared by all created downloaders, or null to open a plain connection per download
+     * @param repositoryRanker Ranking providing the hedge delay per repository, may be null
+     * @param hedgeBudget Hedge cap shared by all created downloaders, may be null to never hedge downloads
+     * @param optimistic Whether created downloaders download straight from candidate locations without resolving first
+     * @param resumable Whether created downloaders continue interrupted downloads from their <code>.part</code> file
+     */
+    public URLDependencyDownloaderFactory(final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable) {
+        this(transport, repositoryRanker, hedgeBudget, optimistic, resumable, null);
+    }
+
+    /**
+     * @param transport Transport shared by all created downloaders, or null to open a plain connection per download
+     * @param repositoryRanker Ranking providing the hedge delay per repository, may be null
+     * @param hedgeBudget Hedge cap shared by all created downloaders, may be null to never hedge downloads
+     * @param optimistic Whether created downloaders download straight from candidate locations without resolving first
+     * @param resumable Whether created downloaders continue interrupted downloads from their <code>.part</code> file
+     * @param chunkedDownloader Downloader for large artifacts in parallel ranges, may be null to always use a single stream
+     */
+    public URLDependencyDownloaderFactory(final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable, final ChunkedDownloader chunkedDownloader) {
+        this(transport, repositoryRanker, hedgeBudget, optimistic, resumable, chunkedDownloader, ProgressDispatcher.getMediatingListener());
+    }
+
+    /**
+     * @param transport Transport shared by all created downloaders, or null to open a plain connection per download
+     * @param repositoryRanker Ranking providing the hedge delay per repository, may be null
+     * @param hedgeBudget Hedge cap shared by all created downloaders, may be null to never hedge downloads
+     * @param optimistic Whether created downloaders download straight from candidate locations without resolving first
+     * @param resumable Whether created downloaders continue interrupted downloads from their <code>.part</code> file
+     * @param chunkedDownloader Downloader for large artifacts in parallel ranges, may be null to always use a single stream
+     * @param progressListener Listener that receives the downloaded bytes of the created downloaders
+     */
+    public URLDependencyDownloaderFactory(final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable, final ChunkedDownloader chunkedDownloader, final ProgressListener progressListener) {
+        this(transport, repositoryRanker, hedgeBudget, optimistic, resumable, chunkedDownloader, progressListener, Durability.NONE);
+    }
+
+    /**
+     * @param transport Transport shared by all created downloaders, or null to open a plain connection per download
+     * @param repositoryRanker Ranking providing the hedge delay per repository, may be null
+     * @param hedgeBudget Hedge cap shared by all created downloaders, may be null to never hedge downloads
+     * @param optimistic Whether created downloaders download straight from candidate locations without resolving first
+     * @param resumable Whether created downloaders continue interrupted downloads from their <code>.part</code> file
+     * @param chunkedDownloader Downloader for large artifacts in parallel ranges, may be null to always use a single stream
+     * @param progressListener Listener that receives the downloaded bytes of the created downloaders
+     * @param durability How far completed <code>.part</code> files are flushed to storage when moved into place
+     */
+    public URLDependencyDownloaderFactory(final HttpTransport transport, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget, final boolean optimistic, final boolean resumable, final ChunkedDownloader chunkedDownloader, final ProgressListener progressListener, final Durability durability) {
+        this.transport = transport;
+        this.repositoryRanker = repositoryRanker;
+        this.hedgeBudget = hedgeBudget;
+        this.optimistic = optimistic;
+        this.resumable = resumable;
+        this.chunkedDownloader = chunkedDownloader;
+        this.progressListener = progressListener;
+        this.durability = durability;
+    }
 
     @Override
     public DependencyDownloader create(final OutputWriterFactory outputWriterFactory, final DependencyResolver resolver, final DependencyVerifier verifier) {
-        return new URLDependencyDownloader(outputWriterFactory, resolver, verifier);
+        if (transport == null) {
+            return new URLDependencyDownloader(outputWriterFactory, resolver, verifier);
+        }
+        return new URLDependencyDownloader(outputWriterFactory, resolver, verifier, transport, repositoryRanker, hedgeBudget, optimistic, resumable, chunkedDownloader, progressListener, durability);
     }
 }
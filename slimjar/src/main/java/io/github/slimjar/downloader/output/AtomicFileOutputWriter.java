@@ -0,0 +1,105 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import io.github.slimjar.util.AtomicFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes into a unique temporary sibling of the output file and renames it over the output file once complete,
+ * so the output file always holds either its previous or its complete new content.
+ */
+public final class AtomicFileOutputWriter implements OutputWriter {
+    private static final Logger LOGGER = Logger.getLogger(AtomicFileOutputWriter.class.getName());
+    private final File outputFile;
+    private final boolean preallocate;
+    private final Durability durability;
+
+    public AtomicFileOutputWriter(final File outputFile) {
+        this(outputFile, false, Durability.NONE);
+    }
+
+    /**
+     * @param preallocate Whether to set the file size to the announced length before writing. This only sets the
+     *                    size, file systems that support sparse files do not reserve any blocks for it. The file is
+     *                    truncated to the bytes actually written afterwards.
+     * @param durability How far the file is flushed to storage before it counts as written
+     */
+    public AtomicFileOutputWriter(final File outputFile, final boolean preallocate, final Durability durability) {
+        this.outputFile = outputFile;
+        this.preallocate = preallocate;
+        this.durability = durability;
+    }
+
+    @Override
+    public File writeFrom(final InputStream inputStream, final long length) throws IOException {
+        return writeFrom(inputStream, length, file -> true);
+    }
+
+    @Override
+    public File writeFrom(final InputStream inputStream, final long length, final Predicate<File> check) throws IOException {
+        final Path target = outputFile.toPath().toAbsolutePath();
+        final Path directory = target.getParent();
+        Files.createDirectories(directory);
+        final Path temporary = AtomicFiles.createTemporary(target);
+        try {
+            LOGGER.log(Level.FINE, "Writing {0} bytes to {1}...", new Object[]{length == -1 ? "unknown" : length, temporary});
+            try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                if (preallocate && length > 0) {
+                    ChanneledFileOutputWriter.preallocate(channel, length);
+                }
+                final long written = ChanneledFileOutputWriter.transfer(inputStream, channel);
+                if (channel.size() > written) {
+                    channel.truncate(written);
+                }
+                durability.force(channel);
+            }
+            inputStream.close();
+            if (!check.test(temporary.toFile())) {
+                throw new IOException("Rejected content downloaded for " + outputFile);
+            }
+            AtomicFiles.moveIntoPlace(temporary, target);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        durability.forceDirectory(directory);
+        return outputFile;
+    }
+
+    @Override
+    public boolean replacesExisting() {
+        return true;
+    }
+}
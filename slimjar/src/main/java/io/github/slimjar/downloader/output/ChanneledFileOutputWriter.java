@@ -26,18 +26,35 @@ package io.github.slimjar.downloader.output;
 
 
 import java.io.*;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public final class ChanneledFileOutputWriter implements OutputWriter {
     private static final Logger LOGGER = Logger.getLogger(ChanneledFileOutputWriter.class.getName());
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 16;
+    // Large buffers are reused across writes instead of being allocated for every artifact
+    private static final Queue<byte[]> BUFFERS = new ConcurrentLinkedQueue<>();
     private final File outputFile;
+    private final boolean preallocate;
 
     public ChanneledFileOutputWriter(final File outputFile) {
+        this(outputFile, false);
+    }
+
+    /**
+     * @param preallocate Whether to set the file size to the announced length before writing. This only sets the
+     *                    size, file systems that support sparse files do not reserve any blocks for it. The file is
+     *                    truncated to the bytes actually written afterwards.
+     */
+    public ChanneledFileOutputWriter(final File outputFile, final boolean preallocate) {
         this.outputFile = outputFile;
+        this.preallocate = preallocate;
     }
 
     @Override
@@ -45,9 +62,61 @@ public final class ChanneledFileOutputWriter implements OutputWriter {
         LOGGER.log(Level.FINE, "Attempting to write from inputStream...");
         if (!outputFile.exists()) {
             LOGGER.log(Level.FINE, "Writing {0} bytes...", length == -1 ? "unknown" : length);
-            Files.copy(inputStream, outputFile.toPath());
+            try (final FileChannel target = FileChannel.open(outputFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                if (preallocate && length > 0) {
+                    preallocate(target, length);
+                }
+                final long written = transfer(inputStream, target);
+                if (target.size() > written) {
+                    target.truncate(written);
+                }
+            }
         }
         inputStream.close();
         return outputFile;
     }
+
+    /**
+     * Moves the stream into the file. The stream is read until a large pooled heap buffer is full, which is then
+     * written at its position in the file with a single call.
+     * @return number of bytes written
+     */
+    static long transfer(final InputStream inputStream, final FileChannel target) throws IOException {
+        byte[] buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        try {
+            long written = 0;
+            boolean end = false;
+            while (!end) {
+                int filled = 0;
+                while (filled < buffer.length) {
+                    final int read = inputStream.read(buffer, filled, buffer.length - filled);
+                    if (read == -1) {
+                        end = true;
+                        break;
+                    }
+                    filled += read;
+                }
+                final ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, filled);
+                while (chunk.hasRemaining()) {
+                    written += target.write(chunk, written);
+                }
+            }
+            return written;
+        } finally {
+            if (BUFFERS.size() < MAX_POOLED_BUFFERS) {
+                BUFFERS.offer(buffer);
+            }
+        }
+    }
+
+    /**
+     * Sets the size of the file by writing its last byte. This does not allocate the bytes before it, file systems
+     * that support sparse files leave them as a hole that the transfer fills in.
+     */
+    static void preallocate(final FileChannel target, final long length) throws IOException {
+        target.write(ByteBuffer.wrap(new byte[1]), length - 1);
+    }
 }
@@ -33,9 +33,28 @@ import java.util.logging.Logger;
 public final class DependencyOutputWriterFactory implements OutputWriterFactory {
     private static final Logger LOGGER = Logger.getLogger(DependencyOutputWriterFactory.class.getName());
     private final FilePathStrategy outputFilePathStrategy;
+    private final boolean preallocate;
+    private final Durability durability;
 
     public DependencyOutputWriterFactory(final FilePathStrategy filePathStrategy) {
+        this(filePathStrategy, false);
+    }
+
+    /**
+     * @param preallocate Whether created writers size files to their announced length before writing them
+     */
+    public DependencyOutputWriterFactory(final FilePathStrategy filePathStrategy, final boolean preallocate) {
+        this(filePathStrategy, preallocate, Durability.NONE);
+    }
+
+    /**
+     * @param preallocate Whether created writers size files to their announced length before writing them
+     * @param durability How far created writers flush files to storage before moving them into place
+     */
+    public DependencyOutputWriterFactory(final FilePathStrategy filePathStrategy, final boolean preallocate, final Durability durability) {
         this.outputFilePathStrategy = filePathStrategy;
+        this.preallocate = preallocate;
+        this.durability = durability;
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -44,7 +63,7 @@ public final class DependencyOutputWriterFactory implements OutputWriterFactory
         LOGGER.log(Level.FINEST, "Creating OutputWriter for {0}", dependency.artifactId());
         final File outputFile = outputFilePathStrategy.selectFileFor(dependency);
         outputFile.getParentFile().mkdirs();
-        return new ChanneledFileOutputWriter(outputFile);
+        return new AtomicFileOutputWriter(outputFile, preallocate, durability);
     }
 
     @Override
@@ -0,0 +1,89 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * How far a downloaded file is flushed to storage before the download counts as complete.
+ */
+public enum Durability {
+    /**
+     * Leave flushing to the operating system. A crash shortly after a download may lose the file, but never leaves
+     * a partially written one in its place.
+     */
+    NONE,
+    /**
+     * Flush the content of the file to storage before moving it into place.
+     */
+    FILE,
+    /**
+     * Flush the content of the file and, once it is moved into place, the directory entry pointing to it.
+     */
+    FILE_AND_DIRECTORY;
+
+    private static final Logger LOGGER = Logger.getLogger(Durability.class.getName());
+
+    /**
+     * Flushes the content of a written file before it is moved into place, unless this is {@link #NONE}.
+     * @param channel channel the file was written through
+     */
+    public void force(final FileChannel channel) throws IOException {
+        if (this != NONE) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Flushes the content of a written file before it is moved into place, unless this is {@link #NONE}.
+     * @param file file that was written
+     */
+    public void force(final Path file) throws IOException {
+        if (this != NONE) {
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Flushes the directory a file was just moved into, if this is {@link #FILE_AND_DIRECTORY}, so the rename survives
+     * a crash. Not every platform can open directories (Windows cannot), those persist the rename with the file
+     * system's own journal instead.
+     */
+    public void forceDirectory(final Path directory) {
+        if (this != FILE_AND_DIRECTORY) return;
+        try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final IOException exception) {
+            LOGGER.log(Level.FINE, "Could not flush directory {0}: {1}", new Object[]{directory, exception});
+        }
+    }
+}
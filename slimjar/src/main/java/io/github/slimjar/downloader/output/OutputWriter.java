@@ -27,7 +27,30 @@ package io.github.slimjar.downloader.output;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.function.Predicate;
 
 public interface OutputWriter {
     File writeFrom(final InputStream inputStream, final long length) throws IOException;
+
+    /**
+     * Writes like {@link #writeFrom(InputStream, long)}, but only keeps the content if <code>check</code> accepts the
+     * completely written file. Writers that cannot check content before it replaces the output file delete it instead.
+     * @param check Check of the written file, rejected content fails the write with an {@link IOException}
+     */
+    default File writeFrom(final InputStream inputStream, final long length, final Predicate<File> check) throws IOException {
+        final File file = writeFrom(inputStream, length);
+        if (!check.test(file)) {
+            Files.deleteIfExists(file.toPath());
+            throw new IOException("Rejected content downloaded for " + file);
+        }
+        return file;
+    }
+
+    /**
+     * @return whether the writer replaces an existing output file, writers that keep it need it deleted beforehand
+     */
+    default boolean replacesExisting() {
+        return false;
+    }
 }
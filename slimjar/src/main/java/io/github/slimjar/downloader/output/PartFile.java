@@ -0,0 +1,195 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import io.github.slimjar.util.AtomicFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partially downloaded artifact, kept in a <code>.part</code> file next to its final location. A small
+ * <code>.part.state</code> record holds the url, the validators (ETag and Last-Modified) of the response the bytes
+ * came from and the offset up to which they were checkpointed, so an interrupted download can be continued with a
+ * range request. The part is only moved to its final location once complete.
+ */
+public final class PartFile {
+    private static final long CHECKPOINT_BYTES = 4 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final Path target;
+    private final Path part;
+    private final Path state;
+    private final Durability durability;
+    private URL url;
+    private String etag;
+    private String lastModified;
+
+    public PartFile(final File target) {
+        this(target, Durability.NONE);
+    }
+
+    /**
+     * @param durability How far the complete part is flushed to storage when it is moved to its final location
+     */
+    public PartFile(final File target, final Durability durability) {
+        this.target = target.toPath();
+        this.part = this.target.resolveSibling(target.getName() + ".part");
+        this.state = this.target.resolveSibling(target.getName() + ".part.state");
+        this.durability = durability;
+    }
+
+    /**
+     * @param url url the download is about to be requested from
+     * @return offset the download of <code>url</code> can be continued at, 0 if it has to start over
+     */
+    public long resumableOffset(final URL url) throws IOException {
+        if (!Files.exists(part) || !Files.exists(state)) return 0;
+        final Map<String, String> values = new HashMap<>();
+        for (final String line : Files.readAllLines(state, StandardCharsets.UTF_8)) {
+            final int separator = line.indexOf('=');
+            if (separator > 0) {
+                values.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        if (!url.toExternalForm().equals(values.get("url"))) return 0;
+        this.url = url;
+        this.etag = values.get("etag");
+        this.lastModified = values.get("lastModified");
+        if (validator() == null) return 0;
+        try {
+            // Bytes past the last checkpoint may not have reached the disk intact
+            return Math.min(Long.parseLong(values.get("offset")), Files.size(part));
+        } catch (final NumberFormatException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return strong validator to send with <code>If-Range</code>, null if the server supplied none
+     */
+    public String validator() {
+        if (etag != null && !etag.startsWith("W/")) return etag;
+        return lastModified;
+    }
+
+    /**
+     * Starts writing at <code>offset</code>, discarding any bytes after it.
+     * @param etag ETag of the response the bytes come from, may be null
+     * @param lastModified Last-Modified of the response the bytes come from, may be null
+     */
+    public void begin(final URL url, final String etag, final String lastModified, final long offset) throws IOException {
+        this.url = url;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        Files.createDirectories(part.toAbsolutePath().getParent());
+        try (final FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+        }
+        checkpoint(offset);
+    }
+
+    /**
+     * Feeds the bytes already in the part into <code>digest</code>.
+     */
+    public void digestExisting(final MessageDigest digest) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (final FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Appends the stream to the part, checkpointing the offset every few megabytes and once the stream ends or fails.
+     * @param inputStream content to append, not closed by this method
+     */
+    public void append(final InputStream inputStream) throws IOException {
+        try (final FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            long offset = channel.size();
+            channel.position(offset);
+            final OutputStream outputStream = Channels.newOutputStream(channel);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long sinceCheckpoint = 0;
+            try {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    outputStream.write(buffer, 0, read);
+                    offset += read;
+                    sinceCheckpoint += read;
+                    if (sinceCheckpoint >= CHECKPOINT_BYTES) {
+                        checkpoint(offset);
+                        sinceCheckpoint = 0;
+                    }
+                }
+            } finally {
+                checkpoint(offset);
+            }
+        }
+    }
+
+    /**
+     * Moves the complete part to its final location and forgets its state.
+     * @return the final file
+     */
+    public File complete() throws IOException {
+        durability.force(part);
+        AtomicFiles.moveIntoPlace(part, target);
+        durability.forceDirectory(target.toAbsolutePath().getParent());
+        Files.deleteIfExists(state);
+        return target.toFile();
+    }
+
+    public void discard() throws IOException {
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(state);
+    }
+
+    private void checkpoint(final long offset) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("url=" + url.toExternalForm());
+        if (etag != null) lines.add("etag=" + etag);
+        if (lastModified != null) lines.add("lastModified=" + lastModified);
+        lines.add("offset=" + offset);
+        AtomicFiles.writeLines(state, lines);
+    }
+}
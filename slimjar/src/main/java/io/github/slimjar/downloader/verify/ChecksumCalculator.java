@@ -29,4 +29,11 @@ import java.io.IOException;
 
 public interface ChecksumCalculator {
     String calculate(final File file) throws IOException, InterruptedException;
+
+    /**
+     * @return algorithm of the calculated checksums, or null if unknown
+     */
+    default String getAlgorithm() {
+        return null;
+    }
 }
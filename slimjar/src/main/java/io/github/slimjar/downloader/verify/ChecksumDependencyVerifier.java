@@ -31,17 +31,18 @@ import io.github.slimjar.logging.ProcessLogger;
 import io.github.slimjar.resolver.DependencyResolver;
 import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
-import io.github.slimjar.util.Connections;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
-import java.net.URLConnection;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class ChecksumDependencyVerifier implements DependencyVerifier {
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
@@ -49,6 +50,11 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
     private final OutputWriterFactory outputWriterFactory;
     private final DependencyVerifier fallbackVerifier;
     private final ChecksumCalculator checksumCalculator;
+    // Files that already matched their checksum, keyed to the size and modification time they had at that point.
+    // Lets later pipeline stages re-check a file without hashing it again.
+    private final Map<File, FileStamp> verifiedFiles = new ConcurrentHashMap<>();
+    // Digests computed by the downloader while writing, used instead of hashing the file again
+    private final Map<File, RecordedDigest> recordedDigests = new ConcurrentHashMap<>();
 
     public ChecksumDependencyVerifier(final DependencyResolver resolver, final OutputWriterFactory outputWriterFactory, final DependencyVerifier fallbackVerifier, final ChecksumCalculator checksumCalculator) {
         this.resolver = resolver;
@@ -62,24 +68,36 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
     @Override
     public boolean verify(final File file, final Dependency dependency) throws IOException, InterruptedException {
         if (!file.exists()) return false;
+        if (FileStamp.of(file).equals(verifiedFiles.get(file))) return true;
         LOGGER.log("Verifying checksum for %s", dependency.artifactId());
         final File checksumFile = outputWriterFactory.getStrategy().selectFileFor(dependency);
         checksumFile.getParentFile().mkdirs();
-        if (!checksumFile.exists() && !prepareChecksumFile(checksumFile, dependency)) {
-            LOGGER.log("Unable to resolve checksum for %s, falling back to fallbackVerifier!", dependency.artifactId());
-            return fallbackVerifier.verify(file, dependency);
+        try {
+            if (!checksumFile.exists() && !prepareChecksumFile(checksumFile, dependency)) {
+                LOGGER.log("Unable to resolve checksum for %s, falling back to fallbackVerifier!", dependency.artifactId());
+                return fallbackVerifier.verify(file, dependency);
+            }
+        } catch (final IOException exception) {
+            LOGGER.log("Could not fetch checksum for %s, failing its verification: %s", dependency.artifactId(), exception);
+            return false;
         }
         if (checksumFile.length() == 0L) {
             LOGGER.log("Required checksum not found for %s, using fallbackVerifier!", dependency.artifactId());
             return fallbackVerifier.verify(file, dependency);
         }
-        final String actualChecksum = checksumCalculator.calculate(file);
+        final RecordedDigest recordedDigest = recordedDigests.remove(file);
+        final String actualChecksum = recordedDigest != null && recordedDigest.stamp.equals(FileStamp.of(file))
+                ? recordedDigest.checksum
+                : checksumCalculator.calculate(file);
         final String expectedChecksum = new String(Files.readAllBytes(checksumFile.toPath())).trim();
         LOGGER.debug("%s -> Actual checksum: %s;", dependency.artifactId(), actualChecksum);
         LOGGER.debug("%s -> Expected checksum: %s;", dependency.artifactId(), expectedChecksum);
         final boolean match = Objects.equals(actualChecksum, expectedChecksum);
         LOGGER.log("Checksum %s for %s", match ? "matched" : "match failed", dependency.artifactId());
-        return Objects.equals(actualChecksum, expectedChecksum);
+        if (match) {
+            verifiedFiles.put(file, FileStamp.of(file));
+        }
+        return match;
     }
 
     @Override
@@ -89,27 +107,87 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
         return checksumFile;
     }
 
+    @Override
+    public void recordDigest(final File file, final String algorithm, final String checksum) {
+        final String calculatorAlgorithm = checksumCalculator.getAlgorithm();
+        if (calculatorAlgorithm != null && normalize(calculatorAlgorithm).equals(normalize(algorithm))) {
+            recordedDigests.put(file, new RecordedDigest(FileStamp.of(file), checksum));
+        }
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return checksumCalculator.getAlgorithm();
+    }
+
+    private static String normalize(final String algorithm) {
+        return algorithm.replaceAll("[ -]", "").toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Stores the checksum of the resolved dependency. A repository that publishes no checksum leaves an empty
+     * checksum file behind, which hands verification to the fallback verifier.
+     * @return false if the dependency could not be resolved
+     * @throws IOException if the checksum could not be fetched or stored
+     */
     @SuppressWarnings("ResultOfMethodCallIgnored")
     private boolean prepareChecksumFile(final File checksumFile, final Dependency dependency) throws IOException {
         final Optional<ResolutionResult> result = resolver.resolve(dependency);
 
         if (!result.isPresent()) return false;
 
-        /*final URL checkSumUrl = result.get().getChecksumURL();
-        LOGGER.log("Resolved checksum URL for %s as %s", dependency.artifactId(), checkSumUrl);
-        if (checkSumUrl == null) {
+        final String checksum;
+        try {
+            checksum = result.get().getChecksum();
+        } catch (final UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        if (checksum == null) {
             checksumFile.createNewFile();
             return true;
         }
-        final URLConnection connection = Connections.createDownloadConnection(checkSumUrl);*/
-
-        final String checksum = result.get().getChecksum();
         final InputStream inputStream = new ByteArrayInputStream(checksum.getBytes());
         final OutputWriter outputWriter = outputWriterFactory.create(dependency);
         outputWriter.writeFrom(inputStream, checksum.getBytes().length);
-        //Connections.tryDisconnect(connection);
         LOGGER.log("Downloaded checksum for %s", dependency.artifactId());
 
         return true;
     }
+
+    private static final class RecordedDigest {
+        private final FileStamp stamp;
+        private final String checksum;
+
+        private RecordedDigest(final FileStamp stamp, final String checksum) {
+            this.stamp = stamp;
+            this.checksum = checksum;
+        }
+    }
+
+    private static final class FileStamp {
+        private final long length;
+        private final long lastModified;
+
+        private FileStamp(final long length, final long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        private static FileStamp of(final File file) {
+            return new FileStamp(file.length(), file.lastModified());
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final FileStamp that = (FileStamp) o;
+            return length == that.length && lastModified == that.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(length, lastModified);
+        }
+    }
 }
@@ -32,4 +32,23 @@ import java.io.IOException;
 public interface DependencyVerifier {
     boolean verify(final File file, final Dependency dependency) throws IOException, InterruptedException;
     File getChecksumFile(final  Dependency dependency);
+
+    /**
+     * Hands over the digest of a file computed while it was written, so verifying it does not read it again.
+     * The digest only applies while the file keeps the size and modification time it has now.
+     * @param file file that was just written
+     * @param algorithm algorithm of the digest, such as SHA-256
+     * @param checksum digest as lowercase hex
+     */
+    default void recordDigest(final File file, final String algorithm, final String checksum) {
+    }
+
+    /**
+     * Downloads are digested with this algorithm and checked against the published checksum before they replace the
+     * artifact, a published checksum of another algorithm rejects the download.
+     * @return algorithm of the checksums this verifier compares, such as SHA-256, or null if unknown
+     */
+    default String getAlgorithm() {
+        return null;
+    }
 }
@@ -24,26 +24,26 @@
 
 package io.github.slimjar.downloader.verify;
 
+import io.github.slimjar.util.Checksums;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public final class FileChecksumCalculator implements ChecksumCalculator {
     private static final String DIRECTORY_HASH = "DIRECTORY";
     private static final Logger LOGGER = Logger.getLogger(FileChecksumCalculator.class.getName());
-    private final MessageDigest digest;
-    private final ReentrantReadWriteLock lock;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final String algorithm;
 
     public FileChecksumCalculator(final String algorithm) throws NoSuchAlgorithmException {
-        digest = MessageDigest.getInstance(algorithm);
-        lock = new ReentrantReadWriteLock(false);
+        // Fail fast on unsupported algorithms, digests themselves are created per calculation
+        MessageDigest.getInstance(algorithm);
+        this.algorithm = algorithm;
     }
 
     @Override
@@ -54,25 +54,30 @@ public final class FileChecksumCalculator implements ChecksumCalculator {
             return DIRECTORY_HASH;
         }
 
-        lock.writeLock().tryLock(10, TimeUnit.SECONDS);
-        digest.reset();
+        // A digest per call keeps the calculator safe to share between parallel download workers
+        final MessageDigest digest = createDigest();
         try (final FileInputStream fis = new FileInputStream(file)) {
-            byte[] byteArray = new byte[1024];
+            byte[] byteArray = new byte[BUFFER_SIZE];
             int bytesCount;
             while ((bytesCount = fis.read(byteArray)) != -1) {
                 digest.update(byteArray, 0, bytesCount);
             }
         }
-        byte[] bytes = digest.digest();
-        lock.writeLock().unlock();
-
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-        }
-        sb.trimToSize();
-        final String result = sb.toString();
+        final String result = Checksums.toHex(digest.digest());
         LOGGER.log(Level.FINEST, "Hash for {0} -> {1}", new Object[]{file.getPath(), result});
         return result;
     }
+
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    private MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+    }
 }
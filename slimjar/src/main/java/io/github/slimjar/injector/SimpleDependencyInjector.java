@@ -27,61 +27,85 @@ package io.github.slimjar.injector;
 import io.github.slimjar.injector.helper.InjectionHelper;
 import io.github.slimjar.injector.helper.InjectionHelperFactory;
 import io.github.slimjar.injector.loader.Injectable;
+import io.github.slimjar.injector.scheduler.DependencyScheduler;
+import io.github.slimjar.injector.scheduler.Stage;
+import io.github.slimjar.progress.ProgressDispatcher;
+import io.github.slimjar.progress.ProgressListener;
 import io.github.slimjar.resolver.ResolutionResult;
-import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.DependencyData;
+import io.github.slimjar.util.Threads;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public final class SimpleDependencyInjector implements DependencyInjector {
     private final InjectionHelperFactory injectionHelperFactory;
-    private final List<Dependency> processingDependencies = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Stage, Integer> stageLimits;
+    private final Executor executor;
+    private final ProgressListener progressListener;
+    private volatile DependencyScheduler activeScheduler;
 
     public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory) {
-        this.injectionHelperFactory = injectionHelperFactory;
+        this(injectionHelperFactory, DependencyScheduler.defaultLimits());
     }
 
-    @Override
-    public void inject(final Injectable injectable, final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
-        final InjectionHelper helper = injectionHelperFactory.create(data, preResolvedResults);
-        injectDependencies(injectable, helper, data.dependencies());
+    public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory, final Map<Stage, Integer> stageLimits) {
+        this(injectionHelperFactory, stageLimits, null);
     }
 
-    // TODO -> Download dependencies in parallel then check the checksums after instead of during the download
-    private void injectDependencies(final Injectable injectable, final InjectionHelper injectionHelper, final Collection<Dependency> dependencies) throws RuntimeException {
-        dependencies.stream()
-            .filter(dependency -> !injectionHelper.isInjected(dependency))
-            .forEach(dependency -> {
-                if (processingDependencies.contains(dependency)) return;
-                processingDependencies.add(dependency);
-
-                try {
-                    final java.io.File depJar = injectionHelper.fetch(dependency);
-
-                    if (depJar == null) return;
+    /**
+     * @param executor Executor the stages run on, or null to create a pool for every injection
+     */
+    public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory, final Map<Stage, Integer> stageLimits, final Executor executor) {
+        this(injectionHelperFactory, stageLimits, executor, ProgressDispatcher.getMediatingListener());
+    }
 
-                    injectable.inject(depJar.toURI().toURL());
-                    injectDependencies(injectable, injectionHelper, dependency.transitive());
-                } catch (final IOException e) {
-                    throw new InjectionFailedException(dependency, e);
-                } catch (IllegalAccessException | InvocationTargetException | URISyntaxException e) {
-                    e.printStackTrace();
-                } catch (ReflectiveOperationException | InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+    /**
+     * @param executor Executor the stages run on, or null to create a pool for every injection
+     * @param progressListener Listener that receives the progress of the injections of this injector
+     */
+    public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory, final Map<Stage, Integer> stageLimits, final Executor executor, final ProgressListener progressListener) {
+        this.injectionHelperFactory = injectionHelperFactory;
+        this.executor = executor;
+        this.progressListener = progressListener;
+        final Map<Stage, Integer> limits = new EnumMap<>(Stage.class);
+        limits.putAll(stageLimits);
+        this.stageLimits = Collections.unmodifiableMap(limits);
+    }
 
-                processingDependencies.remove(dependency);
+    @Override
+    public void inject(final Injectable injectable, final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
+        final InjectionHelper helper = injectionHelperFactory.create(data, preResolvedResults);
+        // Stage limits bound the actual concurrency, the pool itself only hands out threads
+        final ExecutorService ownedExecutor = executor == null ? Executors.newCachedThreadPool(Threads.daemonFactory("slimjar-worker")) : null;
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor == null ? ownedExecutor : executor, stageLimits, progressListener);
+        activeScheduler = scheduler;
+        try {
+            scheduler.run(injectable, data.dependencies());
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(exception);
+        } finally {
+            activeScheduler = null;
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdownNow();
             }
-        );
+        }
     }
 
-
+    /**
+     * Current queue depth of every stage, or an empty map while no injection is running.
+     * @return queue depth per stage
+     */
+    public Map<Stage, Integer> queueDepths() {
+        final DependencyScheduler scheduler = activeScheduler;
+        return scheduler == null ? Collections.emptyMap() : scheduler.queueDepths();
+    }
 }
@@ -25,10 +25,51 @@
 package io.github.slimjar.injector;
 
 import io.github.slimjar.injector.helper.InjectionHelperFactory;
+import io.github.slimjar.injector.scheduler.DependencyScheduler;
+import io.github.slimjar.injector.scheduler.Stage;
+import io.github.slimjar.progress.ProgressDispatcher;
+import io.github.slimjar.progress.ProgressListener;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 public final class SimpleDependencyInjectorFactory implements DependencyInjectorFactory {
+    private final Map<Stage, Integer> stageLimits;
+    private final Executor executor;
+    private final ProgressListener progressListener;
+
+    public SimpleDependencyInjectorFactory() {
+        this(DependencyScheduler.defaultLimits());
+    }
+
+    /**
+     * @param stageLimits Maximum number of dependencies processed concurrently per stage. Missing stages use their default limit.
+     */
+    public SimpleDependencyInjectorFactory(final Map<Stage, Integer> stageLimits) {
+        this(stageLimits, null);
+    }
+
+    /**
+     * @param stageLimits Maximum number of dependencies processed concurrently per stage. Missing stages use their default limit.
+     * @param executor Executor all stages run on, or null to use a pool owned by each injection
+     */
+    public SimpleDependencyInjectorFactory(final Map<Stage, Integer> stageLimits, final Executor executor) {
+        this(stageLimits, executor, ProgressDispatcher.getMediatingListener());
+    }
+
+    /**
+     * @param stageLimits Maximum number of dependencies processed concurrently per stage. Missing stages use their default limit.
+     * @param executor Executor all stages run on, or null to use a pool owned by each injection
+     * @param progressListener Listener that receives the progress of every injection of the created injectors
+     */
+    public SimpleDependencyInjectorFactory(final Map<Stage, Integer> stageLimits, final Executor executor, final ProgressListener progressListener) {
+        this.stageLimits = stageLimits;
+        this.executor = executor;
+        this.progressListener = progressListener;
+    }
+
     @Override
     public DependencyInjector create(final InjectionHelperFactory injectionHelperFactory) {
-        return new SimpleDependencyInjector(injectionHelperFactory);
+        return new SimpleDependencyInjector(injectionHelperFactory, stageLimits, executor, progressListener);
     }
 }
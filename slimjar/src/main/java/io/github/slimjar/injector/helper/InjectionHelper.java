@@ -26,40 +26,108 @@ package io.github.slimjar.injector.helper;
 
 
 import io.github.slimjar.downloader.DependencyDownloader;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.injector.InjectionFailedException;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
 import io.github.slimjar.relocation.helper.RelocationHelper;
+import io.github.slimjar.resolver.DependencyResolver;
 import io.github.slimjar.resolver.data.Dependency;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class InjectionHelper {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
     private final Set<Dependency> injectedDependencies;
     private final DependencyDownloader dependencyDownloader;
     private final RelocationHelper relocationHelper;
+    private final DependencyResolver resolver;
+    private final DependencyVerifier verifier;
+    private final FilePathStrategy filePathStrategy;
 
     public InjectionHelper(
         final DependencyDownloader dependencyDownloader,
         final RelocationHelper relocationHelper,
+        final DependencyResolver resolver,
+        final DependencyVerifier verifier,
+        final FilePathStrategy filePathStrategy,
         final Set<Dependency> injectedDependencies
     ) {
         this.dependencyDownloader = dependencyDownloader;
         this.relocationHelper = relocationHelper;
+        this.resolver = resolver;
+        this.verifier = verifier;
+        this.filePathStrategy = filePathStrategy;
         this.injectedDependencies = injectedDependencies;
     }
 
+    public InjectionHelper(
+        final DependencyDownloader dependencyDownloader,
+        final RelocationHelper relocationHelper,
+        final DependencyResolver resolver,
+        final DependencyVerifier verifier,
+        final FilePathStrategy filePathStrategy
+    ) {
+        this(dependencyDownloader, relocationHelper, resolver, verifier, filePathStrategy, ConcurrentHashMap.newKeySet());
+    }
+
+    public InjectionHelper(
+        final DependencyDownloader dependencyDownloader,
+        final RelocationHelper relocationHelper,
+        final Set<Dependency> injectedDependencies
+    ) {
+        this(dependencyDownloader, relocationHelper, null, null, null, injectedDependencies);
+    }
+
     public InjectionHelper(final DependencyDownloader dependencyDownloader, final RelocationHelper relocationHelper) {
-        this(dependencyDownloader, relocationHelper, new HashSet<>());
+        this(dependencyDownloader, relocationHelper, ConcurrentHashMap.newKeySet());
     }
 
     public File fetch(final Dependency dependency) throws IOException, ReflectiveOperationException, InterruptedException {
-        final File downloaded = dependencyDownloader.download(dependency);
+        resolve(dependency);
+        final File downloaded = download(dependency);
         if (downloaded == null) {
             return null;
         }
+        if (!verify(dependency, downloaded)) {
+            throw new InjectionFailedException(dependency, new IOException("Could not verify " + downloaded));
+        }
+        return relocate(dependency, downloaded);
+    }
+
+    /**
+     * Warms up the resolver for dependencies that are not present locally yet.
+     * Dependencies already on disk are left alone, so warm boots do not touch the network here.
+     * Nothing is resolved ahead for downloaders that locate artifacts by themselves.
+     */
+    public void resolve(final Dependency dependency) {
+        if (resolver == null || !dependencyDownloader.needsResolution()) return;
+        if (filePathStrategy != null && filePathStrategy.selectFileFor(dependency).exists()) return;
+        resolver.resolve(dependency);
+    }
+
+    public File download(final Dependency dependency) throws IOException, InterruptedException {
+        final File downloaded = dependencyDownloader.download(dependency);
+        if (downloaded != null) {
+            injectedDependencies.add(dependency);
+        }
+        return downloaded;
+    }
+
+    public boolean verify(final Dependency dependency, final File downloaded) throws IOException, InterruptedException {
+        if (verifier == null) return true;
+        final boolean verified = verifier.verify(downloaded, dependency);
+        if (!verified) {
+            LOGGER.log("Could not verify %s", dependency.artifactId());
+        }
+        return verified;
+    }
 
-        injectedDependencies.add(dependency);
+    public File relocate(final Dependency dependency, final File downloaded) throws IOException, ReflectiveOperationException {
         return relocationHelper.relocate(dependency, downloaded);
     }
 
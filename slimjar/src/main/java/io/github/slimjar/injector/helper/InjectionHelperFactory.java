@@ -29,6 +29,7 @@ import io.github.slimjar.downloader.DependencyDownloaderFactory;
 import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
 import io.github.slimjar.downloader.output.OutputWriterFactory;
 import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
 import io.github.slimjar.downloader.verify.DependencyVerifierFactory;
 import io.github.slimjar.injector.DependencyInjectorFactory;
 import io.github.slimjar.relocation.Relocator;
@@ -60,8 +61,16 @@ public final class InjectionHelperFactory {
     private final DependencyDownloaderFactory downloaderFactory;
     private final DependencyVerifierFactory verifier;
     private final MirrorSelector mirrorSelector;
+    private final OutputWriterFactory outputWriterFactory;
 
     public InjectionHelperFactory(Path downloadDirectoryPath, RelocatorFactory relocatorFactory, DependencyDataProviderFactory dataProviderFactory, RelocationHelperFactory relocationHelperFactory, DependencyInjectorFactory injectorFactory, DependencyResolverFactory resolverFactory, RepositoryEnquirerFactory enquirerFactory, DependencyDownloaderFactory downloaderFactory, DependencyVerifierFactory verifier, MirrorSelector mirrorSelector) {
+        this(downloadDirectoryPath, relocatorFactory, dataProviderFactory, relocationHelperFactory, injectorFactory, resolverFactory, enquirerFactory, downloaderFactory, verifier, mirrorSelector, null);
+    }
+
+    /**
+     * @param outputWriterFactory Writers of downloaded artifacts, null to write them plainly into <code>downloadDirectoryPath</code>
+     */
+    public InjectionHelperFactory(Path downloadDirectoryPath, RelocatorFactory relocatorFactory, DependencyDataProviderFactory dataProviderFactory, RelocationHelperFactory relocationHelperFactory, DependencyInjectorFactory injectorFactory, DependencyResolverFactory resolverFactory, RepositoryEnquirerFactory enquirerFactory, DependencyDownloaderFactory downloaderFactory, DependencyVerifierFactory verifier, MirrorSelector mirrorSelector, OutputWriterFactory outputWriterFactory) {
         this.downloadDirectoryPath = downloadDirectoryPath;
         this.relocatorFactory = relocatorFactory;
         this.relocationHelperFactory = relocationHelperFactory;
@@ -70,6 +79,7 @@ public final class InjectionHelperFactory {
         this.downloaderFactory = downloaderFactory;
         this.verifier = verifier;
         this.mirrorSelector = mirrorSelector;
+        this.outputWriterFactory = outputWriterFactory;
     }
 
     public InjectionHelper create(final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws IOException, NoSuchAlgorithmException, URISyntaxException {
@@ -77,10 +87,13 @@ public final class InjectionHelperFactory {
                 .select(data.repositories(), data.mirrors());
         final Relocator relocator = relocatorFactory.create(data.relocations());
         final RelocationHelper relocationHelper = relocationHelperFactory.create(relocator);
-        final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(downloadDirectoryPath.toFile());
-        final OutputWriterFactory outputWriterFactory = new DependencyOutputWriterFactory(filePathStrategy);
+        final OutputWriterFactory outputWriterFactory = this.outputWriterFactory == null
+                ? new DependencyOutputWriterFactory(FilePathStrategy.createDefault(downloadDirectoryPath.toFile()))
+                : this.outputWriterFactory;
+        final FilePathStrategy filePathStrategy = outputWriterFactory.getStrategy();
         final DependencyResolver resolver = resolverFactory.create(repositories, preResolvedResults, enquirerFactory);
-        final DependencyDownloader downloader = downloaderFactory.create(outputWriterFactory, resolver, verifier.create(resolver));
-        return new InjectionHelper(downloader, relocationHelper);
+        final DependencyVerifier dependencyVerifier = verifier.create(resolver);
+        final DependencyDownloader downloader = downloaderFactory.create(outputWriterFactory, resolver, dependencyVerifier);
+        return new InjectionHelper(downloader, relocationHelper, resolver, dependencyVerifier, filePathStrategy);
     }
 }
@@ -29,10 +29,22 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.List;
 
 public interface Injectable {
     void inject(final URL url) throws IOException, InvocationTargetException, IllegalAccessException, URISyntaxException;
-    
+
+    /**
+     * Injects all given urls, keeping their order on the classpath.
+     * Implementations override this to amortise locking and reflective overhead over the whole batch.
+     * @param urls urls to inject, in classpath order
+     */
+    default void injectAll(final List<URL> urls) throws IOException, InvocationTargetException, IllegalAccessException, URISyntaxException {
+        for (final URL url : urls) {
+            inject(url);
+        }
+    }
+
     static WrappedInjectableClassLoader wrap(final URLClassLoader classLoader) {
         return new WrappedInjectableClassLoader(classLoader);
     }
@@ -26,6 +26,7 @@ package io.github.slimjar.injector.loader;
 
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.List;
 
 public abstract class InjectableClassLoader extends URLClassLoader implements Injectable {
     static {
@@ -42,4 +43,11 @@ public abstract class InjectableClassLoader extends URLClassLoader implements In
         addURL(url);
     }
 
+    @Override
+    public void injectAll(final List<URL> urls) {
+        for (final URL url : urls) {
+            addURL(url);
+        }
+    }
+
 }
@@ -33,6 +33,7 @@ import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.concurrent.Executor;
 
 public final class InjectableFactory {
     private InjectableFactory() {
@@ -43,6 +44,13 @@ public final class InjectableFactory {
     }
 
     public static Injectable create(final ApplicationBuilder applicationBuilder, final Path downloadPath, final Collection<Repository> repositories, final ClassLoader classLoader) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
+        return create(applicationBuilder, downloadPath, repositories, classLoader, Runnable::run);
+    }
+
+    /**
+     * @param ioExecutor Executor for blocking I/O, used to open injected jars in parallel where that helps
+     */
+    public static Injectable create(final ApplicationBuilder applicationBuilder, final Path downloadPath, final Collection<Repository> repositories, final ClassLoader classLoader, final Executor ioExecutor) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
         final boolean isJigsawActive = isJigsawActive();
         Injectable injectable = null;
 
@@ -59,7 +67,7 @@ public final class InjectableFactory {
         }
 
         if (injectable == null) {
-            injectable = InstrumentationInjectable.create(applicationBuilder, downloadPath, repositories);
+            injectable = InstrumentationInjectable.create(applicationBuilder, downloadPath, repositories, ioExecutor);
         }
         return injectable;
     }
@@ -32,12 +32,18 @@ import io.github.slimjar.resolver.data.Repository;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.instrument.Instrumentation;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.jar.JarFile;
 
 public final class InstrumentationInjectable implements Injectable {
@@ -45,9 +51,18 @@ public final class InstrumentationInjectable implements Injectable {
 
 
     private final Instrumentation instrumentation;
+    private final Executor executor;
 
     public InstrumentationInjectable(final Instrumentation instrumentation) {
+        this(instrumentation, Runnable::run);
+    }
+
+    /**
+     * @param executor Executor the jars of a batch are opened on, ideally the I/O executor of the application
+     */
+    public InstrumentationInjectable(final Instrumentation instrumentation, final Executor executor) {
         this.instrumentation = instrumentation;
+        this.executor = executor;
     }
 
     @Override
@@ -55,11 +70,73 @@ public final class InstrumentationInjectable implements Injectable {
         instrumentation.appendToSystemClassLoaderSearch(new JarFile(new File(url.toURI())));
     }
 
+    @Override
+    public void injectAll(final List<URL> urls) throws IOException, URISyntaxException {
+        final List<File> files = new ArrayList<>(urls.size());
+        for (final URL url : urls) {
+            files.add(new File(url.toURI()));
+        }
+        // Opening a jar reads its central directory, so do that in parallel and only append sequentially
+        final List<CompletableFuture<JarFile>> openings = new ArrayList<>(files.size());
+        for (final File file : files) {
+            openings.add(CompletableFuture.supplyAsync(() -> openJar(file), executor));
+        }
+        final List<JarFile> jarFiles = new ArrayList<>(files.size());
+        IOException failure = null;
+        for (final CompletableFuture<JarFile> opening : openings) {
+            try {
+                jarFiles.add(opening.join());
+            } catch (final CompletionException exception) {
+                final Throwable cause = exception.getCause();
+                final IOException openFailure = cause instanceof UncheckedIOException ? ((UncheckedIOException) cause).getCause() : new IOException(cause);
+                if (failure == null) {
+                    failure = openFailure;
+                } else {
+                    failure.addSuppressed(openFailure);
+                }
+            }
+        }
+        if (failure != null) {
+            // Nothing was appended yet, so none of the opened jars is in use
+            for (final JarFile jarFile : jarFiles) {
+                closeQuietly(jarFile, failure);
+            }
+            throw failure;
+        }
+        for (final JarFile jarFile : jarFiles) {
+            instrumentation.appendToSystemClassLoaderSearch(jarFile);
+        }
+    }
+
+    private static JarFile openJar(final File file) {
+        try {
+            return new JarFile(file);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void closeQuietly(final JarFile jarFile, final IOException failure) {
+        try {
+            jarFile.close();
+        } catch (final IOException exception) {
+            failure.addSuppressed(exception);
+        }
+    }
+
     public static Injectable create(final ApplicationBuilder applicationBuilder, final Path downloadPath, final Collection<Repository> repositories) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException, InterruptedException {
-        return create(new ByteBuddyInstrumentationFactory(applicationBuilder, ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories)));
+        return create(applicationBuilder, downloadPath, repositories, Runnable::run);
+    }
+
+    public static Injectable create(final ApplicationBuilder applicationBuilder, final Path downloadPath, final Collection<Repository> repositories, final Executor executor) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException, InterruptedException {
+        return create(new ByteBuddyInstrumentationFactory(applicationBuilder, ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories)), executor);
     }
 
     public static Injectable create(final InstrumentationFactory factory) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException, InterruptedException {
-        return new InstrumentationInjectable(factory.create());
+        return create(factory, Runnable::run);
+    }
+
+    public static Injectable create(final InstrumentationFactory factory, final Executor executor) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException, InterruptedException {
+        return new InstrumentationInjectable(factory.create(), executor);
     }
 }
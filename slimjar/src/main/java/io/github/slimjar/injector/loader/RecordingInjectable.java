@@ -0,0 +1,63 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector.loader;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Delegating {@link Injectable} that remembers every url it injected, in classpath order.
+ */
+public final class RecordingInjectable implements Injectable {
+    private final Injectable delegate;
+    private final List<URL> injected = Collections.synchronizedList(new ArrayList<>());
+
+    public RecordingInjectable(final Injectable delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void inject(final URL url) throws IOException, InvocationTargetException, IllegalAccessException, URISyntaxException {
+        delegate.inject(url);
+        injected.add(url);
+    }
+
+    @Override
+    public void injectAll(final List<URL> urls) throws IOException, InvocationTargetException, IllegalAccessException, URISyntaxException {
+        delegate.injectAll(urls);
+        injected.addAll(urls);
+    }
+
+    public List<URL> getInjected() {
+        synchronized (injected) {
+            return new ArrayList<>(injected);
+        }
+    }
+}
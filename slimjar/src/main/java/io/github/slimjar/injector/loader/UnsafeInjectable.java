@@ -31,6 +31,9 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public final class UnsafeInjectable implements Injectable {
     private final ArrayDeque<URL> unopenedURLs;
@@ -43,8 +46,28 @@ public final class UnsafeInjectable implements Injectable {
 
     @Override
     public void inject(final URL url) {
-        unopenedURLs.addLast(url);
-        pathURLs.add(url);
+        // URLClassPath guards both collections with the monitor of unopenedUrls
+        synchronized (unopenedURLs) {
+            unopenedURLs.addLast(url);
+            pathURLs.add(url);
+        }
+    }
+
+    @Override
+    public void injectAll(final List<URL> urls) {
+        synchronized (unopenedURLs) {
+            pathURLs.ensureCapacity(pathURLs.size() + urls.size());
+            // Compare external forms, URL#equals may resolve hosts
+            final Set<String> known = new HashSet<>();
+            for (final URL url : pathURLs) {
+                known.add(url.toExternalForm());
+            }
+            for (final URL url : urls) {
+                if (!known.add(url.toExternalForm())) continue;
+                unopenedURLs.addLast(url);
+                pathURLs.add(url);
+            }
+        }
     }
 
     public static Injectable create(final URLClassLoader classLoader) throws NoSuchFieldException, IllegalAccessException {
@@ -28,6 +28,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.List;
 
 public final class WrappedInjectableClassLoader implements Injectable {
     private final URLClassLoader urlClassLoader;
@@ -38,6 +39,7 @@ public final class WrappedInjectableClassLoader implements Injectable {
         this.urlClassLoader = urlClassLoader;
         try {
             methodDefer = URLClassLoader.class.getDeclaredMethod("addURL", URL.class);
+            methodDefer.setAccessible(true);
         } catch (NoSuchMethodException e) {
             e.printStackTrace();
             methodDefer = null;
@@ -48,7 +50,13 @@ public final class WrappedInjectableClassLoader implements Injectable {
 
     @Override
     public void inject(final URL url) throws InvocationTargetException, IllegalAccessException {
-        addURLMethod.setAccessible(true);
         addURLMethod.invoke(urlClassLoader, url);
     }
+
+    @Override
+    public void injectAll(final List<URL> urls) throws InvocationTargetException, IllegalAccessException {
+        for (final URL url : urls) {
+            addURLMethod.invoke(urlClassLoader, url);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector.scheduler;
+
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deduplicated view of a dependency tree.
+ * Every dependency appears exactly once, ordered by first occurrence in a depth-first walk of the declared tree,
+ * which is the order the sequential injector used to build the classpath in.
+ */
+public final class DependencyGraph {
+    private final List<Dependency> order;
+    private final Set<Dependency> roots;
+    private final Map<Dependency, Set<Dependency>> parents;
+
+    private DependencyGraph(final List<Dependency> order, final Set<Dependency> roots, final Map<Dependency, Set<Dependency>> parents) {
+        this.order = Collections.unmodifiableList(order);
+        this.roots = Collections.unmodifiableSet(roots);
+        this.parents = parents;
+    }
+
+    public List<Dependency> order() {
+        return order;
+    }
+
+    public boolean isRoot(final Dependency dependency) {
+        return roots.contains(dependency);
+    }
+
+    public Collection<Dependency> parentsOf(final Dependency dependency) {
+        return parents.getOrDefault(dependency, Collections.emptySet());
+    }
+
+    public int size() {
+        return order.size();
+    }
+
+    public static DependencyGraph of(final Collection<Dependency> dependencies) {
+        final List<Dependency> order = new ArrayList<>();
+        final Set<Dependency> visited = new LinkedHashSet<>();
+        final Map<Dependency, Set<Dependency>> parents = new HashMap<>();
+        for (final Dependency dependency : dependencies) {
+            visit(dependency, visited, order, parents);
+        }
+        return new DependencyGraph(order, new LinkedHashSet<>(dependencies), parents);
+    }
+
+    private static void visit(final Dependency dependency, final Set<Dependency> visited, final List<Dependency> order, final Map<Dependency, Set<Dependency>> parents) {
+        // Already visited dependencies are not expanded again, which also guards against cycles
+        if (!visited.add(dependency)) return;
+        order.add(dependency);
+        for (final Dependency transitive : dependency.transitive()) {
+            parents.computeIfAbsent(transitive, key -> new LinkedHashSet<>()).add(dependency);
+            visit(transitive, visited, order, parents);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector.scheduler;
+
+import io.github.slimjar.injector.InjectionFailedException;
+import io.github.slimjar.injector.helper.InjectionHelper;
+import io.github.slimjar.injector.loader.Injectable;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.progress.ProgressDispatcher;
+import io.github.slimjar.progress.ProgressEvent;
+import io.github.slimjar.progress.ProgressListener;
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules a {@link DependencyGraph} through the {@link Stage}s resolve, download, verify, relocate and inject.
+ * <p>
+ * Each dependency moves through the stages independently, so a small leaf can be fully prepared while large siblings
+ * are still downloading. Every stage has its own concurrency limit and queue.
+ * Injection happens on the calling thread in the graph's classpath order, through a single
+ * {@link Injectable#injectAll(List)} once every dependency is ready, so a failure leaves the classpath untouched.
+ */
+public final class DependencyScheduler {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final InjectionHelper injectionHelper;
+    private final ProgressListener progressListener;
+    private final Map<Stage, StageExecutor> stages = new EnumMap<>(Stage.class);
+    private final AtomicInteger pendingInjections = new AtomicInteger();
+
+    public DependencyScheduler(final InjectionHelper injectionHelper, final Executor executor, final Map<Stage, Integer> limits) {
+        this(injectionHelper, executor, limits, ProgressDispatcher.getMediatingListener());
+    }
+
+    /**
+     * @param progressListener Listener that receives the stage transitions and failures of this scheduler only
+     */
+    public DependencyScheduler(final InjectionHelper injectionHelper, final Executor executor, final Map<Stage, Integer> limits, final ProgressListener progressListener) {
+        this.injectionHelper = injectionHelper;
+        this.progressListener = progressListener;
+        for (final Stage stage : Stage.values()) {
+            if (stage == Stage.INJECT) continue;
+            final Integer limit = limits.get(stage);
+            stages.put(stage, new StageExecutor(stage, executor, limit == null ? defaultLimits().get(stage) : limit));
+        }
+    }
+
+    public void run(final Injectable injectable, final Collection<Dependency> dependencies) throws IOException, ReflectiveOperationException, InterruptedException {
+        final DependencyGraph graph = DependencyGraph.of(dependencies);
+        final Map<Dependency, CompletableFuture<File>> prepared = new HashMap<>();
+        for (final Dependency dependency : graph.order()) {
+            if (injectionHelper.isInjected(dependency)) continue;
+            prepared.put(dependency, schedule(dependency));
+        }
+        LOGGER.debug("Scheduled %s dependencies", prepared.size());
+
+        final Map<Dependency, Boolean> reachable = new HashMap<>();
+        final List<Dependency> batch = new ArrayList<>();
+        final List<URL> batchURLs = new ArrayList<>();
+        for (final Dependency dependency : graph.order()) {
+            final CompletableFuture<File> preparation = prepared.get(dependency);
+            if (preparation == null) continue;
+            if (!isReachable(dependency, graph, prepared, reachable)) {
+                preparation.thenRun(pendingInjections::decrementAndGet);
+                continue;
+            }
+
+            final File file = await(dependency, preparation);
+            if (file == null) {
+                pendingInjections.decrementAndGet();
+                continue;
+            }
+            batch.add(dependency);
+            batchURLs.add(file.toURI().toURL());
+        }
+        injectBatch(injectable, batch, batchURLs);
+    }
+
+    public int queueDepth(final Stage stage) {
+        if (stage == Stage.INJECT) {
+            return pendingInjections.get();
+        }
+        return stages.get(stage).queueDepth();
+    }
+
+    public Map<Stage, Integer> queueDepths() {
+        final Map<Stage, Integer> depths = new EnumMap<>(Stage.class);
+        for (final Stage stage : Stage.values()) {
+            depths.put(stage, queueDepth(stage));
+        }
+        return depths;
+    }
+
+    public static Map<Stage, Integer> defaultLimits() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final Map<Stage, Integer> limits = new EnumMap<>(Stage.class);
+        limits.put(Stage.RESOLVE, 16);
+        limits.put(Stage.DOWNLOAD, 8);
+        limits.put(Stage.VERIFY, processors);
+        limits.put(Stage.RELOCATE, processors);
+        limits.put(Stage.INJECT, 1);
+        return Collections.unmodifiableMap(limits);
+    }
+
+    private CompletableFuture<File> schedule(final Dependency dependency) {
+        return submit(Stage.RESOLVE, dependency, () -> {
+                    injectionHelper.resolve(dependency);
+                    return null;
+                })
+                .thenCompose(ignored -> submit(Stage.DOWNLOAD, dependency, () -> injectionHelper.download(dependency)))
+                .thenCompose(file -> file == null ? CompletableFuture.completedFuture(null) : submit(Stage.VERIFY, dependency, () -> {
+                    if (!injectionHelper.verify(dependency, file)) {
+                        throw new InjectionFailedException(dependency, new IOException("Could not verify " + file));
+                    }
+                    return file;
+                }))
+                .thenCompose(file -> file == null ? CompletableFuture.completedFuture(null) : submit(Stage.RELOCATE, dependency, () -> injectionHelper.relocate(dependency, file)))
+                .whenComplete((file, throwable) -> {
+                    if (throwable == null) {
+                        pendingInjections.incrementAndGet();
+                    }
+                });
+    }
+
+    private void injectBatch(final Injectable injectable, final List<Dependency> batch, final List<URL> batchURLs) {
+        if (batch.isEmpty()) return;
+        LOGGER.debug("Injecting %s dependencies", batch.size());
+        try {
+            injectable.injectAll(batchURLs);
+            for (final Dependency dependency : batch) {
+                progressListener.onProgress(ProgressEvent.stage(dependency, Stage.INJECT));
+            }
+        } catch (final IOException | IllegalAccessException | InvocationTargetException | URISyntaxException e) {
+            for (final Dependency dependency : batch) {
+                progressListener.onProgress(ProgressEvent.failure(dependency, Stage.INJECT, e));
+            }
+            throw new InjectionFailedException(batch.get(0), e);
+        } finally {
+            pendingInjections.addAndGet(-batch.size());
+            batch.clear();
+            batchURLs.clear();
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(final Stage stage, final Dependency dependency, final Callable<T> task) {
+        final StageExecutor executor = stages.get(stage);
+        LOGGER.debug("%s -> %s (queued: %s)", dependency.artifactId(), stage, executor.queueDepth());
+        progressListener.onProgress(ProgressEvent.stage(dependency, stage));
+        return executor.submit(task).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                progressListener.onProgress(ProgressEvent.failure(dependency, stage, throwable instanceof CompletionException ? throwable.getCause() : throwable));
+            }
+        });
+    }
+
+    /**
+     * A dependency is only injected when it is declared directly or when at least one dependant was injected itself,
+     * so the transitives of aggregator (BOM) dependencies are skipped just like before.
+     */
+    private boolean isReachable(final Dependency dependency, final DependencyGraph graph, final Map<Dependency, CompletableFuture<File>> prepared, final Map<Dependency, Boolean> reachable) throws IOException, ReflectiveOperationException, InterruptedException {
+        if (graph.isRoot(dependency)) return true;
+        final Boolean known = reachable.get(dependency);
+        if (known != null) return known;
+        // Mark as unreachable while walking up to stay safe on cyclic declarations
+        reachable.put(dependency, false);
+        boolean result = false;
+        for (final Dependency parent : graph.parentsOf(dependency)) {
+            final CompletableFuture<File> parentPreparation = prepared.get(parent);
+            if (parentPreparation == null || !isReachable(parent, graph, prepared, reachable)) continue;
+            if (await(parent, parentPreparation) != null) {
+                result = true;
+                break;
+            }
+        }
+        reachable.put(dependency, result);
+        return result;
+    }
+
+    private static File await(final Dependency dependency, final CompletableFuture<File> preparation) throws IOException, ReflectiveOperationException, InterruptedException {
+        try {
+            return preparation.get();
+        } catch (final ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) throw new InjectionFailedException(dependency, (IOException) cause);
+            if (cause instanceof ReflectiveOperationException) throw (ReflectiveOperationException) cause;
+            if (cause instanceof InterruptedException) throw (InterruptedException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new InjectionFailedException(dependency, exception);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the tasks of a single {@link Stage} on a shared executor, never exceeding the stage's concurrency limit.
+ * Tasks above the limit wait in the stage's own queue.
+ */
+final class StageExecutor {
+    private final Stage stage;
+    private final Executor executor;
+    private final int limit;
+    private final Queue<Job<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    StageExecutor(final Stage stage, final Executor executor, final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Concurrency limit of stage " + stage + " must be at least 1, got " + limit);
+        }
+        this.stage = stage;
+        this.executor = executor;
+        this.limit = limit;
+    }
+
+    <T> CompletableFuture<T> submit(final Callable<T> callable) {
+        final Job<T> job = new Job<>(callable);
+        queued.incrementAndGet();
+        queue.offer(job);
+        drain();
+        return job.future;
+    }
+
+    int queueDepth() {
+        return queued.get();
+    }
+
+    int activeCount() {
+        return active.get();
+    }
+
+    Stage stage() {
+        return stage;
+    }
+
+    private void drain() {
+        while (true) {
+            final int current = active.get();
+            if (current >= limit || queue.isEmpty()) return;
+            if (!active.compareAndSet(current, current + 1)) continue;
+
+            final Job<?> job = queue.poll();
+            if (job == null) {
+                active.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        job.run();
+                    } finally {
+                        active.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (final RejectedExecutionException exception) {
+                active.decrementAndGet();
+                job.future.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static final class Job<T> {
+        private final Callable<T> callable;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Job(final Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        private void run() {
+            try {
+                future.complete(callable.call());
+            } catch (final Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        }
+    }
+}
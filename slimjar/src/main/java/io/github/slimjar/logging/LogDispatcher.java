@@ -24,10 +24,10 @@
 
 package io.github.slimjar.logging;
 
-import java.util.HashSet;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 public final class LogDispatcher {
-    private static final MediatingProcessLogger mediatingLogger = new MediatingProcessLogger(new HashSet<>());
+    private static final MediatingProcessLogger mediatingLogger = new MediatingProcessLogger(new CopyOnWriteArraySet<>());
 
     private LogDispatcher() {
     }
@@ -0,0 +1,54 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.progress;
+
+import java.util.Collection;
+
+public final class MediatingProgressListener implements ProgressListener {
+    private final Collection<ProgressListener> listeners;
+
+    public MediatingProgressListener(final Collection<ProgressListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void onProgress(final ProgressEvent event) {
+        for (final ProgressListener listener : listeners) {
+            listener.onProgress(event);
+        }
+    }
+
+    public void addListener(final ProgressListener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(final ProgressListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    public void clearListeners() {
+        this.listeners.clear();
+    }
+}
@@ -0,0 +1,114 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.progress;
+
+import io.github.slimjar.injector.scheduler.Stage;
+import io.github.slimjar.resolver.data.Dependency;
+
+/**
+ * Progress of a single dependency during a build.
+ * <ul>
+ *     <li>{@link Type#STAGE} is published when the dependency enters a {@link Stage}, {@link Stage#INJECT} once it is on the classpath.</li>
+ *     <li>{@link Type#BYTES} is published while the dependency is being downloaded.</li>
+ *     <li>{@link Type#FAILURE} is published when a stage failed for the dependency.</li>
+ * </ul>
+ */
+public final class ProgressEvent {
+    private final Type type;
+    private final Dependency dependency;
+    private final Stage stage;
+    private final long bytes;
+    private final long totalBytes;
+    private final Throwable failure;
+
+    private ProgressEvent(final Type type, final Dependency dependency, final Stage stage, final long bytes, final long totalBytes, final Throwable failure) {
+        this.type = type;
+        this.dependency = dependency;
+        this.stage = stage;
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+        this.failure = failure;
+    }
+
+    public static ProgressEvent stage(final Dependency dependency, final Stage stage) {
+        return new ProgressEvent(Type.STAGE, dependency, stage, 0, -1, null);
+    }
+
+    public static ProgressEvent bytes(final Dependency dependency, final long bytes, final long totalBytes) {
+        return new ProgressEvent(Type.BYTES, dependency, Stage.DOWNLOAD, bytes, totalBytes, null);
+    }
+
+    public static ProgressEvent failure(final Dependency dependency, final Stage stage, final Throwable failure) {
+        return new ProgressEvent(Type.FAILURE, dependency, stage, 0, -1, failure);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Dependency getDependency() {
+        return dependency;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * @return bytes downloaded so far, only meaningful for {@link Type#BYTES}
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return expected download size, or -1 if unknown
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "ProgressEvent{" +
+                "type=" + type +
+                ", dependency=" + dependency +
+                ", stage=" + stage +
+                ", bytes=" + bytes +
+                ", totalBytes=" + totalBytes +
+                ", failure=" + failure +
+                '}';
+    }
+
+    public enum Type {
+        STAGE,
+        BYTES,
+        FAILURE
+    }
+}
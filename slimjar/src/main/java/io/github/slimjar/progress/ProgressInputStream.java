@@ -0,0 +1,100 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.progress;
+
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Publishes {@link ProgressEvent.Type#BYTES} events for a download while it is being read.
+ */
+public final class ProgressInputStream extends FilterInputStream {
+    // Publish at most once per chunk of this size to keep listeners cheap
+    private static final long REPORT_INTERVAL = 64 * 1024;
+    private final ProgressListener listener;
+    private final Dependency dependency;
+    private final long totalBytes;
+    private long bytes;
+    private long reported;
+
+    public ProgressInputStream(final InputStream inputStream, final ProgressListener listener, final Dependency dependency, final long totalBytes) {
+        super(inputStream);
+        this.listener = listener;
+        this.dependency = dependency;
+        this.totalBytes = totalBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int value = super.read();
+        count(value == -1 ? -1 : 1);
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        final int read = super.read(buffer, offset, length);
+        count(read);
+        return read;
+    }
+
+    @Override
+    public long skip(final long count) throws IOException {
+        final long skipped = super.skip(count);
+        count(skipped);
+        return skipped;
+    }
+
+    /**
+     * @return number of bytes read so far
+     */
+    public long getBytesRead() {
+        return bytes;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(final long read) {
+        if (read == -1) {
+            if (reported != bytes) report();
+            return;
+        }
+        bytes += read;
+        if (bytes - reported >= REPORT_INTERVAL || bytes == totalBytes) {
+            report();
+        }
+    }
+
+    private void report() {
+        reported = bytes;
+        listener.onProgress(ProgressEvent.bytes(dependency, bytes, totalBytes));
+    }
+}
@@ -27,14 +27,27 @@ package io.github.slimjar.resolver;
 
 import io.github.slimjar.logging.LogDispatcher;
 import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.cache.ResolutionCache;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirer;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.resolver.ranking.HedgeBudget;
+import io.github.slimjar.resolver.ranking.RepositoryRanker;
+import io.github.slimjar.util.Threads;
 
+import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public final class CachingDependencyResolver implements DependencyResolver {
@@ -42,32 +55,152 @@ public final class CachingDependencyResolver implements DependencyResolver {
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
     private final URLPinger urlPinger;
     private final Collection<RepositoryEnquirer> repositories;
-    private final Map<Dependency, ResolutionResult> cachedResults = new ConcurrentHashMap<>();
+    // Default time a failed resolution is remembered before it is attempted again
+    static final long DEFAULT_FAILURE_EXPIRY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private final Map<Dependency, CompletableFuture<ResolutionResult>> cachedResults = new ConcurrentHashMap<>();
+    private final Map<Dependency, FailedResolution> failedResolutions = new ConcurrentHashMap<>();
     private final Map<String, ResolutionResult> preResolvedResults;
+    private final Executor executor;
+    private final long failureExpiryNanos;
+    private final ResolutionCache resolutionCache;
+    private final Set<String> repositoryURLs;
+    private final RepositoryRanker repositoryRanker;
+    private final HedgeBudget hedgeBudget;
+    private final Map<RepositoryEnquirer, String> repositoryKeys = new IdentityHashMap<>();
+    // Artifact URL per repository key of every repository whose enquiry found the dependency
+    private final Map<Dependency, Map<String, URL>> servingRepositories = new ConcurrentHashMap<>();
 
     public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, ForkJoinPool.commonPool());
+    }
+
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final Executor executor) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, executor, DEFAULT_FAILURE_EXPIRY_MILLIS);
+    }
+
+    /**
+     * @param failureExpiryMillis Time in milliseconds for which a failed resolution is returned from the cache before it is retried
+     */
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final Executor executor, final long failureExpiryMillis) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, executor, failureExpiryMillis, null);
+    }
+
+    /**
+     * @param resolutionCache Cache consulted before enquiring repositories and updated with every new resolution, may be null
+     */
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final Executor executor, final long failureExpiryMillis, final ResolutionCache resolutionCache) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, executor, failureExpiryMillis, resolutionCache, null);
+    }
+
+    /**
+     * @param repositoryRanker Ranking used to ask the most promising repository first and only hedge to the others after
+     *                         an adaptive delay, may be null to ask all repositories at once
+     */
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final Executor executor, final long failureExpiryMillis, final ResolutionCache resolutionCache, final RepositoryRanker repositoryRanker) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, executor, failureExpiryMillis, resolutionCache, repositoryRanker, null);
+    }
+
+    /**
+     * @param hedgeBudget Global cap on enquiries sent to the next repository while the previous one has not answered,
+     *                    may be null to not cap them
+     */
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final Executor executor, final long failureExpiryMillis, final ResolutionCache resolutionCache, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget) {
         this.urlPinger = urlPinger;
-        this.preResolvedResults = new ConcurrentHashMap<>(preResolvedResults);
-        this.repositories = repositories.stream()
-                .map(enquirerFactory::create)
+        this.executor = executor;
+        this.failureExpiryNanos = TimeUnit.MILLISECONDS.toNanos(failureExpiryMillis);
+        this.resolutionCache = resolutionCache;
+        this.repositoryRanker = repositoryRanker;
+        this.hedgeBudget = hedgeBudget;
+        this.repositoryURLs = repositories.stream()
+                .map(repository -> repository.url().toString())
                 .collect(Collectors.toSet());
+        this.preResolvedResults = new ConcurrentHashMap<>(preResolvedResults);
+        final List<RepositoryEnquirer> enquirers = new ArrayList<>(repositories.size());
+        for (final Repository repository : new LinkedHashSet<>(repositories)) {
+            final RepositoryEnquirer enquirer = enquirerFactory.create(repository);
+            repositoryKeys.put(enquirer, repository.url().toString());
+            enquirers.add(enquirer);
+        }
+        this.repositories = enquirers;
     }
 
     @Override
     public Optional<ResolutionResult> resolve(final Dependency dependency) {
-        return Optional.ofNullable(cachedResults.computeIfAbsent(dependency, dep -> attemptResolve(dep, Collections.emptyList())));
+        return resolve(dependency, Collections.emptyList());
     }
 
     public Optional<ResolutionResult> resolve(
         final Dependency dependency,
         final List<RepositoryEnquirer> enforcedRepositories
-    ) { return Optional.ofNullable(cachedResults.computeIfAbsent(dependency, dep -> attemptResolve(dep, enforcedRepositories))); }
+    ) { return Optional.ofNullable(join(lookup(dependency, enforcedRepositories, Runnable::run))); }
+
+    @Override
+    public CompletableFuture<ResolutionResult> resolveAsync(final Dependency dependency) {
+        return lookup(dependency, Collections.emptyList(), executor);
+    }
+
+    /**
+     * Single-flight lookup: the first caller for a dependency starts the resolution on <code>runner</code>,
+     * concurrent callers share its future. Only successful results stay in the cache, failures are kept
+     * separately until they expire.
+     */
+    private CompletableFuture<ResolutionResult> lookup(final Dependency dependency, final List<RepositoryEnquirer> enforcedRepositories, final Executor runner) {
+        final FailedResolution failure = failedResolutions.get(dependency);
+        if (failure != null) {
+            if (!failure.isExpired()) return failure.result;
+            failedResolutions.remove(dependency, failure);
+        }
+        final CompletableFuture<ResolutionResult> cached = cachedResults.get(dependency);
+        if (cached != null) return cached;
+        final CompletableFuture<ResolutionResult> future = new CompletableFuture<>();
+        final CompletableFuture<ResolutionResult> existing = cachedResults.putIfAbsent(dependency, future);
+        if (existing != null) return existing;
+        try {
+            runner.execute(() -> complete(dependency, enforcedRepositories, future));
+        } catch (final RuntimeException exception) {
+            cachedResults.remove(dependency, future);
+            future.completeExceptionally(exception);
+        }
+        return future;
+    }
+
+    private void complete(final Dependency dependency, final List<RepositoryEnquirer> enforcedRepositories, final CompletableFuture<ResolutionResult> future) {
+        try {
+            final ResolutionResult result = attemptResolve(dependency, enforcedRepositories);
+            if (result == null) {
+                fail(dependency, future, CompletableFuture.completedFuture(null));
+            }
+            future.complete(result);
+        } catch (final Throwable throwable) {
+            final CompletableFuture<ResolutionResult> failed = new CompletableFuture<>();
+            failed.completeExceptionally(throwable);
+            fail(dependency, future, failed);
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    private void fail(final Dependency dependency, final CompletableFuture<ResolutionResult> future, final CompletableFuture<ResolutionResult> result) {
+        // Record the failure before evicting the in-flight future so new callers never start a duplicate attempt
+        failedResolutions.put(dependency, new FailedResolution(result, System.nanoTime() + failureExpiryNanos));
+        cachedResults.remove(dependency, future);
+    }
+
+    private static ResolutionResult join(final CompletableFuture<ResolutionResult> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw exception;
+        }
+    }
 
     private ResolutionResult attemptResolve(
         final Dependency dependency,
         final List<RepositoryEnquirer> enforcedRepositories
     ) {
-        final ResolutionResult preResolvedResult = preResolvedResults.get(dependency.toString()) != null ? preResolvedResults.get(dependency.toString()) : cachedResults.get(dependency);
+        final ResolutionResult preResolvedResult = preResolvedResults.get(dependency.toString());
 
         if (preResolvedResult != null) {
             if (preResolvedResult.isChecked()) return preResolvedResult;
@@ -83,16 +216,189 @@ public final class CachingDependencyResolver implements DependencyResolver {
             }
         }
 
+        final ResolutionResult cachedResult = resolutionCache == null ? null : resolutionCache.get(dependency);
+        if (cachedResult != null && isConfigured(cachedResult.getRepository(), enforcedRepositories)) {
+            LOGGER.debug("Resolved %s from resolution cache", dependency.artifactId());
+            return cachedResult;
+        }
+
         final Collection<RepositoryEnquirer> usedRepositories = enforcedRepositories.isEmpty() ? repositories : enforcedRepositories;
-        final Optional<ResolutionResult> result = usedRepositories.stream().parallel()
-                .map(repositoryEnquirer -> repositoryEnquirer.enquire(dependency))
-                .filter(Objects::nonNull)
-                .findFirst();
+        final Optional<ResolutionResult> result = Optional.ofNullable(repositoryRanker == null
+                ? Threads.firstNonNull(usedRepositories, repositoryEnquirer -> enquire(repositoryEnquirer, dependency), executor)
+                : enquireRanked(dependency, usedRepositories));
         final String resolvedResult = result.map(ResolutionResult::getDependencyURL)
                 .map(Objects::toString)
                 .orElse(FAILED_RESOLUTION_MESSAGE);
 
         LOGGER.log("Resolved %s @ %s", dependency.artifactId(), resolvedResult);
+        if (resolutionCache != null) {
+            result.ifPresent(resolution -> resolutionCache.put(dependency, resolution));
+        }
         return result.orElse(null);
     }
+
+    /**
+     * Only repositories whose enquiry found the dependency are offered, a repository that was never asked or missed
+     * the artifact may not serve it at all.
+     */
+    @Override
+    public List<URL> alternativeURLs(final Dependency dependency, final ResolutionResult result) {
+        final Map<String, URL> serving = servingRepositories.get(dependency);
+        if (serving == null || result.getRepository() == null || result.getDependencyURL() == null) return Collections.emptyList();
+        final String resolvedKey = result.getRepository().url().toString();
+        final String resolvedURL = result.getDependencyURL().toString();
+        final List<RepositoryEnquirer> candidates = repositoryRanker == null
+                ? new ArrayList<>(repositories)
+                : repositoryRanker.rank(repositories, this::keyOf);
+        final List<URL> alternatives = new ArrayList<>(serving.size());
+        for (final RepositoryEnquirer candidate : candidates) {
+            final String key = keyOf(candidate);
+            final URL url = serving.get(key);
+            if (url == null || key.equals(resolvedKey) || url.toString().equals(resolvedURL)) continue;
+            alternatives.add(url);
+        }
+        return alternatives;
+    }
+
+    /**
+     * Candidates of all repositories, best ranked repository first. Dependencies this resolver already knows or
+     * is resolving have no candidates, their resolution is cheaper.
+     */
+    @Override
+    public List<ResolutionCandidate> candidates(final Dependency dependency) {
+        if (preResolvedResults.containsKey(dependency.toString()) || cachedResults.containsKey(dependency)) {
+            return Collections.emptyList();
+        }
+        final ResolutionResult cachedResult = resolutionCache == null ? null : resolutionCache.get(dependency);
+        if (cachedResult != null && isConfigured(cachedResult.getRepository(), Collections.emptyList())) {
+            return Collections.emptyList();
+        }
+        final List<RepositoryEnquirer> ordered = repositoryRanker == null
+                ? new ArrayList<>(repositories)
+                : repositoryRanker.rank(repositories, this::keyOf);
+        final List<ResolutionCandidate> candidates = new ArrayList<>();
+        for (final RepositoryEnquirer enquirer : ordered) {
+            candidates.addAll(enquirer.candidates(dependency));
+        }
+        return candidates;
+    }
+
+    @Override
+    public void record(final Dependency dependency, final ResolutionResult result) {
+        if (cachedResults.putIfAbsent(dependency, CompletableFuture.completedFuture(result)) != null) return;
+        failedResolutions.remove(dependency);
+        LOGGER.log("Resolved %s @ %s", dependency.artifactId(), result.getDependencyURL());
+        if (resolutionCache != null) {
+            resolutionCache.put(dependency, result);
+        }
+    }
+
+    /**
+     * Asks the best ranked repository first. The next one is asked as soon as the previous ones missed, or as a hedge
+     * once the best repository did not answer within its hedge delay and the hedge budget allows it. The first
+     * repository to find the dependency wins, repositories that were not asked yet are skipped from then on.
+     */
+    private ResolutionResult enquireRanked(final Dependency dependency, final Collection<RepositoryEnquirer> enquirers) {
+        final List<RepositoryEnquirer> ranked = repositoryRanker.rank(enquirers, this::keyOf);
+        if (ranked.isEmpty()) return null;
+        if (hedgeBudget != null) hedgeBudget.recordRequest();
+        final CompletableFuture<ResolutionResult> result = new CompletableFuture<>();
+        final AtomicInteger launched = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final Launcher launchNext = new Launcher() {
+            @Override
+            public boolean launch(final boolean hedge) {
+                if (result.isDone()) return false;
+                final int index = launched.getAndIncrement();
+                if (index >= ranked.size()) return false;
+                final RepositoryEnquirer enquirer = ranked.get(index);
+                CompletableFuture.runAsync(() -> {
+                    final long start = System.nanoTime();
+                    ResolutionResult resolution = null;
+                    try {
+                        resolution = enquire(enquirer, dependency);
+                    } catch (final RuntimeException exception) {
+                        LOGGER.debug("Failed to enquire %s for %s: %s", enquirer, dependency.artifactId(), exception);
+                    } finally {
+                        if (hedge) hedgeBudget.release();
+                    }
+                    repositoryRanker.record(keyOf(enquirer), resolution != null, System.nanoTime() - start);
+                    if (resolution != null) {
+                        result.complete(resolution);
+                    } else if (completed.incrementAndGet() == ranked.size()) {
+                        result.complete(null);
+                    } else {
+                        launch(false);
+                    }
+                }, executor);
+                return true;
+            }
+        };
+        final long hedgeDelayMillis = repositoryRanker.hedgeDelayMillis(keyOf(ranked.get(0)));
+        launchNext.launch(false);
+        while (true) {
+            try {
+                return launched.get() >= ranked.size() ? result.get() : result.get(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException exception) {
+                if (hedgeBudget == null) {
+                    launchNext.launch(false);
+                } else if (hedgeBudget.tryAcquire() && !launchNext.launch(true)) {
+                    hedgeBudget.release();
+                }
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (final ExecutionException exception) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Enquires a single repository, remembering it as an alternative source if it serves the artifact.
+     */
+    private ResolutionResult enquire(final RepositoryEnquirer enquirer, final Dependency dependency) {
+        final ResolutionResult resolution = enquirer.enquire(dependency);
+        if (resolution != null && !resolution.isAggregator() && resolution.getDependencyURL() != null) {
+            servingRepositories.computeIfAbsent(dependency, key -> new ConcurrentHashMap<>()).put(keyOf(enquirer), resolution.getDependencyURL());
+        }
+        return resolution;
+    }
+
+    private String keyOf(final RepositoryEnquirer enquirer) {
+        final String key = repositoryKeys.get(enquirer);
+        return key == null ? enquirer.toString() : key;
+    }
+
+    /**
+     * Cached resolutions are only trusted while their repository is still part of the current configuration.
+     */
+    private boolean isConfigured(final Repository repository, final List<RepositoryEnquirer> enforcedRepositories) {
+        final String url = repository.url().toString();
+        if (enforcedRepositories.isEmpty()) {
+            return repositoryURLs.contains(url);
+        }
+        return enforcedRepositories.stream().anyMatch(repo -> repo.toString().equals(url));
+    }
+
+    private interface Launcher {
+        /**
+         * @return true if another repository was asked
+         */
+        boolean launch(final boolean hedge);
+    }
+
+    private static final class FailedResolution {
+        private final CompletableFuture<ResolutionResult> result;
+        private final long expiresAt;
+
+        private FailedResolution(final CompletableFuture<ResolutionResult> result, final long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt >= 0;
+        }
+    }
 }
@@ -24,22 +24,63 @@
 
 package io.github.slimjar.resolver;
 
+import io.github.slimjar.resolver.cache.ResolutionCache;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.resolver.ranking.HedgeBudget;
+import io.github.slimjar.resolver.ranking.RepositoryRanker;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public final class CachingDependencyResolverFactory implements DependencyResolverFactory {
     private final URLPinger urlPinger;
+    private final Executor executor;
+    private final ResolutionCache resolutionCache;
+    private final RepositoryRanker repositoryRanker;
+    private final HedgeBudget hedgeBudget;
 
     public CachingDependencyResolverFactory(final URLPinger urlPinger) {
+        this(urlPinger, ForkJoinPool.commonPool());
+    }
+
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final Executor executor) {
+        this(urlPinger, executor, null);
+    }
+
+    /**
+     * @param resolutionCache Cache shared by all created resolvers, may be null
+     */
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final Executor executor, final ResolutionCache resolutionCache) {
+        this(urlPinger, executor, resolutionCache, null);
+    }
+
+    /**
+     * @param resolutionCache Cache shared by all created resolvers, may be null
+     * @param repositoryRanker Ranking shared by all created resolvers, may be null to ask all repositories at once
+     */
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final Executor executor, final ResolutionCache resolutionCache, final RepositoryRanker repositoryRanker) {
+        this(urlPinger, executor, resolutionCache, repositoryRanker, null);
+    }
+
+    /**
+     * @param resolutionCache Cache shared by all created resolvers, may be null
+     * @param repositoryRanker Ranking shared by all created resolvers, may be null to ask all repositories at once
+     * @param hedgeBudget Hedge cap shared by all created resolvers, may be null to not cap hedges
+     */
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final Executor executor, final ResolutionCache resolutionCache, final RepositoryRanker repositoryRanker, final HedgeBudget hedgeBudget) {
         this.urlPinger = urlPinger;
+        this.executor = executor;
+        this.resolutionCache = resolutionCache;
+        this.repositoryRanker = repositoryRanker;
+        this.hedgeBudget = hedgeBudget;
     }
 
     @Override
     public DependencyResolver create(final Collection<Repository> repositories, final Map<String, ResolutionResult> preResolvedResults, final RepositoryEnquirerFactory enquirerFactory) {
-        return new CachingDependencyResolver(urlPinger, repositories, enquirerFactory, preResolvedResults);
+        return new CachingDependencyResolver(urlPinger, repositories, enquirerFactory, preResolvedResults, executor, CachingDependencyResolver.DEFAULT_FAILURE_EXPIRY_MILLIS, resolutionCache, repositoryRanker, hedgeBudget);
     }
 }
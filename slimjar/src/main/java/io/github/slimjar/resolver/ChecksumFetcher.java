@@ -0,0 +1,123 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
+import io.github.slimjar.transport.URLConnectionTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches remote checksum files without blocking the caller. Concurrent fetches of the same file share one request,
+ * and since all fetches go through one {@link HttpTransport}, fetches to the same host share its connections
+ * (a single multiplexed connection with the HTTP/2 transport).
+ */
+public final class ChecksumFetcher {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final ChecksumFetcher DIRECT = new ChecksumFetcher(new URLConnectionTransport(Runnable::run));
+    private final HttpTransport transport;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public ChecksumFetcher(final HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * @return fetcher opening a plain connection per checksum on the thread that asks for it
+     */
+    public static ChecksumFetcher direct() {
+        return DIRECT;
+    }
+
+    /**
+     * @param url location of the checksum file
+     * @return future completed with the content of the checksum file, or with null if the repository does not publish
+     *         it (404 or 410). Any other failure completes it exceptionally with an {@link IOException}, a checksum
+     *         that could not be fetched must not pass for one that does not exist.
+     */
+    public CompletableFuture<String> fetch(final URL url) {
+        final String key = url.toExternalForm();
+        final CompletableFuture<String> existing = inFlight.get(key);
+        if (existing != null) return existing;
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final CompletableFuture<String> concurrent = inFlight.putIfAbsent(key, future);
+        if (concurrent != null) return concurrent;
+        // Checksums are fetched while the artifact they belong to downloads, so they must not queue behind it
+        final TransportRequest request = TransportRequest.get(url).withHeader("User-Agent", TransportRequest.DOWNLOAD_USER_AGENT).withKind(TransportRequest.Kind.METADATA).asFollowUp();
+        transport.sendAsync(request).whenComplete((response, throwable) -> {
+            try {
+                future.complete(read(url, response, throwable));
+            } catch (final IOException exception) {
+                LOGGER.debug("Failed to fetch checksum from %s: %s", url, exception);
+                future.completeExceptionally(exception);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    private static String read(final URL url, final TransportResponse response, final Throwable throwable) throws IOException {
+        if (throwable != null) {
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            throw cause instanceof IOException ? (IOException) cause : new IOException("Could not fetch " + url, cause);
+        }
+        try (final TransportResponse checksumResponse = response) {
+            final int statusCode = checksumResponse.statusCode();
+            if (statusCode == HttpURLConnection.HTTP_NOT_FOUND || statusCode == HttpURLConnection.HTTP_GONE) {
+                LOGGER.debug("No checksum published at %s", url);
+                return null;
+            }
+            if (!checksumResponse.isSuccessful()) {
+                throw new IOException("Could not fetch " + url + " (" + statusCode + ")");
+            }
+            return readString(checksumResponse.body());
+        }
+    }
+
+    private static String readString(final InputStream inputStream) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        final char[] buffer = new char[1024];
+        final Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        for (int read; (read = reader.read(buffer)) != -1; ) {
+            builder.append(buffer, 0, read);
+        }
+        return builder.toString();
+    }
+}
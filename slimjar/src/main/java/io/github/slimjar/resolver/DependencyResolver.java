@@ -27,9 +27,53 @@ package io.github.slimjar.resolver;
 
 import io.github.slimjar.resolver.data.Dependency;
 
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @FunctionalInterface
 public interface DependencyResolver {
     Optional<ResolutionResult> resolve(final Dependency dependency);
+
+    /**
+     * Resolves without blocking the caller. Implementations that cache should share one in-flight resolution between
+     * concurrent callers of the same dependency.
+     * @param dependency dependency to resolve
+     * @return future completed with the result, or with null if the dependency could not be resolved
+     */
+    default CompletableFuture<ResolutionResult> resolveAsync(final Dependency dependency) {
+        return CompletableFuture.completedFuture(resolve(dependency).orElse(null));
+    }
+
+    /**
+     * URLs at which other configured repositories were found to serve the same artifact, best candidate first.
+     * Downloaders may send a hedge request to them when the resolved repository is slow to answer.
+     * @param dependency resolved dependency
+     * @param result resolution of the dependency
+     * @return alternative artifact URLs, possibly empty
+     */
+    default List<URL> alternativeURLs(final Dependency dependency, final ResolutionResult result) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Locations to download the dependency from directly, without resolving it first. A download that finds the
+     * artifact at one of them should hand its result back through {@link #record(Dependency, ResolutionResult)}.
+     * @param dependency dependency to locate
+     * @return candidate locations, best first, or an empty list if the dependency should be resolved instead
+     */
+    default List<ResolutionCandidate> candidates(final Dependency dependency) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Records a resolution that was established outside of this resolver, so later lookups do not ask the
+     * repositories again.
+     * @param dependency resolved dependency
+     * @param result its resolution
+     */
+    default void record(final Dependency dependency, final ResolutionResult result) {
+    }
 }
@@ -0,0 +1,64 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.resolver.data.Repository;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A location at which a repository would serve an artifact if it hosts it. Unlike a {@link ResolutionResult}
+ * nothing about a candidate has been checked against the network.
+ */
+public final class ResolutionCandidate {
+    private final Repository repository;
+    private final URL dependencyURL;
+    private final List<URL> checksumURLs;
+
+    public ResolutionCandidate(final Repository repository, final URL dependencyURL, final List<URL> checksumURLs) {
+        this.repository = repository;
+        this.dependencyURL = dependencyURL;
+        this.checksumURLs = Collections.unmodifiableList(checksumURLs);
+    }
+
+    public Repository getRepository() {
+        return repository;
+    }
+
+    public URL getDependencyURL() {
+        return dependencyURL;
+    }
+
+    public List<URL> getChecksumURLs() {
+        return checksumURLs;
+    }
+
+    @Override
+    public String toString() {
+        return dependencyURL.toString();
+    }
+}
@@ -25,23 +25,24 @@
 package io.github.slimjar.resolver;
 
 import io.github.slimjar.resolver.data.Repository;
-import io.github.slimjar.util.Connections;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.net.URLConnection;
-import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public final class ResolutionResult {
     private final Repository repository;
     private final URL dependencyURL;
-    private final String checksum;
+    // Not final so a lazily fetched checksum can be kept, the field name is part of the pre-resolution json format
+    private volatile String checksum;
     private final boolean isAggregator;
     private transient boolean checked;
+    private final transient URL checksumURL;
+    private final transient ChecksumFetcher checksumFetcher;
+    private transient CompletableFuture<String> pendingChecksum;
 
     public ResolutionResult(
             final Repository repository,
@@ -50,19 +51,48 @@ public final class ResolutionResult {
             final boolean isAggregator,
             final boolean checked
     ) {
-        this(repository, dependencyURL, getChecksumFromURL(checksumURL), isAggregator, checked);
+        this(repository, dependencyURL, checksumURL, ChecksumFetcher.direct(), isAggregator, checked);
     }
 
+    /**
+     * Creates a result whose checksum is only fetched from <code>checksumURL</code> once it is asked for.
+     * @param checksumFetcher Fetcher used for the checksum
+     */
     public ResolutionResult(
+            final Repository repository,
+            final URL dependencyURL,
+            final URL checksumURL,
+            final ChecksumFetcher checksumFetcher,
+            final boolean isAggregator,
+            final boolean checked
+    ) {
+        this(repository, dependencyURL, null, checksumURL, checksumFetcher, isAggregator, checked);
+    }
+
+    public ResolutionResult(
+            final Repository repository,
+            final URL dependencyURL,
+            final String checksum,
+            final boolean isAggregator,
+            final boolean checked
+    ) {
+        this(repository, dependencyURL, checksum, null, null, isAggregator, checked);
+    }
+
+    private ResolutionResult(
             final Repository repository,
             final URL dependencyURL,
             final String checksum,
+            final URL checksumURL,
+            final ChecksumFetcher checksumFetcher,
             final boolean isAggregator,
             final boolean checked
     ) {
         this.repository = repository;
         this.dependencyURL = dependencyURL;
         this.checksum = checksum;
+        this.checksumURL = checksumURL;
+        this.checksumFetcher = checksumFetcher;
         this.isAggregator = isAggregator;
         this.checked = checked;
 
@@ -79,10 +109,67 @@ public final class ResolutionResult {
         return dependencyURL;
     }
 
+    /**
+     * Blocks until the checksum is available. Prefer {@link #getChecksumAsync()} where blocking is not wanted.
+     * @return the checksum, or null if the repository publishes none
+     * @throws UncheckedIOException if the checksum could not be fetched
+     */
     public String getChecksum() {
+        try {
+            return getChecksumAsync().join();
+        } catch (final CompletionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException) throw new UncheckedIOException((IOException) cause);
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw exception;
+        }
+    }
+
+    /**
+     * Fetches the checksum on first use and caches it, later calls share the same future. A failed fetch is not
+     * cached, the next call fetches the checksum again.
+     * @return future completed with the checksum, or with null if the repository publishes none. Completed
+     *         exceptionally if the checksum could not be fetched.
+     */
+    public CompletableFuture<String> getChecksumAsync() {
+        final String knownChecksum = checksum;
+        if (knownChecksum != null || checksumURL == null) {
+            return CompletableFuture.completedFuture(knownChecksum);
+        }
+        synchronized (this) {
+            if (pendingChecksum != null) return pendingChecksum;
+            final CompletableFuture<String> pending = checksumFetcher.fetch(checksumURL).thenApply(fetched -> {
+                checksum = fetched;
+                return fetched;
+            });
+            pendingChecksum = pending;
+            pending.whenComplete((fetched, throwable) -> {
+                if (throwable != null) forgetPendingChecksum(pending);
+            });
+            return pending;
+        }
+    }
+
+    private synchronized void forgetPendingChecksum(final CompletableFuture<String> pending) {
+        if (pendingChecksum == pending) {
+            pendingChecksum = null;
+        }
+    }
+
+    /**
+     * @return the checksum if it is already known, never fetches it
+     */
+    public String getKnownChecksum() {
         return checksum;
     }
 
+    /**
+     * @return location the checksum is fetched from, null if the checksum was given directly
+     */
+    public URL getChecksumURL() {
+        return checksumURL;
+    }
+
     public boolean isAggregator() {
         return isAggregator;
     }
@@ -100,36 +187,19 @@ public final class ResolutionResult {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ResolutionResult that = (ResolutionResult) o;
-        // String comparison to avoid all blocking calls
-        return dependencyURL.toString().equals(that.toString()) &&
-                Objects.equals(checksum, that.checksum) &&
+        // String comparison to avoid all blocking calls, lazy checksums are compared by their location
+        return Objects.equals(Objects.toString(dependencyURL, null), Objects.toString(that.dependencyURL, null)) &&
+                Objects.equals(checksumKey(), that.checksumKey()) &&
                 isAggregator == that.isAggregator &&
                 checked == that.checked;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(dependencyURL.toString(), checksum, isAggregator, checked);
+        return Objects.hash(Objects.toString(dependencyURL, null), checksumKey(), isAggregator, checked);
     }
 
-    private static String getChecksumFromURL(URL checksumURL) {
-        if(checksumURL == null) {
-            return null;
-        }
-        try {
-            final URLConnection connection = Connections.createDownloadConnection(checksumURL);
-            final InputStream inputStream = connection.getInputStream();
-            int bufferSize = 1024;
-            char[] buffer = new char[bufferSize];
-            StringBuilder out = new StringBuilder();
-            Reader in = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-            for (int numRead; (numRead = in.read(buffer, 0, buffer.length)) > 0; ) {
-                out.append(buffer, 0, numRead);
-            }
-            return out.toString();
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            return null;
-        }
+    private String checksumKey() {
+        return checksumURL == null ? checksum : checksumURL.toString();
     }
 }
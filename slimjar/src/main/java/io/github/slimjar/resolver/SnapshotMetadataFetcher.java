@@ -0,0 +1,108 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.cache.PersistentSnapshotMetadataCache;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.resolver.strategy.MavenMetadataSnapshotPathResolutionStrategy;
+import io.github.slimjar.resolver.strategy.SnapshotMetadata;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches the <code>maven-metadata.xml</code> of snapshot versions into a {@link PersistentSnapshotMetadataCache},
+ * where {@link MavenMetadataSnapshotPathResolutionStrategy} reads it. Metadata that is still fresh is not requested
+ * again, stale metadata is revalidated with a conditional request. Concurrent refreshes of the same metadata share
+ * one request.
+ */
+public final class SnapshotMetadataFetcher {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final HttpTransport transport;
+    private final PersistentSnapshotMetadataCache metadataCache;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public SnapshotMetadataFetcher(final HttpTransport transport, final PersistentSnapshotMetadataCache metadataCache) {
+        this.transport = transport;
+        this.metadataCache = metadataCache;
+    }
+
+    /**
+     * Makes sure the cache holds fresh metadata for the snapshot <code>dependency</code> in <code>repository</code>,
+     * blocking until it was fetched. Does nothing for releases. Metadata that could not be fetched is left as it was.
+     */
+    public void refresh(final Repository repository, final Dependency dependency) {
+        final String location = MavenMetadataSnapshotPathResolutionStrategy.metadataLocation(repository, dependency);
+        if (location == null || metadataCache.isFresh(location)) return;
+        final CompletableFuture<Void> refresh = new CompletableFuture<>();
+        final CompletableFuture<Void> concurrent = inFlight.putIfAbsent(location, refresh);
+        if (concurrent != null) {
+            concurrent.join();
+            return;
+        }
+        try {
+            fetch(location);
+        } finally {
+            inFlight.remove(location, refresh);
+            refresh.complete(null);
+        }
+    }
+
+    private void fetch(final String location) {
+        try {
+            TransportRequest request = TransportRequest.get(new URL(location))
+                    .withHeader("User-Agent", TransportRequest.DOWNLOAD_USER_AGENT)
+                    .withKind(TransportRequest.Kind.METADATA);
+            for (final Map.Entry<String, String> header : metadataCache.conditionalHeaders(location).entrySet()) {
+                request = request.withHeader(header.getKey(), header.getValue());
+            }
+            try (final TransportResponse response = transport.send(request)) {
+                final int statusCode = response.statusCode();
+                if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    LOGGER.debug("Metadata %s is unchanged", location);
+                    metadataCache.revalidated(location);
+                } else if (response.isSuccessful()) {
+                    metadataCache.put(location, SnapshotMetadata.parse(response.body()), response.header("ETag"), response.header("Last-Modified"));
+                } else if (statusCode == HttpURLConnection.HTTP_NOT_FOUND || statusCode == HttpURLConnection.HTTP_GONE) {
+                    metadataCache.put(location, null, null, null);
+                } else {
+                    LOGGER.debug("Could not fetch metadata %s (%s)", location, statusCode);
+                }
+            }
+        } catch (final IOException exception) {
+            LOGGER.debug("Failed to fetch metadata %s: %s", location, exception);
+        }
+    }
+}
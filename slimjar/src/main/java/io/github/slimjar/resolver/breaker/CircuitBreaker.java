@@ -0,0 +1,121 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.breaker;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker guarding one host. After a number of consecutive connection failures or timeouts it opens
+ * and rejects requests for a cool-down period. Afterwards a single probe request is let through (half-open):
+ * if the host answers the breaker closes again, otherwise it opens for another cool-down period.
+ */
+public final class CircuitBreaker {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final String name;
+    private final int failureThreshold;
+    private final long coolDownNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * @param name Name of the guarded host, used in log messages
+     * @param failureThreshold Consecutive failures after which the breaker opens
+     * @param coolDownMillis Time in milliseconds the breaker stays open before it lets a probe through
+     */
+    public CircuitBreaker(final String name, final int failureThreshold, final long coolDownMillis) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("failureThreshold must be at least 1");
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.coolDownNanos = TimeUnit.MILLISECONDS.toNanos(coolDownMillis);
+    }
+
+    /**
+     * @return true if a request may be sent now, every permitted request must be followed by
+     * {@link #recordSuccess()} or {@link #recordFailure()}
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < coolDownNanos) return false;
+                state = State.HALF_OPEN;
+                probing = true;
+                LOGGER.log("Probing host %s again", name);
+                return true;
+            default:
+                if (probing) return false;
+                probing = true;
+                return true;
+        }
+    }
+
+    /**
+     * Records that the host answered, whatever the answer was.
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            LOGGER.log("Host %s is reachable again", name);
+        }
+    }
+
+    /**
+     * Records a connection failure or timeout.
+     */
+    public synchronized void recordFailure() {
+        probing = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            LOGGER.log("Host %s is unreachable, skipping it for %s ms", name, TimeUnit.NANOSECONDS.toMillis(coolDownNanos));
+        }
+    }
+
+    /**
+     * Records that a permitted request was given up before the host answered, which says nothing about it.
+     */
+    public synchronized void recordAbandoned() {
+        probing = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,62 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.breaker;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link CircuitBreaker} per host, shared by everything that talks to the host.
+ */
+public final class CircuitBreakers {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_COOL_DOWN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private final int failureThreshold;
+    private final long coolDownMillis;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakers() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_COOL_DOWN_MILLIS);
+    }
+
+    /**
+     * @param failureThreshold Consecutive failures after which a repository is skipped
+     * @param coolDownMillis Time in milliseconds a repository is skipped before it is probed again
+     */
+    public CircuitBreakers(final int failureThreshold, final long coolDownMillis) {
+        this.failureThreshold = failureThreshold;
+        this.coolDownMillis = coolDownMillis;
+    }
+
+    /**
+     * @return breaker of the host serving <code>url</code>, repositories on the same host share it
+     */
+    public CircuitBreaker forHost(final URL url) {
+        final String key = url.getProtocol() + "://" + url.getAuthority();
+        return breakers.computeIfAbsent(key, name -> new CircuitBreaker(name, failureThreshold, coolDownMillis));
+    }
+}
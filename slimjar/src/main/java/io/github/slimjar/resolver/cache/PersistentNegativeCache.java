@@ -0,0 +1,131 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.cache;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.util.AtomicFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded, file-backed set of keys that are known to be missing, such as artifact paths a repository answered with 404.
+ * Entries expire after a short time-to-live and the least recently used entry is evicted once the cache is full.
+ * The file is read once and only rewritten by {@link #save()} if anything changed.
+ */
+public final class PersistentNegativeCache {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final String HEADER = "# slimjar negative cache v1";
+    private final Path path;
+    private final long ttlMillis;
+    private final Map<String, Long> misses;
+    private boolean dirty;
+
+    private PersistentNegativeCache(final Path path, final int maxEntries, final long ttlMillis) {
+        this.path = path;
+        this.ttlMillis = ttlMillis;
+        this.misses = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Loads the cache stored at <code>path</code>, dropping expired entries. A missing or unreadable file results in an empty cache.
+     * @param path cache file
+     * @param maxEntries maximum number of remembered misses
+     * @param ttlMillis time in milliseconds a miss is remembered
+     * @return the loaded cache
+     */
+    public static PersistentNegativeCache load(final Path path, final int maxEntries, final long ttlMillis) {
+        final PersistentNegativeCache cache = new PersistentNegativeCache(path, maxEntries, ttlMillis);
+        if (!Files.isRegularFile(path)) {
+            return cache;
+        }
+        final long now = System.currentTimeMillis();
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return cache;
+            }
+            String line;
+            // Lines are stored from least to most recently used, so replaying them restores the LRU order
+            while ((line = reader.readLine()) != null) {
+                final int separator = line.indexOf('\t');
+                if (separator < 0) continue;
+                final long recordedAt = Long.parseLong(line.substring(0, separator));
+                if (now - recordedAt >= ttlMillis) continue;
+                cache.misses.put(line.substring(separator + 1), recordedAt);
+            }
+        } catch (final IOException | RuntimeException exception) {
+            LOGGER.debug("Could not read negative cache %s: %s", path, exception);
+            cache.misses.clear();
+        }
+        return cache;
+    }
+
+    public synchronized boolean contains(final String key) {
+        final Long recordedAt = misses.get(key);
+        if (recordedAt == null) return false;
+        if (System.currentTimeMillis() - recordedAt >= ttlMillis) {
+            misses.remove(key);
+            dirty = true;
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized void add(final String key) {
+        if (ttlMillis <= 0) return;
+        misses.put(key, System.currentTimeMillis());
+        dirty = true;
+    }
+
+    /**
+     * Atomically replaces the cache file if any miss was added or evicted since it was loaded.
+     */
+    public void save() throws IOException {
+        final List<String> lines;
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+            lines = new ArrayList<>(misses.size() + 1);
+            lines.add(HEADER);
+            for (final Map.Entry<String, Long> entry : misses.entrySet()) {
+                lines.add(entry.getValue() + "\t" + entry.getKey());
+            }
+        }
+        AtomicFiles.writeLines(path, lines);
+    }
+}
@@ -0,0 +1,216 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.cache;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.ChecksumFetcher;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.util.AtomicFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link ResolutionCache} backed by a file in the download directory.
+ * Each line holds one resolution: coordinates, time of resolution, repository, artifact url, checksum, whether it is
+ * an aggregator and the checksum url. Checksums that were not fetched yet are stored by their url and stay lazy. Release and snapshot resolutions expire after their own time-to-live.
+ * The file is read once and only rewritten by {@link #save()} if anything changed.
+ */
+public final class PersistentResolutionCache implements ResolutionCache {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final String HEADER = "# slimjar resolution cache v2";
+    private static final String LEGACY_HEADER = "# slimjar resolution cache v1";
+    private static final String NONE = "-";
+    private final Path path;
+    private final long releaseTtlMillis;
+    private final long snapshotTtlMillis;
+    private final ChecksumFetcher checksumFetcher;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private PersistentResolutionCache(final Path path, final long releaseTtlMillis, final long snapshotTtlMillis, final ChecksumFetcher checksumFetcher) {
+        this.path = path;
+        this.releaseTtlMillis = releaseTtlMillis;
+        this.snapshotTtlMillis = snapshotTtlMillis;
+        this.checksumFetcher = checksumFetcher;
+    }
+
+    /**
+     * Loads the cache stored at <code>path</code>. A missing or unreadable file results in an empty cache.
+     * @param path cache file
+     * @param releaseTtlMillis time in milliseconds a release resolution stays valid
+     * @param snapshotTtlMillis time in milliseconds a snapshot resolution stays valid
+     * @return the loaded cache
+     */
+    public static PersistentResolutionCache load(final Path path, final long releaseTtlMillis, final long snapshotTtlMillis) {
+        return load(path, releaseTtlMillis, snapshotTtlMillis, ChecksumFetcher.direct());
+    }
+
+    /**
+     * Loads the cache stored at <code>path</code>. A missing or unreadable file results in an empty cache.
+     * @param path cache file
+     * @param releaseTtlMillis time in milliseconds a release resolution stays valid
+     * @param snapshotTtlMillis time in milliseconds a snapshot resolution stays valid
+     * @param checksumFetcher fetcher for checksums that were not fetched before they were cached
+     * @return the loaded cache
+     */
+    public static PersistentResolutionCache load(final Path path, final long releaseTtlMillis, final long snapshotTtlMillis, final ChecksumFetcher checksumFetcher) {
+        final PersistentResolutionCache cache = new PersistentResolutionCache(path, releaseTtlMillis, snapshotTtlMillis, checksumFetcher);
+        if (!Files.isRegularFile(path)) {
+            return cache;
+        }
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            final String header = reader.readLine();
+            final int columns = HEADER.equals(header) ? 7 : LEGACY_HEADER.equals(header) ? 6 : -1;
+            if (columns < 0) {
+                return cache;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] parts = line.split("\t");
+                if (parts.length != columns) continue;
+                final String checksumURL = columns > 6 ? decode(parts[6]) : null;
+                final Entry entry = new Entry(Long.parseLong(parts[1]), decode(parts[2]), decode(parts[3]), decode(parts[4]), Boolean.parseBoolean(parts[5]), checksumURL);
+                cache.entries.put(decode(parts[0]), entry);
+            }
+        } catch (final IOException | RuntimeException exception) {
+            LOGGER.debug("Could not read resolution cache %s: %s", path, exception);
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    @Override
+    public ResolutionResult get(final Dependency dependency) {
+        final String key = dependency.toString();
+        final Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (System.currentTimeMillis() - entry.resolvedAt >= ttlOf(dependency)) {
+            if (entries.remove(key, entry)) dirty.set(true);
+            return null;
+        }
+        try {
+            final Repository repository = new Repository(new URL(entry.repository));
+            final URL dependencyURL = entry.dependencyURL == null ? null : new URL(entry.dependencyURL);
+            if (entry.checksum == null && entry.checksumURL != null) {
+                return new ResolutionResult(repository, dependencyURL, new URL(entry.checksumURL), checksumFetcher, entry.aggregator, true);
+            }
+            return new ResolutionResult(repository, dependencyURL, entry.checksum, entry.aggregator, true);
+        } catch (final MalformedURLException exception) {
+            if (entries.remove(key, entry)) dirty.set(true);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(final Dependency dependency, final ResolutionResult result) {
+        if (ttlOf(dependency) <= 0 || result.getRepository() == null) return;
+        final URL dependencyURL = result.getDependencyURL();
+        final URL checksumURL = result.getChecksumURL();
+        final Entry entry = new Entry(
+                System.currentTimeMillis(),
+                result.getRepository().url().toString(),
+                dependencyURL == null ? null : dependencyURL.toString(),
+                result.getKnownChecksum(),
+                result.isAggregator(),
+                checksumURL == null ? null : checksumURL.toString()
+        );
+        entries.put(dependency.toString(), entry);
+        dirty.set(true);
+    }
+
+    /**
+     * Atomically replaces the cache file if any resolution was added or evicted since it was loaded.
+     */
+    public void save() throws IOException {
+        if (!dirty.getAndSet(false)) return;
+        final List<String> lines = new ArrayList<>(entries.size() + 1);
+        lines.add(HEADER);
+        for (final Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            final Entry entry = mapEntry.getValue();
+            lines.add(encode(mapEntry.getKey()) + "\t" + entry.resolvedAt + "\t" + encode(entry.repository) + "\t"
+                    + encode(entry.dependencyURL) + "\t" + encode(entry.checksum) + "\t" + entry.aggregator + "\t"
+                    + encode(entry.checksumURL));
+        }
+        AtomicFiles.writeLines(path, lines);
+    }
+
+    private long ttlOf(final Dependency dependency) {
+        return dependency.version().endsWith("-SNAPSHOT") ? snapshotTtlMillis : releaseTtlMillis;
+    }
+
+    private static String encode(final String value) {
+        if (value == null) return NONE;
+        try {
+            // Dashes are escaped as well so a value can never be confused with the null marker
+            return URLEncoder.encode(value, "UTF-8").replace(NONE, "%2D");
+        } catch (final UnsupportedEncodingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static String decode(final String value) {
+        if (NONE.equals(value)) return null;
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (final UnsupportedEncodingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static final class Entry {
+        private final long resolvedAt;
+        private final String repository;
+        private final String dependencyURL;
+        private final String checksum;
+        private final boolean aggregator;
+        private final String checksumURL;
+
+        private Entry(final long resolvedAt, final String repository, final String dependencyURL, final String checksum, final boolean aggregator, final String checksumURL) {
+            this.resolvedAt = resolvedAt;
+            this.repository = repository;
+            this.dependencyURL = dependencyURL;
+            this.checksum = checksum;
+            this.aggregator = aggregator;
+            this.checksumURL = checksumURL;
+        }
+    }
+}
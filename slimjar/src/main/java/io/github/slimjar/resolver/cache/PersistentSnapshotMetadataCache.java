@@ -0,0 +1,200 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.cache;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.strategy.SnapshotMetadata;
+import io.github.slimjar.util.AtomicFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File-backed cache of snapshot metadata by metadata url, along with the validators (ETag and Last-Modified) it was
+ * served with. Metadata is used while fresh; afterwards it is only kept to revalidate it with a conditional request.
+ * A repository that publishes no metadata is remembered as well, for as long as metadata would be fresh.
+ * The file is read once and only rewritten by {@link #save()} if anything changed.
+ */
+public final class PersistentSnapshotMetadataCache {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final String HEADER = "# slimjar snapshot metadata cache v1";
+    private static final int FIELDS = 9;
+    public static final long DEFAULT_FRESHNESS_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private final Path path;
+    private final long freshnessMillis;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean dirty;
+
+    private PersistentSnapshotMetadataCache(final Path path, final long freshnessMillis) {
+        this.path = path;
+        this.freshnessMillis = freshnessMillis;
+    }
+
+    /**
+     * Loads the cache stored at <code>path</code>. A missing or unreadable file results in an empty cache.
+     * @param path cache file, may be null to keep the cache in memory only
+     * @param freshnessMillis time in milliseconds fetched metadata is used before it has to be revalidated
+     * @return the loaded cache
+     */
+    public static PersistentSnapshotMetadataCache load(final Path path, final long freshnessMillis) {
+        final PersistentSnapshotMetadataCache cache = new PersistentSnapshotMetadataCache(path, freshnessMillis);
+        if (path == null || !Files.isRegularFile(path)) {
+            return cache;
+        }
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return cache;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.split("\t", -1);
+                if (fields.length != FIELDS) continue;
+                final SnapshotMetadata metadata = "1".equals(fields[2])
+                        ? new SnapshotMetadata(fields[8].isEmpty() ? Collections.emptySet() : new HashSet<>(Arrays.asList(fields[8].split(","))), orNull(fields[6]), orNull(fields[7]), "true".equals(fields[5]))
+                        : null;
+                cache.entries.put(fields[1], new Entry(Long.parseLong(fields[0]), metadata, orNull(fields[3]), orNull(fields[4])));
+            }
+        } catch (final IOException | RuntimeException exception) {
+            LOGGER.debug("Could not read snapshot metadata cache %s: %s", path, exception);
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * @return metadata at <code>location</code> if it was fetched recently, null if it is stale, unknown or not published
+     */
+    public synchronized SnapshotMetadata get(final String location) {
+        final Entry entry = entries.get(location);
+        return entry != null && isFresh(entry) ? entry.metadata : null;
+    }
+
+    /**
+     * @return true if <code>location</code> was fetched recently, whether or not it had any metadata
+     */
+    public synchronized boolean isFresh(final String location) {
+        final Entry entry = entries.get(location);
+        return entry != null && isFresh(entry);
+    }
+
+    /**
+     * @return headers that make a request for <code>location</code> conditional on the cached copy, empty if there is none
+     */
+    public synchronized Map<String, String> conditionalHeaders(final String location) {
+        final Entry entry = entries.get(location);
+        final Map<String, String> headers = new LinkedHashMap<>();
+        if (entry == null || entry.metadata == null) return headers;
+        if (entry.entityTag != null) headers.put("If-None-Match", entry.entityTag);
+        if (entry.lastModified != null) headers.put("If-Modified-Since", entry.lastModified);
+        return headers;
+    }
+
+    /**
+     * Stores freshly fetched metadata.
+     * @param metadata fetched metadata, null if the repository publishes none
+     * @param entityTag ETag it was served with, may be null
+     * @param lastModified Last-Modified it was served with, may be null
+     */
+    public synchronized void put(final String location, final SnapshotMetadata metadata, final String entityTag, final String lastModified) {
+        entries.put(location, new Entry(System.currentTimeMillis(), metadata, entityTag, lastModified));
+        dirty = true;
+    }
+
+    /**
+     * Marks the cached copy at <code>location</code> fresh again after the repository confirmed it is unchanged.
+     */
+    public synchronized void revalidated(final String location) {
+        final Entry entry = entries.get(location);
+        if (entry == null) return;
+        entries.put(location, new Entry(System.currentTimeMillis(), entry.metadata, entry.entityTag, entry.lastModified));
+        dirty = true;
+    }
+
+    /**
+     * Atomically replaces the cache file if anything was fetched since it was loaded.
+     */
+    public void save() throws IOException {
+        if (path == null) return;
+        final List<String> lines;
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+            lines = new ArrayList<>(entries.size() + 1);
+            lines.add(HEADER);
+            for (final Map.Entry<String, Entry> cached : entries.entrySet()) {
+                final Entry entry = cached.getValue();
+                final SnapshotMetadata metadata = entry.metadata;
+                lines.add(String.join("\t",
+                        String.valueOf(entry.fetchedAt),
+                        cached.getKey(),
+                        metadata == null ? "0" : "1",
+                        entry.entityTag == null ? "" : entry.entityTag,
+                        entry.lastModified == null ? "" : entry.lastModified,
+                        metadata != null && metadata.isLocalCopy() ? "true" : "false",
+                        metadata == null || metadata.getTimestamp() == null ? "" : metadata.getTimestamp(),
+                        metadata == null || metadata.getBuildNumber() == null ? "" : metadata.getBuildNumber(),
+                        metadata == null ? "" : String.join(",", metadata.getJarValues())
+                ));
+            }
+        }
+        AtomicFiles.writeLines(path, lines);
+    }
+
+    private boolean isFresh(final Entry entry) {
+        final long age = System.currentTimeMillis() - entry.fetchedAt;
+        return age >= 0 && age < freshnessMillis;
+    }
+
+    private static String orNull(final String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static final class Entry {
+        private final long fetchedAt;
+        private final SnapshotMetadata metadata;
+        private final String entityTag;
+        private final String lastModified;
+
+        private Entry(final long fetchedAt, final SnapshotMetadata metadata, final String entityTag, final String lastModified) {
+            this.fetchedAt = fetchedAt;
+            this.metadata = metadata;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -26,20 +26,23 @@ package io.github.slimjar.resolver.enquirer;
 
 import io.github.slimjar.logging.LogDispatcher;
 import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.ChecksumFetcher;
+import io.github.slimjar.resolver.ResolutionCandidate;
 import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.SnapshotMetadataFetcher;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.strategy.PathResolutionStrategy;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.util.Threads;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public final class PingingRepositoryEnquirer implements RepositoryEnquirer {
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
@@ -48,70 +51,88 @@ public final class PingingRepositoryEnquirer implements RepositoryEnquirer {
     private final PathResolutionStrategy checksumURLCreationStrategy;
     private final PathResolutionStrategy pomURLCreationStrategy;
     private final URLPinger urlPinger;
+    private final Executor executor;
+    private final ChecksumFetcher checksumFetcher;
+    private final SnapshotMetadataFetcher metadataFetcher;
 
     public PingingRepositoryEnquirer(final Repository repository, final PathResolutionStrategy urlCreationStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger) {
+        this(repository, urlCreationStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, ForkJoinPool.commonPool());
+    }
+
+    public PingingRepositoryEnquirer(final Repository repository, final PathResolutionStrategy urlCreationStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger, final Executor executor) {
+        this(repository, urlCreationStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, executor, ChecksumFetcher.direct());
+    }
+
+    /**
+     * @param checksumFetcher Fetcher for the checksums of resolved dependencies, they are only fetched once needed
+     */
+    public PingingRepositoryEnquirer(final Repository repository, final PathResolutionStrategy urlCreationStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger, final Executor executor, final ChecksumFetcher checksumFetcher) {
+        this(repository, urlCreationStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, executor, checksumFetcher, null);
+    }
+
+    /**
+     * @param checksumFetcher Fetcher for the checksums of resolved dependencies, they are only fetched once needed
+     * @param metadataFetcher Fetcher refreshing the metadata of snapshots before they are resolved, may be null if the
+     *                        url creation strategy does not read snapshot metadata
+     */
+    public PingingRepositoryEnquirer(final Repository repository, final PathResolutionStrategy urlCreationStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger, final Executor executor, final ChecksumFetcher checksumFetcher, final SnapshotMetadataFetcher metadataFetcher) {
         this.repository = repository;
         this.dependencyURLCreationStrategy = urlCreationStrategy;
         this.checksumURLCreationStrategy = checksumURLCreationStrategy;
         this.pomURLCreationStrategy = pomURLCreationStrategy;
         this.urlPinger = urlPinger;
+        this.executor = executor;
+        this.checksumFetcher = checksumFetcher;
+        this.metadataFetcher = metadataFetcher;
     }
 
     @Override
     public ResolutionResult enquire(final Dependency dependency) {
         LOGGER.debug("Enquiring repositories to find %s", dependency.artifactId());
+        if (metadataFetcher != null) {
+            metadataFetcher.refresh(repository, dependency);
+        }
 
         return dependencyURLCreationStrategy.pathTo(repository, dependency)
                 .stream()
                 .map(this::createURL)
                 .filter(urlPinger::ping)
                 .findFirst()
-                .map(url -> {
-                     final URL resolvedChecksum = checksumURLCreationStrategy.pathTo(repository, dependency)
-                            .parallelStream()
-                            .map(this::createURL)
-                            .filter(urlPinger::ping)
-                            .findFirst()
-                            .orElse(null);
-                    if(resolvedChecksum == null) {
-                        try {
-                            final URL url1 = dependencyURLCreationStrategy.pathTo(repository, dependency)
-                                    .parallelStream()
-                                    .map(this::createURL)
-                                    .filter(urlPinger::ping)
-                                    .findFirst()
-                                    .orElse(null);
-                            if(url1 != null) {
-                                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                                InputStream is = url1.openStream();
-                                byte[] byteChunk = new byte[4096]; // Or whatever size you want to read in at a time.
-                                int n;
-                                while ( (n = is.read(byteChunk)) > 0 ) {
-                                    outputStream.write(byteChunk, 0, n);
-                                }
-                                byte[] hash = MessageDigest.getInstance("SHA-256").digest(outputStream.toByteArray());
-                                String checksum = new BigInteger(1, hash).toString(16);
-                                return new ResolutionResult(repository, url, checksum, false, true);
-                            }
-                        } catch (NoSuchAlgorithmException | IOException ex) {
-                            ex.printStackTrace();
-                        }
-                    }
-                    return new ResolutionResult(repository, url, resolvedChecksum, false, true);
-                }).orElseGet(() -> pomURLCreationStrategy.pathTo(repository, dependency).parallelStream()
-                        .map(this::createURL)
-                        .filter(urlPinger::ping)
-                        .findFirst()
-                        .map(url -> new ResolutionResult(repository, null, (URL) null, true, false))
-                        .orElse(null)
+                // Without a published checksum the artifact is only transferred once, by the downloader
+                .map(url -> new ResolutionResult(repository, url, firstReachable(checksumURLCreationStrategy.pathTo(repository, dependency)), checksumFetcher, false, true))
+                .orElseGet(() -> firstReachable(pomURLCreationStrategy.pathTo(repository, dependency)) == null
+                        ? null
+                        : new ResolutionResult(repository, null, (URL) null, true, false)
                 );
     }
 
+    @Override
+    public List<ResolutionCandidate> candidates(final Dependency dependency) {
+        final List<URL> checksumURLs = new ArrayList<>();
+        for (final String path : checksumURLCreationStrategy.pathTo(repository, dependency)) {
+            final URL url = createURL(path);
+            if (url != null) checksumURLs.add(url);
+        }
+        final List<ResolutionCandidate> candidates = new ArrayList<>();
+        for (final String path : dependencyURLCreationStrategy.pathTo(repository, dependency)) {
+            final URL url = createURL(path);
+            if (url != null) candidates.add(new ResolutionCandidate(repository, url, checksumURLs));
+        }
+        return candidates;
+    }
+
     @Override
     public String toString() {
         return repository.url().toString();
     }
 
+    private URL firstReachable(final Collection<String> paths) {
+        return Threads.firstNonNull(paths, path -> {
+            final URL url = createURL(path);
+            return url != null && urlPinger.ping(url) ? url : null;
+        }, executor);
+    }
+
     private URL createURL(final String path) {
         try {
             return new URL(path);
@@ -24,21 +24,52 @@
 
 package io.github.slimjar.resolver.enquirer;
 
+import io.github.slimjar.resolver.ChecksumFetcher;
+import io.github.slimjar.resolver.SnapshotMetadataFetcher;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.pinger.URLPinger;
 import io.github.slimjar.resolver.strategy.PathResolutionStrategy;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 public final class PingingRepositoryEnquirerFactory implements RepositoryEnquirerFactory {
     private final PathResolutionStrategy pathResolutionStrategy;
     private final PathResolutionStrategy checksumURLCreationStrategy;
     private final PathResolutionStrategy pomURLCreationStrategy;
     private final URLPinger urlPinger;
+    private final Executor executor;
+    private final ChecksumFetcher checksumFetcher;
+    private final SnapshotMetadataFetcher metadataFetcher;
 
     public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger) {
+        this(pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, ForkJoinPool.commonPool());
+    }
+
+    public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger, final Executor executor) {
+        this(pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, executor, ChecksumFetcher.direct());
+    }
+
+    /**
+     * @param checksumFetcher Fetcher shared by all created enquirers for the checksums of resolved dependencies
+     */
+    public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger, final Executor executor, final ChecksumFetcher checksumFetcher) {
+        this(pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, executor, checksumFetcher, null);
+    }
+
+    /**
+     * @param checksumFetcher Fetcher shared by all created enquirers for the checksums of resolved dependencies
+     * @param metadataFetcher Fetcher shared by all created enquirers for the metadata of snapshots, may be null if the
+     *                        path resolution strategy does not read snapshot metadata
+     */
+    public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger, final Executor executor, final ChecksumFetcher checksumFetcher, final SnapshotMetadataFetcher metadataFetcher) {
         this.pathResolutionStrategy = pathResolutionStrategy;
         this.checksumURLCreationStrategy = checksumURLCreationStrategy;
         this.pomURLCreationStrategy = pomURLCreationStrategy;
         this.urlPinger = urlPinger;
+        this.executor = executor;
+        this.checksumFetcher = checksumFetcher;
+        this.metadataFetcher = metadataFetcher;
     }
 
     public PathResolutionStrategy getPathResolutionStrategy() {
@@ -55,6 +86,6 @@ public final class PingingRepositoryEnquirerFactory implements RepositoryEnquire
 
     @Override
     public RepositoryEnquirer create(final Repository repository) {
-        return new PingingRepositoryEnquirer(repository, pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger);
+        return new PingingRepositoryEnquirer(repository, pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, executor, checksumFetcher, metadataFetcher);
     }
 }
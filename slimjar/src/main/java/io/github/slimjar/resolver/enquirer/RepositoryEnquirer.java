@@ -24,9 +24,22 @@
 
 package io.github.slimjar.resolver.enquirer;
 
+import io.github.slimjar.resolver.ResolutionCandidate;
 import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
 
+import java.util.Collections;
+import java.util.List;
+
 public interface RepositoryEnquirer {
     ResolutionResult enquire(final Dependency dependency);
+
+    /**
+     * Locations at which this repository would serve the dependency, computed without any network access.
+     * @param dependency dependency to locate
+     * @return candidate locations in the order they should be tried, empty if unknown
+     */
+    default List<ResolutionCandidate> candidates(final Dependency dependency) {
+        return Collections.emptyList();
+    }
 }
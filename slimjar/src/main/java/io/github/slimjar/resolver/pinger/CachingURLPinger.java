@@ -0,0 +1,71 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.pinger;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.cache.PersistentNegativeCache;
+
+import java.net.URL;
+
+/**
+ * Remembers urls that were definitively missing, so probing a path a repository already answered with 404 or 410
+ * is skipped until the miss expires. Failures with an unknown outcome are never remembered.
+ */
+public final class CachingURLPinger implements URLPinger {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final URLPinger delegate;
+    private final PersistentNegativeCache negativeCache;
+
+    public CachingURLPinger(final URLPinger delegate, final PersistentNegativeCache negativeCache) {
+        this.delegate = delegate;
+        this.negativeCache = negativeCache;
+    }
+
+    @Override
+    public boolean ping(final URL url) {
+        return check(url) == PingResult.FOUND;
+    }
+
+    @Override
+    public PingResult check(final URL url) {
+        // External form keeps the key free of the DNS lookups URL#equals and URL#hashCode may trigger
+        final String key = url.toExternalForm();
+        if (negativeCache.contains(key)) {
+            LOGGER.debug("Skipping known miss %s", key);
+            return PingResult.MISSING;
+        }
+        final PingResult result = delegate.check(url);
+        if (result == PingResult.MISSING) {
+            negativeCache.add(key);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isSupported(final URL url) {
+        return delegate.isSupported(url);
+    }
+}
@@ -24,49 +24,43 @@
 
 package io.github.slimjar.resolver.pinger;
 
-import io.github.slimjar.logging.LogDispatcher;
-import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.transport.URLConnectionTransport;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Locale;
 
+/**
+ * {@link TransportURLPinger} over plain {@link java.net.URLConnection}s opened on the calling thread, for callers
+ * that do not share an {@link io.github.slimjar.transport.HttpTransport} with the rest of the application.
+ */
 public final class HttpURLPinger implements URLPinger {
-    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
-    private static final String SLIMJAR_USER_AGENT = "SlimjarApplication/* URL Validation Ping";
-    private static final Collection<String> SUPPORTED_PROTOCOLS = Arrays.asList("HTTP", "HTTPS");
+    private static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+    private final TransportURLPinger delegate;
+
+    public HttpURLPinger() {
+        this(DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param connectTimeoutMillis Timeout in milliseconds for establishing a connection, 0 waits indefinitely
+     * @param readTimeoutMillis Timeout in milliseconds for waiting on the response, 0 waits indefinitely
+     */
+    public HttpURLPinger(final int connectTimeoutMillis, final int readTimeoutMillis) {
+        this.delegate = new TransportURLPinger(new URLConnectionTransport(Runnable::run, connectTimeoutMillis, readTimeoutMillis));
+    }
 
     @Override
     public boolean ping(final URL url) {
-        final String urlStr = url.toString();
-        LOGGER.debug("Pinging %s", urlStr);
-        if (!isSupported(url)) {
-            LOGGER.debug("Protocol not supported for %s", url.toString());
-            return false;
-        }
-        HttpURLConnection connection = null;
-        try {
-            connection = (HttpURLConnection) url.openConnection();
-            connection.addRequestProperty("User-Agent", SLIMJAR_USER_AGENT);
-            connection.connect();
-            final boolean result = connection.getResponseCode() == HttpURLConnection.HTTP_OK;
-            LOGGER.debug("Ping %s for %s", result ? "successful" : "failed", url.toString());
-            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
-        } catch (IOException e) {
-            LOGGER.debug("Ping failed for %s", url.toString());
-            return false;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+        return delegate.ping(url);
     }
 
+    @Override
+    public PingResult check(final URL url) {
+        return delegate.check(url);
+    }
+
+    @Override
     public boolean isSupported(final URL url) {
-        final String protocol = url.getProtocol().toUpperCase(Locale.ENGLISH);
-        return SUPPORTED_PROTOCOLS.contains(protocol);
+        return delegate.isSupported(url);
     }
 }
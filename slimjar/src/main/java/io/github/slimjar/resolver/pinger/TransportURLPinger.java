@@ -0,0 +1,94 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.pinger;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * {@link URLPinger} that probes with HEAD requests over a shared {@link HttpTransport}, so pings reuse pooled
+ * (and on HTTP/2 multiplexed) connections. Servers that reject HEAD are probed again with GET.
+ */
+public final class TransportURLPinger implements URLPinger {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final Collection<String> SUPPORTED_PROTOCOLS = Arrays.asList("HTTP", "HTTPS");
+    private final HttpTransport transport;
+
+    public TransportURLPinger(final HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public boolean ping(final URL url) {
+        return check(url) == PingResult.FOUND;
+    }
+
+    @Override
+    public PingResult check(final URL url) {
+        LOGGER.debug("Pinging %s", url);
+        if (!isSupported(url)) {
+            LOGGER.debug("Protocol not supported for %s", url);
+            return PingResult.UNAVAILABLE;
+        }
+        try {
+            int statusCode = statusOf(TransportRequest.head(url));
+            if (statusCode == HttpURLConnection.HTTP_BAD_METHOD || statusCode == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+                LOGGER.debug("HEAD not supported for %s, retrying with GET", url);
+                statusCode = statusOf(TransportRequest.get(url).withKind(TransportRequest.Kind.PING));
+            }
+            final boolean result = statusCode == HttpURLConnection.HTTP_OK;
+            LOGGER.debug("Ping %s for %s", result ? "successful" : "failed", url);
+            if (result) return PingResult.FOUND;
+            return statusCode == HttpURLConnection.HTTP_NOT_FOUND || statusCode == HttpURLConnection.HTTP_GONE
+                    ? PingResult.MISSING
+                    : PingResult.UNAVAILABLE;
+        } catch (final IOException exception) {
+            LOGGER.debug("Ping failed for %s", url);
+            return PingResult.UNREACHABLE;
+        }
+    }
+
+    @Override
+    public boolean isSupported(final URL url) {
+        final String protocol = url.getProtocol().toUpperCase(Locale.ENGLISH);
+        return SUPPORTED_PROTOCOLS.contains(protocol);
+    }
+
+    private int statusOf(final TransportRequest request) throws IOException {
+        try (final TransportResponse response = transport.send(request.withHeader("User-Agent", TransportRequest.PING_USER_AGENT))) {
+            return response.statusCode();
+        }
+    }
+}
@@ -29,4 +29,13 @@ import java.net.URL;
 public interface URLPinger {
     boolean ping(final URL url);
     boolean isSupported(final URL url);
+
+    /**
+     * Like {@link #ping(URL)}, but tells a definitive miss apart from a failure whose outcome is unknown.
+     * @param url url to ping
+     * @return result of the ping
+     */
+    default PingResult check(final URL url) {
+        return ping(url) ? PingResult.FOUND : PingResult.UNAVAILABLE;
+    }
 }
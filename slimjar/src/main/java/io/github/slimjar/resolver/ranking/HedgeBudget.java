@@ -0,0 +1,82 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.ranking;
+
+/**
+ * Global cap on hedge traffic. A hedge is a duplicate request sent to another repository while the first one is
+ * still pending, so hedges are only allowed up to a fraction of the primary requests (plus a small allowance for
+ * short runs) and only a limited number of them may be in flight at the same time.
+ */
+public final class HedgeBudget {
+    public static final double DEFAULT_HEDGE_RATIO = 0.1;
+    public static final int DEFAULT_MAX_CONCURRENT_HEDGES = 4;
+    private static final int HEDGE_ALLOWANCE = 2;
+    private final double hedgeRatio;
+    private final int maxConcurrentHedges;
+    private long requests;
+    private long hedges;
+    private int activeHedges;
+
+    public HedgeBudget() {
+        this(DEFAULT_HEDGE_RATIO, DEFAULT_MAX_CONCURRENT_HEDGES);
+    }
+
+    /**
+     * @param hedgeRatio Maximum number of hedges per primary request, 0 disables hedging
+     * @param maxConcurrentHedges Maximum number of hedges in flight at once
+     */
+    public HedgeBudget(final double hedgeRatio, final int maxConcurrentHedges) {
+        if (hedgeRatio < 0) throw new IllegalArgumentException("hedgeRatio must not be negative");
+        if (maxConcurrentHedges < 0) throw new IllegalArgumentException("maxConcurrentHedges must not be negative");
+        this.hedgeRatio = hedgeRatio;
+        this.maxConcurrentHedges = maxConcurrentHedges;
+    }
+
+    /**
+     * Counts a primary request, every primary request earns a share of a hedge.
+     */
+    public synchronized void recordRequest() {
+        requests++;
+    }
+
+    /**
+     * Takes a hedge out of the budget. Every successful call must be paired with {@link #release()}.
+     * @return true if a hedge may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (hedgeRatio == 0 || activeHedges >= maxConcurrentHedges) return false;
+        if (hedges >= (long) (requests * hedgeRatio) + HEDGE_ALLOWANCE) return false;
+        hedges++;
+        activeHedges++;
+        return true;
+    }
+
+    /**
+     * Marks a hedge acquired through {@link #tryAcquire()} as finished.
+     */
+    public synchronized void release() {
+        if (activeHedges > 0) activeHedges--;
+    }
+}
@@ -0,0 +1,211 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.ranking;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.util.AtomicFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps success rate and recent latencies per repository and orders repositories by their expected time to
+ * successfully serve an artifact. Repositories without history come first so they get measured.
+ * The statistics are stored in a file so the ranking carries over between runs.
+ */
+public final class RepositoryRanker {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final String HEADER = "# slimjar repository ranking v1";
+    private static final long MIN_HEDGE_DELAY_MILLIS = 50;
+    private static final long MAX_HEDGE_DELAY_MILLIS = 2000;
+    public static final long DEFAULT_HEDGE_DELAY_MILLIS = 200;
+    private final Path path;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private RepositoryRanker(final Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Loads the ranking stored at <code>path</code>. A missing or unreadable file results in an empty ranking.
+     * @param path ranking file
+     * @return the loaded ranking
+     */
+    public static RepositoryRanker load(final Path path) {
+        final RepositoryRanker ranker = new RepositoryRanker(path);
+        if (!Files.isRegularFile(path)) {
+            return ranker;
+        }
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return ranker;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] parts = line.split("\t", -1);
+                if (parts.length != 4) continue;
+                final Stats repositoryStats = new Stats();
+                repositoryStats.successes = Integer.parseInt(parts[1]);
+                repositoryStats.failures = Integer.parseInt(parts[2]);
+                if (!parts[3].isEmpty()) {
+                    for (final String latency : parts[3].split(",")) {
+                        repositoryStats.addLatency(Long.parseLong(latency));
+                    }
+                }
+                ranker.stats.put(parts[0], repositoryStats);
+            }
+        } catch (final IOException | RuntimeException exception) {
+            LOGGER.debug("Could not read repository ranking %s: %s", path, exception);
+            ranker.stats.clear();
+        }
+        return ranker;
+    }
+
+    /**
+     * Records the outcome of a single enquiry.
+     * @param repository key of the repository, usually its url
+     * @param success whether the repository served the artifact
+     * @param latencyNanos time the enquiry took
+     */
+    public void record(final String repository, final boolean success, final long latencyNanos) {
+        stats.computeIfAbsent(repository, key -> new Stats()).record(success, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+        dirty = true;
+    }
+
+    /**
+     * Orders the given repositories from most to least promising. Repositories that rank equally keep their order.
+     * @param repositories repositories to order
+     * @param keyFunction maps a repository to the key it is recorded under
+     * @return ordered copy of <code>repositories</code>
+     */
+    public <T> List<T> rank(final Iterable<T> repositories, final Function<T, String> keyFunction) {
+        final List<T> ranked = new ArrayList<>();
+        repositories.forEach(ranked::add);
+        ranked.sort(Comparator.comparingDouble(repository -> expectedCost(keyFunction.apply(repository))));
+        return ranked;
+    }
+
+    /**
+     * Time to wait for a repository before also asking the next one: its 95th latency percentile, within sane bounds.
+     * @param repository key of the repository
+     * @return delay in milliseconds
+     */
+    public long hedgeDelayMillis(final String repository) {
+        final Stats repositoryStats = stats.get(repository);
+        final long p95 = repositoryStats == null ? -1 : repositoryStats.percentile(0.95);
+        if (p95 < 0) return DEFAULT_HEDGE_DELAY_MILLIS;
+        return Math.max(MIN_HEDGE_DELAY_MILLIS, Math.min(MAX_HEDGE_DELAY_MILLIS, p95));
+    }
+
+    /**
+     * Atomically replaces the ranking file if anything was recorded since it was loaded.
+     */
+    public void save() throws IOException {
+        if (!dirty) return;
+        dirty = false;
+        final List<String> lines = new ArrayList<>(stats.size() + 1);
+        lines.add(HEADER);
+        for (final Map.Entry<String, Stats> entry : stats.entrySet()) {
+            lines.add(entry.getKey() + "\t" + entry.getValue().serialize());
+        }
+        AtomicFiles.writeLines(path, lines);
+    }
+
+    private double expectedCost(final String repository) {
+        final Stats repositoryStats = stats.get(repository);
+        if (repositoryStats == null) return 0;
+        return repositoryStats.expectedCost();
+    }
+
+    private static final class Stats {
+        // Older outcomes are halved away once this many are recorded, so the ranking follows changes over time
+        private static final int MAX_OUTCOMES = 100;
+        private static final int LATENCY_SAMPLES = 32;
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int latencyCount;
+        private int latencyIndex;
+        private int successes;
+        private int failures;
+
+        private synchronized void record(final boolean success, final long latencyMillis) {
+            if (success) {
+                successes++;
+            } else {
+                failures++;
+            }
+            if (successes + failures > MAX_OUTCOMES) {
+                successes /= 2;
+                failures /= 2;
+            }
+            addLatency(latencyMillis);
+        }
+
+        private synchronized void addLatency(final long latencyMillis) {
+            latencies[latencyIndex] = latencyMillis;
+            latencyIndex = (latencyIndex + 1) % LATENCY_SAMPLES;
+            latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+        }
+
+        private synchronized long percentile(final double percentile) {
+            if (latencyCount == 0) return -1;
+            final long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(latencyCount - 1, Math.floor(percentile * latencyCount))];
+        }
+
+        /**
+         * Median latency divided by the smoothed success rate, roughly the time it takes to get an artifact.
+         */
+        private synchronized double expectedCost() {
+            final double successRate = (successes + 1.0) / (successes + failures + 2.0);
+            return Math.max(1, percentile(0.5)) / successRate;
+        }
+
+        private synchronized String serialize() {
+            final StringBuilder builder = new StringBuilder();
+            builder.append(successes).append('\t').append(failures).append('\t');
+            // Oldest sample first so loading replays them in the same order
+            for (int i = 0; i < latencyCount; i++) {
+                final int index = (latencyIndex - latencyCount + i + LATENCY_SAMPLES) % LATENCY_SAMPLES;
+                if (i > 0) builder.append(',');
+                builder.append(latencies[index]);
+            }
+            return builder.toString();
+        }
+    }
+}
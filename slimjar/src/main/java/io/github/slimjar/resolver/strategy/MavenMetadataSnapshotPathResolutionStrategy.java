@@ -0,0 +1,100 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.strategy;
+
+import io.github.slimjar.resolver.cache.PersistentSnapshotMetadataCache;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.util.Repositories;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Resolves snapshot artifacts through the <code>maven-metadata.xml</code> of their version directory instead of
+ * guessing layouts. The metadata names the exact timestamped file. It is only read from the cache here, paths are
+ * computed without any network access; the enquirer fetches the metadata before it resolves a snapshot (see
+ * {@link io.github.slimjar.resolver.SnapshotMetadataFetcher}).
+ * Snapshots without fresh metadata, snapshots pinned to a build that the metadata no longer lists, repositories without
+ * metadata and releases are left to the fallback strategy.
+ */
+public final class MavenMetadataSnapshotPathResolutionStrategy implements PathResolutionStrategy {
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+    private static final String METADATA_FORMAT = "%s%s/%s/%s/maven-metadata.xml";
+    private static final String PATH_FORMAT = "%s%s/%s/%s/%3$s-%s.jar";
+    private final PathResolutionStrategy fallbackStrategy;
+    private final PersistentSnapshotMetadataCache metadataCache;
+
+    /**
+     * @param fallbackStrategy Strategy for releases and snapshots the metadata cannot place
+     * @param metadataCache Cache the metadata is read from
+     */
+    public MavenMetadataSnapshotPathResolutionStrategy(final PathResolutionStrategy fallbackStrategy, final PersistentSnapshotMetadataCache metadataCache) {
+        this.fallbackStrategy = fallbackStrategy;
+        this.metadataCache = metadataCache;
+    }
+
+    @Override
+    public Collection<String> pathTo(final Repository repository, final Dependency dependency) {
+        final String location = metadataLocation(repository, dependency);
+        final SnapshotMetadata metadata = location == null ? null : metadataCache.get(location);
+        if (metadata == null) {
+            return fallbackStrategy.pathTo(repository, dependency);
+        }
+        final String baseVersion = baseVersion(dependency);
+        final String value;
+        if (dependency.snapshotId() == null) {
+            value = metadata.isLocalCopy() ? baseVersion + SNAPSHOT_SUFFIX : metadata.latestJarValue(baseVersion);
+        } else {
+            value = baseVersion + "-" + dependency.snapshotId();
+            if (!metadata.getJarValues().contains(value) && !value.equals(metadata.latestJarValue(baseVersion))) {
+                return fallbackStrategy.pathTo(repository, dependency);
+            }
+        }
+        if (value == null) {
+            return fallbackStrategy.pathTo(repository, dependency);
+        }
+        final String repoUrl = Repositories.fetchFormattedUrl(repository);
+        final String groupPath = dependency.groupId().replace('.', '/');
+        return Collections.singleton(String.format(PATH_FORMAT, repoUrl, groupPath, dependency.artifactId(), baseVersion + SNAPSHOT_SUFFIX, value));
+    }
+
+    /**
+     * @return location of the metadata that places <code>dependency</code> in <code>repository</code>, or null if it
+     *         is not a snapshot
+     */
+    public static String metadataLocation(final Repository repository, final Dependency dependency) {
+        if (dependency.snapshotId() == null && !dependency.version().endsWith(SNAPSHOT_SUFFIX)) {
+            return null;
+        }
+        final String repoUrl = Repositories.fetchFormattedUrl(repository);
+        final String groupPath = dependency.groupId().replace('.', '/');
+        return String.format(METADATA_FORMAT, repoUrl, groupPath, dependency.artifactId(), baseVersion(dependency) + SNAPSHOT_SUFFIX);
+    }
+
+    private static String baseVersion(final Dependency dependency) {
+        return dependency.version().replace(SNAPSHOT_SUFFIX, "");
+    }
+}
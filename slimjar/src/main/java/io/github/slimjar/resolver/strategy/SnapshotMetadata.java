@@ -0,0 +1,152 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.strategy;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The parts of a snapshot version's <code>maven-metadata.xml</code> that locate its jar.
+ */
+public final class SnapshotMetadata {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final Set<String> jarValues;
+    private final String timestamp;
+    private final String buildNumber;
+    private final boolean localCopy;
+
+    /**
+     * @param jarValues Versions of the jars without classifier listed in <code>snapshotVersions</code>
+     * @param timestamp Timestamp of the latest snapshot, may be null
+     * @param buildNumber Build number of the latest snapshot, may be null
+     * @param localCopy Whether the snapshot is deployed without a timestamp
+     */
+    public SnapshotMetadata(final Set<String> jarValues, final String timestamp, final String buildNumber, final boolean localCopy) {
+        this.jarValues = Collections.unmodifiableSet(new LinkedHashSet<>(jarValues));
+        this.timestamp = timestamp;
+        this.buildNumber = buildNumber;
+        this.localCopy = localCopy;
+    }
+
+    public Set<String> getJarValues() {
+        return jarValues;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getBuildNumber() {
+        return buildNumber;
+    }
+
+    public boolean isLocalCopy() {
+        return localCopy;
+    }
+
+    /**
+     * @return version of the latest jar, such as <code>1.0-20210101.123456-3</code>, or null if unknown
+     */
+    public String latestJarValue(final String baseVersion) {
+        if (jarValues.size() == 1) {
+            return jarValues.iterator().next();
+        }
+        if (timestamp != null && buildNumber != null) {
+            return baseVersion + "-" + timestamp + "-" + buildNumber;
+        }
+        return null;
+    }
+
+    public static SnapshotMetadata parse(final InputStream inputStream) throws IOException {
+        final Document document;
+        try {
+            document = newDocumentBuilder().parse(inputStream);
+        } catch (final ParserConfigurationException | SAXException exception) {
+            throw new IOException("Malformed metadata", exception);
+        }
+        final Set<String> jarValues = new HashSet<>();
+        final NodeList snapshotVersions = document.getElementsByTagName("snapshotVersion");
+        for (int i = 0; i < snapshotVersions.getLength(); i++) {
+            final Element snapshotVersion = (Element) snapshotVersions.item(i);
+            final String classifier = text(snapshotVersion, "classifier");
+            if ("jar".equals(text(snapshotVersion, "extension")) && (classifier == null || classifier.isEmpty())) {
+                final String value = text(snapshotVersion, "value");
+                if (value != null) jarValues.add(value);
+            }
+        }
+        final NodeList snapshots = document.getElementsByTagName("snapshot");
+        final Element snapshot = snapshots.getLength() == 0 ? null : (Element) snapshots.item(0);
+        return new SnapshotMetadata(
+                jarValues,
+                snapshot == null ? null : text(snapshot, "timestamp"),
+                snapshot == null ? null : text(snapshot, "buildNumber"),
+                snapshot != null && "true".equals(text(snapshot, "localCopy"))
+        );
+    }
+
+    private static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setExpandEntityReferences(false);
+        // Metadata never needs a doctype, refusing it rules out external entities
+        trySetFeature(factory, XMLConstants.FEATURE_SECURE_PROCESSING);
+        trySetFeature(factory, "http://apache.org/xml/features/disallow-doctype-decl");
+        return factory.newDocumentBuilder();
+    }
+
+    private static void trySetFeature(final DocumentBuilderFactory factory, final String feature) {
+        try {
+            factory.setFeature(feature, true);
+        } catch (final ParserConfigurationException exception) {
+            LOGGER.debug("XML parser does not support %s", feature);
+        }
+    }
+
+    private static String text(final Element parent, final String tag) {
+        final NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE && tag.equals(child.getNodeName())) {
+                return child.getTextContent().trim();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,117 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Concurrency limit of one host that adapts to the host's behaviour (AIMD). Every request that completes without
+ * the host signalling overload raises the limit by <code>1 / limit</code>, so the limit grows by about one per round
+ * of requests. A signal of overload halves it.
+ */
+public final class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+
+    /**
+     * @param initialLimit Requests allowed in flight at first
+     * @param maxLimit Upper bound of the limit
+     */
+    public AdaptiveConcurrencyLimit(final int initialLimit, final int maxLimit) {
+        if (initialLimit < 1 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Requires 1 <= initialLimit <= maxLimit");
+        }
+        this.minLimit = 1;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @return future completed once a request may be sent, every completed permit must be given back with
+     * {@link #release(boolean)}
+     */
+    public CompletableFuture<Void> acquire() {
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            final CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    /**
+     * @param overloaded true if the host signalled overload, for example with 429 Too Many Requests
+     */
+    public void release(final boolean overloaded) {
+        synchronized (this) {
+            inFlight--;
+            limit = overloaded ? Math.max(minLimit, limit / 2) : Math.min(maxLimit, limit + 1 / limit);
+        }
+        grantWaiters();
+    }
+
+    /**
+     * Gives back a permit without adjusting the limit, for requests that say nothing about the host's load.
+     */
+    public void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        grantWaiters();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void grantWaiters() {
+        while (true) {
+            final CompletableFuture<Void> waiter;
+            synchronized (this) {
+                if (inFlight >= (int) limit || waiters.isEmpty()) return;
+                waiter = waiters.poll();
+                inFlight++;
+            }
+            // Completed outside the lock as it runs the waiting request; cancelled waiters hand their permit on
+            if (!waiter.complete(null)) {
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeouts for each {@link TransportRequest.Kind} of request. In adaptive mode the time to wait for response headers
+ * is derived from the latency observed per host, the way TCP derives its retransmission timeout: the smoothed latency
+ * plus four times its mean deviation, doubled after every timeout and kept between a floor and the configured ceiling.
+ * Hosts without observations get the ceiling. Reading a body may stall for at most the ceiling of its kind.
+ */
+public final class AdaptiveTimeouts {
+    public static final long DEFAULT_PING_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    public static final long DEFAULT_METADATA_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    public static final long DEFAULT_ARTIFACT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long PING_FLOOR_MILLIS = 1000;
+    private static final long METADATA_FLOOR_MILLIS = 2000;
+    private static final long ARTIFACT_FLOOR_MILLIS = 5000;
+    private final Map<TransportRequest.Kind, Long> floors = new EnumMap<>(TransportRequest.Kind.class);
+    private final Map<TransportRequest.Kind, Long> ceilings = new EnumMap<>(TransportRequest.Kind.class);
+    private final boolean adaptive;
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    public AdaptiveTimeouts() {
+        this(DEFAULT_PING_TIMEOUT_MILLIS, DEFAULT_METADATA_TIMEOUT_MILLIS, DEFAULT_ARTIFACT_TIMEOUT_MILLIS, true);
+    }
+
+    /**
+     * @param pingTimeoutMillis Longest wait in milliseconds for the answer to a ping
+     * @param metadataTimeoutMillis Longest wait in milliseconds for checksums and metadata, per read
+     * @param artifactTimeoutMillis Longest wait in milliseconds for an artifact's headers, and for each read of its body
+     * @param adaptive true to wait less on hosts known to answer quickly, false to always wait the full timeout
+     */
+    public AdaptiveTimeouts(final long pingTimeoutMillis, final long metadataTimeoutMillis, final long artifactTimeoutMillis, final boolean adaptive) {
+        this.adaptive = adaptive;
+        ceilings.put(TransportRequest.Kind.PING, pingTimeoutMillis);
+        ceilings.put(TransportRequest.Kind.METADATA, metadataTimeoutMillis);
+        ceilings.put(TransportRequest.Kind.ARTIFACT, artifactTimeoutMillis);
+        floors.put(TransportRequest.Kind.PING, Math.min(PING_FLOOR_MILLIS, pingTimeoutMillis));
+        floors.put(TransportRequest.Kind.METADATA, Math.min(METADATA_FLOOR_MILLIS, metadataTimeoutMillis));
+        floors.put(TransportRequest.Kind.ARTIFACT, Math.min(ARTIFACT_FLOOR_MILLIS, artifactTimeoutMillis));
+    }
+
+    /**
+     * @return time in milliseconds to wait for the response headers of a request of the given kind to the url's host
+     */
+    public int timeoutMillis(final URL url, final TransportRequest.Kind kind) {
+        final long ceiling = ceilings.get(kind);
+        final Estimate estimate = adaptive ? estimates.get(hostOf(url)) : null;
+        if (estimate == null) {
+            return (int) ceiling;
+        }
+        return (int) Math.max(floors.get(kind), Math.min(ceiling, estimate.timeoutMillis()));
+    }
+
+    /**
+     * @return time in milliseconds a body of the given kind may go without delivering any bytes
+     */
+    public int stallTimeoutMillis(final TransportRequest.Kind kind) {
+        return (int) (long) ceilings.get(kind);
+    }
+
+    /**
+     * @return longest time in milliseconds a request of the given kind is waited for
+     */
+    public int maxTimeoutMillis(final TransportRequest.Kind kind) {
+        return (int) (long) ceilings.get(kind);
+    }
+
+    /**
+     * @param latencyMillis time the host took to answer with the response headers
+     */
+    public void record(final URL url, final long latencyMillis) {
+        estimates.computeIfAbsent(hostOf(url), host -> new Estimate()).record(latencyMillis);
+    }
+
+    /**
+     * Backs off after the host did not answer in time, so a host that slowed down is not timed out repeatedly.
+     */
+    public void recordTimeout(final URL url) {
+        final Estimate estimate = estimates.get(hostOf(url));
+        if (estimate != null) {
+            estimate.backOff();
+        }
+    }
+
+    private static String hostOf(final URL url) {
+        return url.getProtocol() + "://" + url.getAuthority();
+    }
+
+    private static final class Estimate {
+        private double smoothedMillis = -1;
+        private double deviationMillis;
+
+        private synchronized void record(final long latencyMillis) {
+            if (smoothedMillis < 0) {
+                smoothedMillis = latencyMillis;
+                deviationMillis = latencyMillis / 2.0;
+                return;
+            }
+            deviationMillis = 0.75 * deviationMillis + 0.25 * Math.abs(smoothedMillis - latencyMillis);
+            smoothedMillis = 0.875 * smoothedMillis + 0.125 * latencyMillis;
+        }
+
+        private synchronized void backOff() {
+            smoothedMillis *= 2;
+        }
+
+        private synchronized long timeoutMillis() {
+            return (long) Math.ceil(smoothedMillis + 4 * deviationMillis);
+        }
+    }
+}
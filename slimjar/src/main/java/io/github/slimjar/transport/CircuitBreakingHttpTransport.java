@@ -0,0 +1,85 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.breaker.CircuitBreaker;
+import io.github.slimjar.resolver.breaker.CircuitBreakers;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link HttpTransport} that sends every request through the {@link CircuitBreaker} of its host, so pings, checksums,
+ * metadata and downloads all count towards the same breaker and all skip a host that stopped answering.
+ * Requests to an open breaker fail right away with a {@link ConnectException} instead of waiting for the connection to
+ * time out. Any response counts as an answer, whatever its status, only failed or timed out requests count as failures.
+ */
+public final class CircuitBreakingHttpTransport implements HttpTransport {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final HttpTransport delegate;
+    private final CircuitBreakers circuitBreakers;
+
+    public CircuitBreakingHttpTransport(final HttpTransport delegate, final CircuitBreakers circuitBreakers) {
+        this.delegate = delegate;
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(final TransportRequest request) {
+        final CircuitBreaker circuitBreaker = circuitBreakers.forHost(request.getUrl());
+        if (!circuitBreaker.tryAcquire()) {
+            LOGGER.debug("Skipping %s, its host is unreachable", request);
+            final CompletableFuture<TransportResponse> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new ConnectException("Skipped " + request.getUrl() + ", its host is unreachable"));
+            return rejected;
+        }
+        final CompletableFuture<TransportResponse> response;
+        try {
+            response = delegate.sendAsync(request);
+        } catch (final RuntimeException exception) {
+            circuitBreaker.recordAbandoned();
+            throw exception;
+        }
+        response.whenComplete((ignored, throwable) -> {
+            if (throwable == null) {
+                circuitBreaker.recordSuccess();
+            } else if (unwrap(throwable) instanceof IOException) {
+                circuitBreaker.recordFailure();
+            } else {
+                // Cancelled by the caller, which says nothing about the host
+                circuitBreaker.recordAbandoned();
+            }
+        });
+        return response;
+    }
+
+    private static Throwable unwrap(final Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+}
@@ -0,0 +1,260 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.util.Threads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link HttpTransport} that limits the requests in flight to each host with an {@link AdaptiveConcurrencyLimit}.
+ * Responses with 429 Too Many Requests or 503 Service Unavailable shrink the host's limit and are retried after the
+ * delay requested by <code>Retry-After</code>, or after an exponential backoff with full jitter if the header is
+ * missing, so many applications booting at once spread out instead of hammering a repository in lockstep.
+ * A retry that would have to wait longer than the maximum backoff is not attempted and the response is returned as is.
+ * A request holds its place in the limit until its response is closed, as its body is still being transferred until
+ * then, and fails with a {@link SocketTimeoutException} if it waited for a place longer than the timeout of its kind.
+ * {@link TransportRequest#isFollowUp() Follow-up} requests are sent without a place of their own, the response they
+ * are made for holds one and is only closed once they completed.
+ */
+public final class LimitingHttpTransport implements HttpTransport {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    public static final int DEFAULT_INITIAL_LIMIT = 8;
+    public static final int DEFAULT_MAX_LIMIT = 64;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long BASE_BACKOFF_MILLIS = 250;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(Threads.daemonFactory("slimjar-retry"));
+    private final HttpTransport delegate;
+    private final int initialLimit;
+    private final int maxLimit;
+    private final int maxRetries;
+    private final AdaptiveTimeouts timeouts;
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public LimitingHttpTransport(final HttpTransport delegate) {
+        this(delegate, DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * @param initialLimit Requests allowed in flight to a host before its limit has adapted
+     * @param maxLimit Upper bound of the requests in flight to a host
+     * @param maxRetries Retries of a request answered with 429 or 503, 0 disables retries
+     */
+    public LimitingHttpTransport(final HttpTransport delegate, final int initialLimit, final int maxLimit, final int maxRetries) {
+        this(delegate, initialLimit, maxLimit, maxRetries, null);
+    }
+
+    /**
+     * @param initialLimit Requests allowed in flight to a host before its limit has adapted
+     * @param maxLimit Upper bound of the requests in flight to a host
+     * @param maxRetries Retries of a request answered with 429 or 503, 0 disables retries
+     * @param timeouts Timeouts bounding how long a request waits for its place, may be null to only bound requests
+     *                 that carry their own timeout
+     */
+    public LimitingHttpTransport(final HttpTransport delegate, final int initialLimit, final int maxLimit, final int maxRetries, final AdaptiveTimeouts timeouts) {
+        this.delegate = delegate;
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.maxRetries = maxRetries;
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(final TransportRequest request) {
+        final CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        attempt(request, 0, result);
+        return result;
+    }
+
+    public AdaptiveConcurrencyLimit limitOf(final URL url) {
+        final String host = url.getProtocol() + "://" + url.getAuthority();
+        return limits.computeIfAbsent(host, key -> new AdaptiveConcurrencyLimit(initialLimit, maxLimit));
+    }
+
+    private void attempt(final TransportRequest request, final int retries, final CompletableFuture<TransportResponse> result) {
+        final AdaptiveConcurrencyLimit limit = limitOf(request.getUrl());
+        final boolean permitted = !request.isFollowUp();
+        final CompletableFuture<Void> permit = permitted ? limit.acquire() : CompletableFuture.completedFuture(null);
+        // Waiting requests give up their place in the queue when the caller loses interest
+        result.whenComplete((response, throwable) -> permit.cancel(false));
+        final long queueTimeoutMillis = queueTimeoutMillis(request);
+        if (queueTimeoutMillis > 0 && !permit.isDone()) {
+            final ScheduledFuture<?> expiry = SCHEDULER.schedule(() -> {
+                if (permit.cancel(false)) {
+                    result.completeExceptionally(new SocketTimeoutException("Timed out after " + queueTimeoutMillis + " ms waiting to send " + request));
+                }
+            }, queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            permit.whenComplete((ignored, throwable) -> expiry.cancel(false));
+        }
+        permit.thenRun(() -> sendToDelegate(request).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                if (permitted) {
+                    limit.release();
+                }
+                result.completeExceptionally(throwable);
+                return;
+            }
+            final int statusCode = response.statusCode();
+            final boolean overloaded = statusCode == TOO_MANY_REQUESTS || statusCode == SERVICE_UNAVAILABLE;
+            final TransportResponse answer = permitted ? new PermittedResponse(response, limit, overloaded) : response;
+            if (overloaded && retries < maxRetries && !result.isDone()) {
+                final long delayMillis = retryDelayMillis(response, retries);
+                if (delayMillis <= MAX_BACKOFF_MILLIS) {
+                    LOGGER.debug("%s answered %s, retrying in %s ms (limit %s)", request, statusCode, delayMillis, limit.getLimit());
+                    closeQuietly(answer);
+                    SCHEDULER.schedule(() -> attempt(request, retries + 1, result), delayMillis, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            }
+            if (!result.complete(answer)) {
+                closeQuietly(answer);
+            }
+        }));
+    }
+
+    /**
+     * @return time in milliseconds the request may wait for its place in the limit, 0 to wait indefinitely
+     */
+    private long queueTimeoutMillis(final TransportRequest request) {
+        if (request.getTimeoutMillis() > 0) return request.getTimeoutMillis();
+        return timeouts == null ? 0 : timeouts.maxTimeoutMillis(request.getKind());
+    }
+
+    private CompletableFuture<TransportResponse> sendToDelegate(final TransportRequest request) {
+        try {
+            return delegate.sendAsync(request);
+        } catch (final RuntimeException exception) {
+            final CompletableFuture<TransportResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(exception);
+            return failed;
+        }
+    }
+
+    /**
+     * @return delay requested by the Retry-After header, or a jittered exponential backoff if there is none
+     */
+    static long retryDelayMillis(final TransportResponse response, final int retries) {
+        final long retryAfter = parseRetryAfter(response.header("Retry-After"));
+        if (retryAfter >= 0) {
+            return retryAfter;
+        }
+        final long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(retries, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @param value delay in seconds or HTTP date
+     * @return delay in milliseconds, or -1 if absent or malformed
+     */
+    static long parseRetryAfter(final String value) {
+        if (value == null) return -1;
+        final String trimmed = value.trim();
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed)));
+        } catch (final NumberFormatException ignored) {
+            // Not delta-seconds, may be an HTTP date
+        }
+        try {
+            final ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (final DateTimeParseException exception) {
+            return -1;
+        }
+    }
+
+    private static void closeQuietly(final TransportResponse response) {
+        try {
+            response.close();
+        } catch (final IOException ignored) {
+        }
+    }
+
+    /**
+     * Response that gives its place in the limit back once closed.
+     */
+    private static final class PermittedResponse implements TransportResponse {
+        private final TransportResponse response;
+        private final AdaptiveConcurrencyLimit limit;
+        private final boolean overloaded;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermittedResponse(final TransportResponse response, final AdaptiveConcurrencyLimit limit, final boolean overloaded) {
+            this.response = response;
+            this.limit = limit;
+            this.overloaded = overloaded;
+        }
+
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String header(final String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public long contentLength() {
+            return response.contentLength();
+        }
+
+        @Override
+        public InputStream body() {
+            return response.body();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    limit.release(overloaded);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link HttpTransport} built on <code>java.net.http.HttpClient</code>, accessed reflectively as slimjar itself targets Java 8.
+ * Requests are sent asynchronously and multiplexed over a single HTTP/2 connection per host where the repository
+ * supports it, falling back to HTTP/1.1 keep-alive otherwise. Non-HTTP urls are delegated to a fallback transport.
+ */
+public final class ReflectiveHttpClientTransport implements HttpTransport {
+    private final Object client;
+    private final Object bodyHandler;
+    private final Object noBody;
+    private final Method newRequestBuilderMethod;
+    private final Method requestMethodMethod;
+    private final Method requestHeaderMethod;
+    private final Method requestTimeoutMethod;
+    private final Method requestBuildMethod;
+    private final Method sendAsyncMethod;
+    private final Method statusCodeMethod;
+    private final Method headersMethod;
+    private final Method firstValueMethod;
+    private final Method bodyMethod;
+    private final HttpTransport fallback;
+
+    private ReflectiveHttpClientTransport(final Object client, final Object bodyHandler, final Object noBody, final Method newRequestBuilderMethod, final Method requestMethodMethod, final Method requestHeaderMethod, final Method requestTimeoutMethod, final Method requestBuildMethod, final Method sendAsyncMethod, final Method statusCodeMethod, final Method headersMethod, final Method firstValueMethod, final Method bodyMethod, final HttpTransport fallback) {
+        this.client = client;
+        this.bodyHandler = bodyHandler;
+        this.noBody = noBody;
+        this.newRequestBuilderMethod = newRequestBuilderMethod;
+        this.requestMethodMethod = requestMethodMethod;
+        this.requestHeaderMethod = requestHeaderMethod;
+        this.requestTimeoutMethod = requestTimeoutMethod;
+        this.requestBuildMethod = requestBuildMethod;
+        this.sendAsyncMethod = sendAsyncMethod;
+        this.statusCodeMethod = statusCodeMethod;
+        this.headersMethod = headersMethod;
+        this.firstValueMethod = firstValueMethod;
+        this.bodyMethod = bodyMethod;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Creates a transport backed by a new HTTP/2 capable client.
+     * @param executor Executor the client runs its asynchronous work on
+     * @param connectTimeoutMillis Timeout in milliseconds for establishing a connection
+     * @param fallback Transport used for non-HTTP urls
+     * @return the transport
+     * @throws ReflectiveOperationException if <code>java.net.http</code> is not available on this runtime
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ReflectiveHttpClientTransport create(final Executor executor, final int connectTimeoutMillis, final HttpTransport fallback) throws ReflectiveOperationException {
+        final Class<?> clientClass = Class.forName("java.net.http.HttpClient");
+        final Class<?> clientBuilderClass = Class.forName("java.net.http.HttpClient$Builder");
+        final Class<? extends Enum> versionClass = (Class<? extends Enum>) Class.forName("java.net.http.HttpClient$Version");
+        final Class<? extends Enum> redirectClass = (Class<? extends Enum>) Class.forName("java.net.http.HttpClient$Redirect");
+        final Class<?> requestClass = Class.forName("java.net.http.HttpRequest");
+        final Class<?> requestBuilderClass = Class.forName("java.net.http.HttpRequest$Builder");
+        final Class<?> bodyPublisherClass = Class.forName("java.net.http.HttpRequest$BodyPublisher");
+        final Class<?> bodyPublishersClass = Class.forName("java.net.http.HttpRequest$BodyPublishers");
+        final Class<?> responseClass = Class.forName("java.net.http.HttpResponse");
+        final Class<?> bodyHandlerClass = Class.forName("java.net.http.HttpResponse$BodyHandler");
+        final Class<?> bodyHandlersClass = Class.forName("java.net.http.HttpResponse$BodyHandlers");
+        final Class<?> headersClass = Class.forName("java.net.http.HttpHeaders");
+
+        final Object clientBuilder = clientClass.getMethod("newBuilder").invoke(null);
+        clientBuilderClass.getMethod("version", versionClass).invoke(clientBuilder, Enum.valueOf(versionClass, "HTTP_2"));
+        clientBuilderClass.getMethod("followRedirects", redirectClass).invoke(clientBuilder, Enum.valueOf(redirectClass, "NORMAL"));
+        clientBuilderClass.getMethod("executor", Executor.class).invoke(clientBuilder, executor);
+        if (connectTimeoutMillis > 0) {
+            clientBuilderClass.getMethod("connectTimeout", Duration.class).invoke(clientBuilder, Duration.ofMillis(connectTimeoutMillis));
+        }
+        final Object client = clientBuilderClass.getMethod("build").invoke(clientBuilder);
+
+        return new ReflectiveHttpClientTransport(
+                client,
+                bodyHandlersClass.getMethod("ofInputStream").invoke(null),
+                bodyPublishersClass.getMethod("noBody").invoke(null),
+                requestClass.getMethod("newBuilder", URI.class),
+                requestBuilderClass.getMethod("method", String.class, bodyPublisherClass),
+                requestBuilderClass.getMethod("header", String.class, String.class),
+                requestBuilderClass.getMethod("timeout", Duration.class),
+                requestBuilderClass.getMethod("build"),
+                clientClass.getMethod("sendAsync", requestClass, bodyHandlerClass),
+                responseClass.getMethod("statusCode"),
+                responseClass.getMethod("headers"),
+                headersClass.getMethod("firstValue", String.class),
+                responseClass.getMethod("body"),
+                fallback
+        );
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(final TransportRequest request) {
+        final String protocol = request.getUrl().getProtocol();
+        if (!"http".equalsIgnoreCase(protocol) && !"https".equalsIgnoreCase(protocol)) {
+            return fallback.sendAsync(request);
+        }
+        final CompletableFuture<?> response;
+        try {
+            response = (CompletableFuture<?>) sendAsyncMethod.invoke(client, createRequest(request), bodyHandler);
+        } catch (final ReflectiveOperationException | URISyntaxException exception) {
+            final CompletableFuture<TransportResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IOException("Could not send " + request, unwrap(exception)));
+            return failed;
+        }
+        final CompletableFuture<TransportResponse> result = response.handle((value, throwable) -> {
+            if (throwable != null) {
+                final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                throw new CompletionException(cause instanceof IOException ? cause : new IOException("Could not send " + request, cause));
+            }
+            return new ReflectiveResponse(value);
+        });
+        // Cancelling the returned future also aborts the exchange
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) {
+                response.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private Object createRequest(final TransportRequest request) throws ReflectiveOperationException, URISyntaxException {
+        final Object builder = newRequestBuilderMethod.invoke(null, request.getUrl().toURI());
+        requestMethodMethod.invoke(builder, request.getMethod(), noBody);
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            requestHeaderMethod.invoke(builder, header.getKey(), header.getValue());
+        }
+        if (request.getTimeoutMillis() > 0) {
+            requestTimeoutMethod.invoke(builder, Duration.ofMillis(request.getTimeoutMillis()));
+        }
+        return requestBuildMethod.invoke(builder);
+    }
+
+    private static Throwable unwrap(final Throwable throwable) {
+        if (throwable instanceof InvocationTargetException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private final class ReflectiveResponse implements TransportResponse {
+        private final Object response;
+
+        private ReflectiveResponse(final Object response) {
+            this.response = response;
+        }
+
+        @Override
+        public int statusCode() {
+            return (int) invoke(statusCodeMethod, response);
+        }
+
+        @Override
+        public String header(final String name) {
+            final Object headers = invoke(headersMethod, response);
+            final Optional<?> value = (Optional<?>) invoke(firstValueMethod, headers, name);
+            return value.map(String.class::cast).orElse(null);
+        }
+
+        @Override
+        public InputStream body() {
+            return (InputStream) invoke(bodyMethod, response);
+        }
+
+        @Override
+        public void close() throws IOException {
+            body().close();
+        }
+
+        private Object invoke(final Method method, final Object target, final Object... args) {
+            try {
+                return method.invoke(target, args);
+            } catch (final ReflectiveOperationException exception) {
+                throw new IllegalStateException("Could not access http response", unwrap(exception));
+            }
+        }
+    }
+}
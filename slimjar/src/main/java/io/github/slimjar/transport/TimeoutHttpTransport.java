@@ -0,0 +1,200 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.util.Threads;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HttpTransport} that gives every request without an explicit timeout the timeout of its kind from
+ * {@link AdaptiveTimeouts}, and feeds the observed latencies back into them. Response bodies are watched as well:
+ * a body that delivers no bytes for longer than its stall timeout is closed, so the reader fails with an
+ * {@link IOException} instead of blocking forever on a black-holed connection.
+ */
+public final class TimeoutHttpTransport implements HttpTransport {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(Threads.daemonFactory("slimjar-watchdog"));
+    private final HttpTransport delegate;
+    private final AdaptiveTimeouts timeouts;
+
+    public TimeoutHttpTransport(final HttpTransport delegate, final AdaptiveTimeouts timeouts) {
+        this.delegate = delegate;
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(final TransportRequest request) {
+        final TransportRequest timed = request.getTimeoutMillis() > 0
+                ? request
+                : request.withTimeout(timeouts.timeoutMillis(request.getUrl(), request.getKind()));
+        final long start = System.nanoTime();
+        return delegate.sendAsync(timed).handle((response, throwable) -> {
+            if (throwable != null) {
+                final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                if (isTimeout(cause)) {
+                    LOGGER.debug("%s timed out after %s ms", request, timed.getTimeoutMillis());
+                    timeouts.recordTimeout(request.getUrl());
+                }
+                throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+            }
+            timeouts.record(request.getUrl(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return "HEAD".equals(request.getMethod())
+                    ? response
+                    : new WatchedResponse(response, timeouts.stallTimeoutMillis(request.getKind()), request);
+        });
+    }
+
+    private static boolean isTimeout(final Throwable throwable) {
+        // java.net.http.HttpTimeoutException is not available on Java 8
+        return throwable instanceof SocketTimeoutException || throwable.getClass().getSimpleName().endsWith("TimeoutException");
+    }
+
+    private static final class WatchedResponse implements TransportResponse {
+        private final TransportResponse response;
+        private final long stallNanos;
+        private final TransportRequest request;
+        private volatile long lastProgress = System.nanoTime();
+        private volatile boolean stalled;
+        private ScheduledFuture<?> watch;
+        private InputStream body;
+
+        private WatchedResponse(final TransportResponse response, final int stallTimeoutMillis, final TransportRequest request) {
+            this.response = response;
+            this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+            this.request = request;
+        }
+
+        @Override
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String header(final String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public long contentLength() {
+            return response.contentLength();
+        }
+
+        @Override
+        public synchronized InputStream body() {
+            if (body == null) {
+                body = new WatchedInputStream(response.body());
+                final long period = Math.max(1, TimeUnit.NANOSECONDS.toMillis(stallNanos) / 4);
+                lastProgress = System.nanoTime();
+                watch = WATCHDOG.scheduleAtFixedRate(this::check, period, period, TimeUnit.MILLISECONDS);
+            }
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (this) {
+                if (watch != null) {
+                    watch.cancel(false);
+                }
+            }
+            response.close();
+        }
+
+        private void check() {
+            if (System.nanoTime() - lastProgress < stallNanos) return;
+            LOGGER.debug("%s stalled for %s ms, aborting it", request, TimeUnit.NANOSECONDS.toMillis(stallNanos));
+            stalled = true;
+            try {
+                close();
+            } catch (final IOException ignored) {
+            }
+        }
+
+        private final class WatchedInputStream extends FilterInputStream {
+            private WatchedInputStream(final InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                final int read;
+                try {
+                    read = guard(super.read());
+                } catch (final IOException exception) {
+                    throw stalled(exception);
+                }
+                lastProgress = System.nanoTime();
+                return read;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int read;
+                try {
+                    read = guard(super.read(b, off, len));
+                } catch (final IOException exception) {
+                    throw stalled(exception);
+                }
+                lastProgress = System.nanoTime();
+                return read;
+            }
+
+            private int guard(final int read) throws IOException {
+                if (stalled) {
+                    throw new SocketTimeoutException("Stalled reading " + request);
+                }
+                return read;
+            }
+
+            /**
+             * Aborting a stalled body makes the blocked read fail with whatever the closed stream throws, which is
+             * reported as the timeout it is instead.
+             */
+            private IOException stalled(final IOException exception) {
+                if (!stalled || exception instanceof SocketTimeoutException) return exception;
+                final SocketTimeoutException timeout = new SocketTimeoutException("Stalled reading " + request);
+                timeout.initCause(exception);
+                return timeout;
+            }
+
+            @Override
+            public void close() throws IOException {
+                WatchedResponse.this.close();
+            }
+        }
+    }
+}
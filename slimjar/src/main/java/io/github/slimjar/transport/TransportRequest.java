@@ -0,0 +1,150 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class TransportRequest {
+    /**
+     * User agent of requests for artifacts, checksums and metadata
+     */
+    public static final String DOWNLOAD_USER_AGENT = "SlimjarApplication/* URLDependencyDownloader";
+    /**
+     * User agent of requests that only check whether a url exists
+     */
+    public static final String PING_USER_AGENT = "SlimjarApplication/* URL Validation Ping";
+    private final String method;
+    private final URL url;
+    private final Map<String, String> headers;
+    private final int timeoutMillis;
+    private final Kind kind;
+    private final boolean followUp;
+
+    public TransportRequest(final String method, final URL url) {
+        this(method, url, Collections.emptyMap(), 0);
+    }
+
+    /**
+     * @param timeoutMillis Time in milliseconds to wait for the response headers, 0 uses the transport's default
+     */
+    public TransportRequest(final String method, final URL url, final Map<String, String> headers, final int timeoutMillis) {
+        this(method, url, headers, timeoutMillis, "HEAD".equals(method) ? Kind.PING : Kind.ARTIFACT);
+    }
+
+    /**
+     * @param timeoutMillis Time in milliseconds to wait for the response headers, 0 uses the transport's default
+     * @param kind What is requested, transports may pick timeouts by it
+     */
+    public TransportRequest(final String method, final URL url, final Map<String, String> headers, final int timeoutMillis, final Kind kind) {
+        this(method, url, headers, timeoutMillis, kind, false);
+    }
+
+    private TransportRequest(final String method, final URL url, final Map<String, String> headers, final int timeoutMillis, final Kind kind, final boolean followUp) {
+        this.method = method;
+        this.url = url;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        this.timeoutMillis = timeoutMillis;
+        this.kind = kind;
+        this.followUp = followUp;
+    }
+
+    public static TransportRequest head(final URL url) {
+        return new TransportRequest("HEAD", url);
+    }
+
+    public static TransportRequest get(final URL url) {
+        return new TransportRequest("GET", url);
+    }
+
+    public TransportRequest withHeader(final String name, final String value) {
+        final Map<String, String> headers = new LinkedHashMap<>(this.headers);
+        headers.put(name, value);
+        return new TransportRequest(method, url, headers, timeoutMillis, kind, followUp);
+    }
+
+    public TransportRequest withTimeout(final int timeoutMillis) {
+        return new TransportRequest(method, url, headers, timeoutMillis, kind, followUp);
+    }
+
+    public TransportRequest withKind(final Kind kind) {
+        return new TransportRequest(method, url, headers, timeoutMillis, kind, followUp);
+    }
+
+    /**
+     * Marks the request as made on behalf of a response that is still open, such as the checksum or another range of
+     * an artifact being downloaded. Transports that limit the requests in flight do not make it wait for a place, the
+     * open response already holds one and would otherwise wait on itself.
+     */
+    public TransportRequest asFollowUp() {
+        return new TransportRequest(method, url, headers, timeoutMillis, kind, true);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isFollowUp() {
+        return followUp;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+
+    public enum Kind {
+        /**
+         * Existence check whose body, if any, is discarded.
+         */
+        PING,
+        /**
+         * Small documents such as checksums and repository metadata.
+         */
+        METADATA,
+        /**
+         * Artifact bodies, which may be large.
+         */
+        ARTIFACT
+    }
+}
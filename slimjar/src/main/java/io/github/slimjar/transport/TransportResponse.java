@@ -0,0 +1,65 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import java.io.Closeable;
+import java.io.InputStream;
+
+/**
+ * Response to a {@link TransportRequest}. Closing it releases the underlying connection, so it can be reused for
+ * further requests to the same host if the body was consumed.
+ */
+public interface TransportResponse extends Closeable {
+    int statusCode();
+
+    /**
+     * @param name case-insensitive header name
+     * @return first value of the header, or null if absent
+     */
+    String header(final String name);
+
+    /**
+     * @return announced length of the body, or -1 if unknown
+     */
+    default long contentLength() {
+        final String value = header("Content-Length");
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (final NumberFormatException exception) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return body of the response, empty for HEAD requests
+     */
+    InputStream body();
+
+    default boolean isSuccessful() {
+        final int statusCode = statusCode();
+        return statusCode >= 200 && statusCode < 300;
+    }
+}
@@ -0,0 +1,183 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link HttpTransport} built on {@link URLConnection}, available on every runtime.
+ * Closing a consumed response hands the socket back to the JDK's keep-alive cache. A response closed before its body
+ * was read to the end is disconnected instead, rather than transferring the rest of it just to reuse the socket.
+ * Non-HTTP urls (such as file or jar urls) are served as if they answered with 200.
+ */
+public final class URLConnectionTransport implements HttpTransport {
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 30000;
+    private final Executor executor;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /**
+     * Transport with the default connect and read timeouts.
+     * @param executor Executor blocking requests are run on by {@link #sendAsync(TransportRequest)}
+     */
+    public URLConnectionTransport(final Executor executor) {
+        this(executor, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param executor Executor blocking requests are run on by {@link #sendAsync(TransportRequest)}
+     * @param connectTimeoutMillis Timeout in milliseconds for establishing a connection, 0 waits indefinitely
+     * @param readTimeoutMillis Default timeout in milliseconds for reading, 0 waits indefinitely
+     */
+    public URLConnectionTransport(final Executor executor, final int connectTimeoutMillis, final int readTimeoutMillis) {
+        this.executor = executor;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(final TransportRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return send(request);
+            } catch (final IOException exception) {
+                throw new CompletionException(exception);
+            }
+        }, executor);
+    }
+
+    @Override
+    public TransportResponse send(final TransportRequest request) throws IOException {
+        final URLConnection connection = request.getUrl().openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(request.getTimeoutMillis() > 0 ? request.getTimeoutMillis() : readTimeoutMillis);
+        for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.addRequestProperty(header.getKey(), header.getValue());
+        }
+        if (!(connection instanceof HttpURLConnection)) {
+            return new URLConnectionResponse(connection, 200, connection.getInputStream(), false);
+        }
+        final HttpURLConnection httpConnection = (HttpURLConnection) connection;
+        try {
+            httpConnection.setRequestMethod(request.getMethod());
+            httpConnection.connect();
+            final int statusCode = httpConnection.getResponseCode();
+            final boolean bodiless = "HEAD".equals(request.getMethod());
+            final InputStream body;
+            if (bodiless) {
+                body = null;
+            } else if (statusCode >= 400) {
+                body = httpConnection.getErrorStream();
+            } else {
+                body = httpConnection.getInputStream();
+            }
+            return new URLConnectionResponse(httpConnection, statusCode, body, bodiless);
+        } catch (final IOException | RuntimeException exception) {
+            httpConnection.disconnect();
+            throw exception;
+        }
+    }
+
+    private static final class URLConnectionResponse implements TransportResponse {
+        private final URLConnection connection;
+        private final int statusCode;
+        private final TrackingInputStream body;
+
+        /**
+         * @param body body of the response, null if there is none
+         * @param bodiless Whether the response cannot carry a body, as the answer to HEAD. Its connection is left for
+         *                 reuse on close, any other response is only left for reuse once its body was read to the end.
+         */
+        private URLConnectionResponse(final URLConnection connection, final int statusCode, final InputStream body, final boolean bodiless) {
+            this.connection = connection;
+            this.statusCode = statusCode;
+            this.body = new TrackingInputStream(body == null ? new ByteArrayInputStream(new byte[0]) : body, bodiless);
+        }
+
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String header(final String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public long contentLength() {
+            return connection.getContentLengthLong();
+        }
+
+        @Override
+        public InputStream body() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+            if (!body.consumed && connection instanceof HttpURLConnection) {
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    /**
+     * Remembers whether the body was read to its end.
+     */
+    private static final class TrackingInputStream extends FilterInputStream {
+        private volatile boolean consumed;
+
+        private TrackingInputStream(final InputStream inputStream, final boolean consumed) {
+            super(inputStream);
+            this.consumed = consumed;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read == -1) consumed = true;
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read == -1) consumed = true;
+            return read;
+        }
+    }
+}
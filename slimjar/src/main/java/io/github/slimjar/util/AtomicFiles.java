@@ -0,0 +1,96 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+public final class AtomicFiles {
+
+    private AtomicFiles() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("This class is not meant to be instantiated");
+    }
+
+    /**
+     * Writes all lines to a temporary sibling of <code>path</code> and moves it into place, so readers (including
+     * other JVMs sharing the download directory) only ever see the previous or the complete new content.
+     * @param path file to replace
+     * @param lines lines to write, each terminated by a line separator
+     */
+    public static void writeLines(final Path path, final Iterable<String> lines) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        final Path temporary = createTemporary(path);
+        try {
+            try (final BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (final String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            moveIntoPlace(temporary, path);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Creates an empty sibling of <code>path</code> to write its new content to. {@link Files#createTempFile} would
+     * restrict it to its owner, this file gets the permissions of any new file instead, so moving it over
+     * <code>path</code> does not lock out other users reading it.
+     * @param path file the temporary file is going to replace, its directory has to exist
+     * @return the created file
+     */
+    public static Path createTemporary(final Path path) throws IOException {
+        final Path directory = path.toAbsolutePath().getParent();
+        while (true) {
+            final Path temporary = directory.resolve(path.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(temporary);
+            } catch (final FileAlreadyExistsException ignored) {
+                // Another writer picked the same name, try the next one
+            }
+        }
+    }
+
+    /**
+     * Moves a completely written sibling of <code>path</code> into place, atomically where the file system allows.
+     * @param temporary file to move
+     * @param path file to replace
+     */
+    public static void moveIntoPlace(final Path temporary, final Path path) throws IOException {
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException exception) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
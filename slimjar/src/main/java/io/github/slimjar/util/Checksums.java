@@ -24,36 +24,23 @@
 
 package io.github.slimjar.util;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLConnection;
+public final class Checksums {
 
-public final class Connections {
-
-    private Connections() throws UnsupportedOperationException {
+    private Checksums() throws UnsupportedOperationException {
         throw new UnsupportedOperationException("This class is not meant to be instantiated");
     }
 
-    private static final String SLIMJAR_USER_AGENT = "SlimjarApplication/* URLDependencyDownloader";
-
-    public static URLConnection createDownloadConnection(final URL url) throws IOException {
-        final URLConnection connection =  url.openConnection();
-        if (connection instanceof HttpURLConnection) {
-            HttpURLConnection  httpConnection = (HttpURLConnection) connection;
-            connection.addRequestProperty("User-Agent", SLIMJAR_USER_AGENT);
-            final int responseCode = httpConnection.getResponseCode();
-
-            if (responseCode != HttpURLConnection.HTTP_OK) {
-                throw new IOException("Could not download from" + url);
-            }
-        }
-        return connection;
-    }
-    public static void tryDisconnect(final URLConnection urlConnection) {
-        if (urlConnection instanceof HttpURLConnection) {
-            HttpURLConnection httpURLConnection = (HttpURLConnection) urlConnection;
-            httpURLConnection.disconnect();
+    /**
+     * Formats a digest the way checksum files and {@link io.github.slimjar.downloader.verify.FileChecksumCalculator}
+     * do: lowercase hex with two characters per byte, leading zeros included.
+     * @param digest digest bytes
+     * @return hex representation
+     */
+    public static String toHex(final byte[] digest) {
+        final StringBuilder builder = new StringBuilder(digest.length * 2);
+        for (final byte b : digest) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
         }
+        return builder.toString();
     }
 }
@@ -0,0 +1,108 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public final class Threads {
+
+    private Threads() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("This class is not meant to be instantiated");
+    }
+
+    /**
+     * Creates a thread factory producing daemon threads so that slimjar workers never keep the host JVM alive.
+     * @param prefix name prefix of the created threads
+     * @return daemon thread factory
+     */
+    public static ThreadFactory daemonFactory(final String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates an executor suited for blocking network I/O.
+     * On Java 21+ this is a virtual-thread-per-task executor, so many pings and downloads can be in flight at once
+     * without tying up platform threads. On older runtimes it falls back to a cached pool of daemon threads.
+     * Both never keep the host JVM alive and release idle threads on their own.
+     * @return executor for blocking I/O
+     */
+    public static ExecutorService ioExecutor() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (final ReflectiveOperationException | RuntimeException exception) {
+            return Executors.newCachedThreadPool(daemonFactory("slimjar-io"));
+        }
+    }
+
+    /**
+     * Applies <code>function</code> to all items concurrently on <code>executor</code> and returns the first non-null
+     * result in the iteration order of <code>items</code>, just like <code>parallelStream().map().filter().findFirst()</code>
+     * but without borrowing threads from the common pool.
+     * @param items items to apply the function to
+     * @param function blocking function, may return null
+     * @param executor executor to run the function on
+     * @return first non-null result, or null if there is none
+     */
+    public static <T, R> R firstNonNull(final Collection<T> items, final Function<T, R> function, final Executor executor) {
+        if (items.isEmpty()) return null;
+        if (items.size() == 1) return function.apply(items.iterator().next());
+        final List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (final T item : items) {
+            futures.add(CompletableFuture.supplyAsync(() -> function.apply(item), executor));
+        }
+        for (final CompletableFuture<R> future : futures) {
+            final R result;
+            try {
+                result = future.join();
+            } catch (final CompletionException exception) {
+                final Throwable cause = exception.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw exception;
+            }
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
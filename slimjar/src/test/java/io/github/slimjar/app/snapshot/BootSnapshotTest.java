@@ -0,0 +1,93 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.app.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BootSnapshotTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        final File jar = createJar("a.jar", "content");
+        final Path path = directory.resolve("snapshots").resolve("app.snapshot");
+        new BootSnapshot("key", Collections.singletonList(entryOf(jar))).write(path);
+
+        final BootSnapshot snapshot = BootSnapshot.read(path);
+        Assertions.assertNotNull(snapshot);
+        Assertions.assertTrue(snapshot.matches("key"));
+        Assertions.assertFalse(snapshot.matches("other"));
+        Assertions.assertTrue(snapshot.isIntact());
+        Assertions.assertEquals(Collections.singletonList(jar.toURI().toURL()), snapshot.urls());
+    }
+
+    @Test
+    public void testChangedJarIsNotIntact() throws IOException {
+        final File jar = createJar("a.jar", "content");
+        final BootSnapshot snapshot = new BootSnapshot("key", Collections.singletonList(entryOf(jar)));
+        Files.write(jar.toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertFalse(snapshot.isIntact());
+        Assertions.assertTrue(jar.delete());
+        Assertions.assertFalse(snapshot.isIntact());
+    }
+
+    @Test
+    public void testKeyDependsOnSources() throws IOException {
+        final File first = createJar("slimjar.json", "{}");
+        final File second = createJar("other.json", "{ }");
+        final String key = BootSnapshot.keyOf("app", first.toURI().toURL(), null);
+        Assertions.assertEquals(key, BootSnapshot.keyOf("app", first.toURI().toURL(), null));
+        Assertions.assertFalse(key.equals(BootSnapshot.keyOf("other", first.toURI().toURL(), null)));
+        Assertions.assertFalse(key.equals(BootSnapshot.keyOf("app", second.toURI().toURL(), null)));
+        Assertions.assertFalse(key.equals(BootSnapshot.keyOf("app", first.toURI().toURL(), second.toURI().toURL())));
+    }
+
+    @Test
+    public void testUnreadableSnapshotIsIgnored() throws IOException {
+        final Path path = directory.resolve("broken.snapshot");
+        Assertions.assertNull(BootSnapshot.read(path));
+        Files.write(path, "garbage".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNull(BootSnapshot.read(path));
+    }
+
+    private File createJar(final String name, final String content) throws IOException {
+        final Path path = directory.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path.toFile();
+    }
+
+    private static BootSnapshot.Entry entryOf(final File file) {
+        return new BootSnapshot.Entry(file, file.length(), file.lastModified());
+    }
+}
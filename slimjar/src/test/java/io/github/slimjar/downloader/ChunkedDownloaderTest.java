@@ -0,0 +1,133 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
+import io.github.slimjar.util.Checksums;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ChunkedDownloaderTest {
+
+    @Test
+    public void testRangesAreAssembledInPlace() throws Exception {
+        final byte[] artifact = new byte[100_003];
+        new Random(7).nextBytes(artifact);
+        final List<TransportRequest> requests = new CopyOnWriteArrayList<>();
+        final HttpTransport transport = request -> {
+            requests.add(request);
+            final String[] range = request.getHeaders().get("Range").substring("bytes=".length()).split("-");
+            final int from = Integer.parseInt(range[0]);
+            final int to = Integer.parseInt(range[1]);
+            final Map<String, String> headers = new HashMap<>();
+            headers.put("Content-Range", "bytes " + from + "-" + to + "/" + artifact.length);
+            return CompletableFuture.completedFuture(new FakeResponse(206, headers, new ByteArrayInputStream(artifact, from, to - from + 1)));
+        };
+        final ChunkedDownloader downloader = new ChunkedDownloader(transport, Runnable::run, 1000, 4);
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("Accept-Ranges", "bytes");
+        headers.put("Content-Length", String.valueOf(artifact.length));
+        headers.put("ETag", "\"v1\"");
+        final FakeResponse first = new FakeResponse(200, headers, new ByteArrayInputStream(artifact));
+        Assertions.assertTrue(downloader.accepts(first));
+
+        final Path directory = Files.createTempDirectory("slimjar-chunked");
+        final Path target = directory.resolve("a.jar");
+        final Dependency dependency = new Dependency("a.b", "c", "1.0", null, Collections.emptySet());
+        try {
+            final String digest = downloader.download(dependency, new URL("https://repo.example.com/a.jar"), first, target, event -> { });
+            Assertions.assertArrayEquals(artifact, Files.readAllBytes(target));
+            Assertions.assertEquals(Checksums.toHex(MessageDigest.getInstance("SHA-256").digest(artifact)), digest);
+            Assertions.assertEquals(3, requests.size());
+            for (final TransportRequest request : requests) {
+                Assertions.assertEquals(TransportRequest.DOWNLOAD_USER_AGENT, request.getHeaders().get("User-Agent"), "Range requested without user agent");
+                Assertions.assertEquals(TransportRequest.Kind.ARTIFACT, request.getKind());
+            }
+        } finally {
+            Files.deleteIfExists(target);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void testRangesNeedServerSupportAndSize() {
+        final ChunkedDownloader downloader = new ChunkedDownloader(request -> new CompletableFuture<>(), Runnable::run, 1000, 4);
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Length", "5000");
+        Assertions.assertFalse(downloader.accepts(new FakeResponse(200, headers, null)), "Ranges used without Accept-Ranges");
+        headers.put("Accept-Ranges", "bytes");
+        Assertions.assertTrue(downloader.accepts(new FakeResponse(200, headers, null)));
+        headers.put("Content-Length", "999");
+        Assertions.assertFalse(downloader.accepts(new FakeResponse(200, headers, null)), "Ranges used below the threshold");
+    }
+
+    private static final class FakeResponse implements TransportResponse {
+        private final int statusCode;
+        private final Map<String, String> headers;
+        private final InputStream body;
+
+        private FakeResponse(final int statusCode, final Map<String, String> headers, final InputStream body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String header(final String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public InputStream body() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,496 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.output.PartFile;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.resolver.ChecksumFetcher;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionCandidate;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.resolver.ranking.HedgeBudget;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.LimitingHttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
+import io.github.slimjar.util.Checksums;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class URLDependencyDownloaderTest {
+    private static final Dependency DEPENDENCY = new Dependency("a.b", "c", "1.0", null, Collections.emptySet());
+    private static final byte[] ARTIFACT = "artifact".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testHedgeWinsAndLateResponseIsClosed() throws Exception {
+        final URL primaryURL = new URL("https://slow.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL mirrorURL = new URL("https://mirror.example.com/a/b/c/1.0/c-1.0.jar");
+        final CompletableFuture<TransportResponse> primary = new CompletableFuture<>();
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(primaryURL, request -> primary);
+        transport.serve(mirrorURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, ARTIFACT)));
+        final ResolutionResult result = new ResolutionResult(new Repository(new URL("https://slow.example.com/")), primaryURL, (String) null, false, true);
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver(result, Collections.singletonList(mirrorURL)), new RejectingVerifier(), transport, null, new HedgeBudget(1, 1));
+
+        final File file = downloader.download(DEPENDENCY);
+        Assertions.assertArrayEquals(ARTIFACT, Files.readAllBytes(file.toPath()), "Hedged response should be downloaded");
+
+        final FakeResponse late = new FakeResponse(200, ARTIFACT);
+        primary.complete(late);
+        Assertions.assertTrue(late.closed, "Late response of the losing request should be closed");
+    }
+
+    @Test
+    public void testChunkedDownloadFetchesRangesFromHedge() throws Exception {
+        final URL primaryURL = new URL("https://slow.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL mirrorURL = new URL("https://mirror.example.com/a/b/c/1.0/c-1.0.jar");
+        final byte[] artifact = new byte[4000];
+        new Random(3).nextBytes(artifact);
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(primaryURL, request -> new CompletableFuture<>());
+        transport.serve(mirrorURL, request -> {
+            final String range = request.getHeaders().get("Range");
+            if (range == null) {
+                return CompletableFuture.completedFuture(new FakeResponse(200, artifact).withHeader("Accept-Ranges", "bytes"));
+            }
+            final String[] bounds = range.substring("bytes=".length()).split("-");
+            final int from = Integer.parseInt(bounds[0]);
+            final int to = Integer.parseInt(bounds[1]);
+            return CompletableFuture.completedFuture(new FakeResponse(206, new ByteArrayInputStream(artifact, from, to - from + 1), to - from + 1)
+                    .withHeader("Content-Range", "bytes " + from + "-" + to + "/" + artifact.length));
+        });
+        final ResolutionResult result = new ResolutionResult(new Repository(new URL("https://slow.example.com/")), primaryURL, (String) null, false, true);
+        final ChunkedDownloader chunkedDownloader = new ChunkedDownloader(transport, Runnable::run, 1000, 4);
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver(result, Collections.singletonList(mirrorURL)), new RejectingVerifier(), transport, null, new HedgeBudget(1, 1), false, false, chunkedDownloader);
+
+        final File file = downloader.download(DEPENDENCY);
+        Assertions.assertArrayEquals(artifact, Files.readAllBytes(file.toPath()));
+        for (final TransportRequest request : transport.requests) {
+            if (request.getHeaders().containsKey("Range")) {
+                Assertions.assertEquals(mirrorURL.toString(), request.getUrl().toString(), "Ranges should come from the repository that answered");
+            }
+        }
+    }
+
+    @Test
+    public void testOptimisticDownloadMovesOnFromMissingCandidate() throws Exception {
+        final Repository missing = new Repository(new URL("https://missing.example.com/"));
+        final Repository serving = new Repository(new URL("https://serving.example.com/"));
+        final URL missingURL = new URL("https://missing.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL servingURL = new URL("https://serving.example.com/a/b/c/1.0/c-1.0.jar");
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(servingURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, ARTIFACT)));
+        final CandidateResolver resolver = new CandidateResolver(Arrays.asList(
+                new ResolutionCandidate(missing, missingURL, Collections.emptyList()),
+                new ResolutionCandidate(serving, servingURL, Collections.emptyList())
+        ));
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver, new RejectingVerifier(), transport, null, null, true);
+
+        final File file = downloader.download(DEPENDENCY);
+        Assertions.assertArrayEquals(ARTIFACT, Files.readAllBytes(file.toPath()));
+        Assertions.assertEquals(servingURL.toString(), resolver.recorded.getDependencyURL().toString(), "Serving candidate should be recorded");
+        Assertions.assertNull(resolver.recorded.getKnownChecksum(), "Digest of the download should not be recorded as its checksum");
+    }
+
+    @Test
+    public void testOptimisticDownloadRejectsMismatchingChecksum() throws Exception {
+        final Repository repository = new Repository(new URL("https://repo.example.com/"));
+        final URL artifactURL = new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL checksumURL = new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar.sha256");
+        final String otherChecksum = Checksums.toHex(MessageDigest.getInstance("SHA-256").digest("other".getBytes(StandardCharsets.UTF_8)));
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(artifactURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, ARTIFACT)));
+        transport.serve(checksumURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, otherChecksum.getBytes(StandardCharsets.UTF_8))));
+        final CandidateResolver resolver = new CandidateResolver(Collections.singletonList(new ResolutionCandidate(repository, artifactURL, Collections.singletonList(checksumURL))));
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver, new RejectingVerifier(), transport, null, null, true);
+
+        Assertions.assertThrows(IOException.class, () -> downloader.download(DEPENDENCY));
+        Assertions.assertFalse(FilePathStrategy.createDefault(directory.toFile()).selectFileFor(DEPENDENCY).exists(), "Mismatching download should be discarded");
+        Assertions.assertNull(resolver.recorded, "Mismatching download should not be recorded");
+    }
+
+    @Test
+    public void testDownloadIsCheckedInVerifierAlgorithm() throws Exception {
+        final Repository repository = new Repository(new URL("https://repo.example.com/"));
+        final URL artifactURL = new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL checksumURL = new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar.sha1");
+        final String checksum = Checksums.toHex(MessageDigest.getInstance("SHA-1").digest(ARTIFACT));
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(artifactURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, ARTIFACT)));
+        transport.serve(checksumURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, checksum.getBytes(StandardCharsets.UTF_8))));
+        final CandidateResolver resolver = new CandidateResolver(Collections.singletonList(new ResolutionCandidate(repository, artifactURL, Collections.singletonList(checksumURL))));
+        final RejectingVerifier verifier = new RejectingVerifier("SHA-1");
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver, verifier, transport, null, null, true);
+
+        downloader.download(DEPENDENCY);
+        Assertions.assertEquals(checksum, verifier.recordedDigest, "Download should be digested with the algorithm of the verifier");
+    }
+
+    @Test
+    public void testChecksumOfOtherAlgorithmRejectsDownload() throws Exception {
+        final Repository repository = new Repository(new URL("https://repo.example.com/"));
+        final URL artifactURL = new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL checksumURL = new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar.sha1");
+        final String otherChecksum = Checksums.toHex(MessageDigest.getInstance("SHA-1").digest("other".getBytes(StandardCharsets.UTF_8)));
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(artifactURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, ARTIFACT)));
+        transport.serve(checksumURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, otherChecksum.getBytes(StandardCharsets.UTF_8))));
+        final CandidateResolver resolver = new CandidateResolver(Collections.singletonList(new ResolutionCandidate(repository, artifactURL, Collections.singletonList(checksumURL))));
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver, new RejectingVerifier(), transport, null, null, true);
+
+        Assertions.assertThrows(IOException.class, () -> downloader.download(DEPENDENCY));
+        Assertions.assertFalse(FilePathStrategy.createDefault(directory.toFile()).selectFileFor(DEPENDENCY).exists(), "Unchecked download should be discarded");
+    }
+
+    @Test
+    public void testTimedOutDownloadIsRetriedFromServingAlternative() throws Exception {
+        final URL primaryURL = new URL("https://stalled.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL mirrorURL = new URL("https://mirror.example.com/a/b/c/1.0/c-1.0.jar");
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(primaryURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, new TimingOutInputStream(), ARTIFACT.length)));
+        transport.serve(mirrorURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, ARTIFACT)));
+        final ResolutionResult result = new ResolutionResult(new Repository(new URL("https://stalled.example.com/")), primaryURL, (String) null, false, true);
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver(result, Collections.singletonList(mirrorURL)), new RejectingVerifier(), transport);
+
+        final File file = downloader.download(DEPENDENCY);
+        Assertions.assertArrayEquals(ARTIFACT, Files.readAllBytes(file.toPath()), "Download should be retried from the serving alternative");
+    }
+
+    @Test
+    public void testTimedOutDownloadWithoutAlternativeIsRetriedOnce() throws Exception {
+        final URL url = new URL("https://stalled.example.com/a/b/c/1.0/c-1.0.jar");
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(url, request -> CompletableFuture.completedFuture(new FakeResponse(200, new TimingOutInputStream(), ARTIFACT.length)));
+        final ResolutionResult result = new ResolutionResult(new Repository(new URL("https://stalled.example.com/")), url, (String) null, false, true);
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver(result, Collections.emptyList()), new RejectingVerifier(), transport);
+
+        Assertions.assertThrows(SocketTimeoutException.class, () -> downloader.download(DEPENDENCY));
+        Assertions.assertEquals(2, transport.requests.size(), "Same location should be retried exactly once");
+    }
+
+    @Test
+    public void testErrorStatusIsNotRetried() throws Exception {
+        final URL url = new URL("https://forbidden.example.com/a/b/c/1.0/c-1.0.jar");
+        final URL mirrorURL = new URL("https://mirror.example.com/a/b/c/1.0/c-1.0.jar");
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(url, request -> CompletableFuture.completedFuture(new FakeResponse(403, new byte[0])));
+        transport.serve(mirrorURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, ARTIFACT)));
+        final ResolutionResult result = new ResolutionResult(new Repository(new URL("https://forbidden.example.com/")), url, (String) null, false, true);
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver(result, Collections.singletonList(mirrorURL)), new RejectingVerifier(), transport);
+
+        Assertions.assertThrows(IOException.class, () -> downloader.download(DEPENDENCY));
+        Assertions.assertEquals(1, transport.requests.size(), "Error status should not trigger another download");
+    }
+
+    @Test
+    public void testChecksumsOfDownloadsHoldingEveryPlaceAreFetched() throws Exception {
+        final int downloads = LimitingHttpTransport.DEFAULT_INITIAL_LIMIT;
+        final String checksum = Checksums.toHex(MessageDigest.getInstance("SHA-256").digest(ARTIFACT));
+        final Repository repository = new Repository(new URL("https://repo.example.com/"));
+        final CountDownLatch allOpen = new CountDownLatch(downloads);
+        final FakeTransport fakeTransport = new FakeTransport();
+        final HttpTransport transport = new LimitingHttpTransport(fakeTransport, downloads, downloads, 0);
+        final ChecksumFetcher checksumFetcher = new ChecksumFetcher(transport);
+        final Map<Dependency, ResolutionResult> results = new HashMap<>();
+        for (int index = 0; index < downloads; index++) {
+            final Dependency dependency = new Dependency("a.b", "c" + index, "1.0", null, Collections.emptySet());
+            final URL url = new URL("https://repo.example.com/a/b/c" + index + "/1.0/c" + index + "-1.0.jar");
+            final URL checksumURL = new URL(url + ".sha256");
+            fakeTransport.serve(url, request -> {
+                allOpen.countDown();
+                return CompletableFuture.completedFuture(new FakeResponse(200, new GatedInputStream(allOpen, ARTIFACT), ARTIFACT.length));
+            });
+            fakeTransport.serve(checksumURL, request -> CompletableFuture.completedFuture(new FakeResponse(200, checksum.getBytes(StandardCharsets.UTF_8))));
+            results.put(dependency, new ResolutionResult(repository, url, checksumURL, checksumFetcher, false, true));
+        }
+        final DependencyResolver resolver = new DependencyResolver() {
+            @Override
+            public Optional<ResolutionResult> resolve(final Dependency dependency) {
+                return Optional.of(results.get(dependency));
+            }
+
+            @Override
+            public List<URL> alternativeURLs(final Dependency dependency, final ResolutionResult resolved) {
+                return Collections.emptyList();
+            }
+        };
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver, new RejectingVerifier(), transport);
+        final ExecutorService executor = Executors.newFixedThreadPool(downloads);
+        try {
+            final List<Future<File>> files = new ArrayList<>();
+            for (final Dependency dependency : results.keySet()) {
+                files.add(executor.submit(() -> downloader.download(dependency)));
+            }
+            for (final Future<File> file : files) {
+                Assertions.assertArrayEquals(ARTIFACT, Files.readAllBytes(file.get(10, TimeUnit.SECONDS).toPath()), "Checksum waited for a place its own download holds");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMisplacedRangeRestartsResumableDownload() throws Exception {
+        final URL url = new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar");
+        final File target = FilePathStrategy.createDefault(directory.toFile()).selectFileFor(DEPENDENCY);
+        final PartFile partFile = new PartFile(target);
+        partFile.begin(url, "\"v1\"", null, 0);
+        partFile.append(new ByteArrayInputStream(ARTIFACT, 0, 3));
+        final FakeTransport transport = new FakeTransport();
+        transport.serve(url, request -> CompletableFuture.completedFuture(request.getHeaders().containsKey("Range")
+                ? new FakeResponse(206, ARTIFACT).withHeader("Content-Range", "bytes 0-" + (ARTIFACT.length - 1) + "/" + ARTIFACT.length)
+                : new FakeResponse(200, ARTIFACT)));
+        final ResolutionResult result = new ResolutionResult(new Repository(new URL("https://repo.example.com/")), url, (String) null, false, true);
+        final URLDependencyDownloader downloader = new URLDependencyDownloader(outputWriterFactory(), resolver(result, Collections.emptyList()), new RejectingVerifier(), transport, null, null, false, true);
+
+        final File file = downloader.download(DEPENDENCY);
+        Assertions.assertArrayEquals(ARTIFACT, Files.readAllBytes(file.toPath()), "Body of a misplaced range should not be appended to the part");
+        Assertions.assertEquals(2, transport.requests.size());
+        Assertions.assertFalse(transport.requests.get(1).getHeaders().containsKey("Range"), "Artifact should be requested whole again");
+    }
+
+    private DependencyOutputWriterFactory outputWriterFactory() {
+        return new DependencyOutputWriterFactory(FilePathStrategy.createDefault(directory.toFile()));
+    }
+
+    private static DependencyResolver resolver(final ResolutionResult result, final List<URL> alternatives) {
+        return new DependencyResolver() {
+            @Override
+            public Optional<ResolutionResult> resolve(final Dependency dependency) {
+                return Optional.of(result);
+            }
+
+            @Override
+            public List<URL> alternativeURLs(final Dependency dependency, final ResolutionResult resolved) {
+                return alternatives;
+            }
+        };
+    }
+
+    /**
+     * Offers fixed candidates and fails every resolution, so only optimistic downloads succeed.
+     */
+    private static final class CandidateResolver implements DependencyResolver {
+        private final List<ResolutionCandidate> candidates;
+        private volatile ResolutionResult recorded;
+
+        private CandidateResolver(final List<ResolutionCandidate> candidates) {
+            this.candidates = candidates;
+        }
+
+        @Override
+        public Optional<ResolutionResult> resolve(final Dependency dependency) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<ResolutionCandidate> candidates(final Dependency dependency) {
+            return candidates;
+        }
+
+        @Override
+        public void record(final Dependency dependency, final ResolutionResult result) {
+            recorded = result;
+        }
+    }
+
+    /**
+     * Treats every file as unverified, so downloads are never skipped.
+     */
+    private static final class RejectingVerifier implements DependencyVerifier {
+        private final String algorithm;
+        private volatile String recordedDigest;
+
+        private RejectingVerifier() {
+            this(null);
+        }
+
+        private RejectingVerifier(final String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public boolean verify(final File file, final Dependency dependency) {
+            return false;
+        }
+
+        @Override
+        public File getChecksumFile(final Dependency dependency) {
+            return null;
+        }
+
+        @Override
+        public void recordDigest(final File file, final String algorithm, final String checksum) {
+            recordedDigest = checksum;
+        }
+
+        @Override
+        public String getAlgorithm() {
+            return algorithm;
+        }
+    }
+
+    private interface Handler {
+        CompletableFuture<TransportResponse> handle(final TransportRequest request);
+    }
+
+    private static final class FakeTransport implements HttpTransport {
+        private final Map<String, Handler> handlers = new HashMap<>();
+        private final List<TransportRequest> requests = new CopyOnWriteArrayList<>();
+
+        private void serve(final URL url, final Handler handler) {
+            handlers.put(url.toString(), handler);
+        }
+
+        @Override
+        public CompletableFuture<TransportResponse> sendAsync(final TransportRequest request) {
+            requests.add(request);
+            final Handler handler = handlers.get(request.getUrl().toString());
+            return handler == null
+                    ? CompletableFuture.completedFuture(new FakeResponse(404, new byte[0]))
+                    : handler.handle(request);
+        }
+    }
+
+    /**
+     * Body that times out on the first read, like a connection that stopped sending.
+     */
+    private static final class TimingOutInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            throw new SocketTimeoutException("Read timed out");
+        }
+    }
+
+    /**
+     * Body that only starts once every expected response is open, so they all hold their place at the same time.
+     */
+    private static final class GatedInputStream extends InputStream {
+        private final CountDownLatch gate;
+        private final InputStream body;
+
+        private GatedInputStream(final CountDownLatch gate, final byte[] body) {
+            this.gate = gate;
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() throws IOException {
+            awaitGate();
+            return body.read();
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            awaitGate();
+            return body.read(bytes, offset, length);
+        }
+
+        private void awaitGate() throws IOException {
+            try {
+                gate.await();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the other responses", exception);
+            }
+        }
+    }
+
+    private static final class FakeResponse implements TransportResponse {
+        private final int statusCode;
+        private final Map<String, String> headers = new HashMap<>();
+        private final InputStream body;
+        private volatile boolean closed;
+
+        private FakeResponse(final int statusCode, final byte[] body) {
+            this(statusCode, new ByteArrayInputStream(body), body.length);
+        }
+
+        private FakeResponse(final int statusCode, final InputStream body, final long contentLength) {
+            this.statusCode = statusCode;
+            this.body = body;
+            headers.put("Content-Length", String.valueOf(contentLength));
+        }
+
+        private FakeResponse withHeader(final String name, final String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String header(final String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public InputStream body() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class AtomicFileOutputWriterTest {
+    @TempDir
+    Path directory;
+    private byte[] content;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        content = new byte[300_007];
+        new Random(5).nextBytes(content);
+    }
+
+    @Test
+    public void testExistingFileIsReplaced() throws IOException {
+        final File file = directory.resolve("a.jar").toFile();
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+        new AtomicFileOutputWriter(file).writeFrom(new ByteArrayInputStream(content), content.length);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        Assertions.assertEquals(1, count(), "Temporary file was left behind");
+    }
+
+    @Test
+    public void testRejectedContentLeavesFileUntouched() throws IOException {
+        final File file = directory.resolve("a.jar").toFile();
+        final byte[] previous = {1, 2, 3};
+        Files.write(file.toPath(), previous);
+        Assertions.assertThrows(IOException.class, () -> new AtomicFileOutputWriter(file)
+                .writeFrom(new ByteArrayInputStream(content), content.length, written -> written.length() != content.length));
+        Assertions.assertArrayEquals(previous, Files.readAllBytes(file.toPath()));
+        Assertions.assertEquals(1, count(), "Temporary file was left behind");
+    }
+
+    @Test
+    public void testDurableWriteIsComplete() throws IOException {
+        final File file = directory.resolve("nested").resolve("a.jar").toFile();
+        new AtomicFileOutputWriter(file, true, Durability.FILE_AND_DIRECTORY).writeFrom(new ByteArrayInputStream(content), content.length + 100);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testReplacedFileGetsPermissionsOfNewFiles() throws IOException {
+        Assumptions.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"), "No POSIX permissions");
+        final Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(Files.createFile(directory.resolve("other.jar")));
+        final File file = directory.resolve("a.jar").toFile();
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+        new AtomicFileOutputWriter(file).writeFrom(new ByteArrayInputStream(content), content.length);
+        Assertions.assertEquals(permissions, Files.getPosixFilePermissions(file.toPath()), "Replaced file was restricted to its owner");
+    }
+
+    private long count() throws IOException {
+        try (final Stream<Path> paths = Files.list(directory)) {
+            return paths.count();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class ChanneledFileOutputWriterTest {
+    @TempDir
+    Path directory;
+    private byte[] content;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        content = new byte[1_000_003];
+        new Random(3).nextBytes(content);
+    }
+
+    @Test
+    public void testStreamIsWrittenCompletely() throws IOException {
+        final File file = directory.resolve("a.jar").toFile();
+        new ChanneledFileOutputWriter(file).writeFrom(new ByteArrayInputStream(content), content.length);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testShortReadsAreWrittenCompletely() throws IOException {
+        final File file = directory.resolve("a.jar").toFile();
+        final InputStream trickling = new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(final byte[] bytes, final int offset, final int length) {
+                return super.read(bytes, offset, Math.min(length, 1000));
+            }
+        };
+        new ChanneledFileOutputWriter(file).writeFrom(trickling, content.length);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testPreallocatedFileIsTruncatedToContent() throws IOException {
+        final File file = directory.resolve("a.jar").toFile();
+        new ChanneledFileOutputWriter(file, true).writeFrom(new ByteArrayInputStream(content), content.length + 100);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(file.toPath()), "Announced length was left in place");
+    }
+
+    @Test
+    public void testFileStreamIsTransferred() throws IOException {
+        final Path source = directory.resolve("source.jar");
+        Files.write(source, content);
+        final File file = directory.resolve("a.jar").toFile();
+        try (final InputStream inputStream = new FileInputStream(source.toFile())) {
+            new ChanneledFileOutputWriter(file, true).writeFrom(inputStream, content.length);
+        }
+        Assertions.assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+    }
+}
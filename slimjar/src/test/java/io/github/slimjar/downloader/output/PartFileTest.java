@@ -0,0 +1,96 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class PartFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testInterruptedDownloadResumesAtCheckpoint() throws IOException {
+        final File target = directory.resolve("a.jar").toFile();
+        final URL url = new URL("https://repo.example.com/a.jar");
+        final PartFile partFile = new PartFile(target);
+        partFile.begin(url, "\"abc\"", null, 0);
+        Assertions.assertThrows(IOException.class, () -> partFile.append(new BrokenInputStream(new byte[]{1, 2, 3})));
+
+        final PartFile resumed = new PartFile(target);
+        Assertions.assertEquals(3, resumed.resumableOffset(url), "Written bytes were not checkpointed");
+        Assertions.assertEquals("\"abc\"", resumed.validator());
+        Assertions.assertEquals(0, resumed.resumableOffset(new URL("https://other.example.com/a.jar")), "Resumed from another url");
+
+        resumed.begin(url, "\"abc\"", null, 3);
+        resumed.append(new ByteArrayInputStream(new byte[]{4, 5}));
+        Assertions.assertFalse(target.exists(), "Incomplete part visible at the final location");
+        resumed.complete();
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, Files.readAllBytes(target.toPath()));
+        Assertions.assertEquals(0, new PartFile(target).resumableOffset(url), "State survived completion");
+    }
+
+    @Test
+    public void testWeakValidatorsAreNotResumed() throws IOException {
+        final File target = directory.resolve("a.jar").toFile();
+        final URL url = new URL("https://repo.example.com/a.jar");
+        final PartFile partFile = new PartFile(target);
+        partFile.begin(url, "W/\"abc\"", null, 0);
+        partFile.append(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        Assertions.assertEquals(0, new PartFile(target).resumableOffset(url));
+    }
+
+    private static final class BrokenInputStream extends InputStream {
+        private final InputStream delegate;
+
+        private BrokenInputStream(final byte[] bytes) {
+            this.delegate = new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length));
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = delegate.read();
+            if (read == -1) throw new IOException("Connection reset");
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = delegate.read(b, off, len);
+            if (read == -1) throw new IOException("Connection reset");
+            return read;
+        }
+    }
+}
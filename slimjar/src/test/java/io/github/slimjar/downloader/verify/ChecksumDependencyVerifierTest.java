@@ -0,0 +1,163 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.strategy.ChecksumFilePathStrategy;
+import io.github.slimjar.resolver.ChecksumFetcher;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChecksumDependencyVerifierTest {
+    private static final String CHECKSUM = "0123456789abcdef";
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecordedDigestIsUsedInsteadOfReadingTheFile() throws Exception {
+        final AtomicInteger calculations = new AtomicInteger();
+        final ChecksumDependencyVerifier verifier = createVerifier(calculations);
+        final Dependency dependency = new Dependency("a.b", "c", "1.0", null, Collections.emptySet());
+        final File artifact = prepare(verifier, dependency);
+
+        verifier.recordDigest(artifact, "SHA256", CHECKSUM);
+        Assertions.assertTrue(verifier.verify(artifact, dependency));
+        Assertions.assertEquals(0, calculations.get(), "File was hashed despite a recorded digest");
+    }
+
+    @Test
+    public void testRecordedDigestOfOtherAlgorithmIsIgnored() throws Exception {
+        final AtomicInteger calculations = new AtomicInteger();
+        final ChecksumDependencyVerifier verifier = createVerifier(calculations);
+        final Dependency dependency = new Dependency("a.b", "c", "1.0", null, Collections.emptySet());
+        final File artifact = prepare(verifier, dependency);
+
+        verifier.recordDigest(artifact, "SHA-1", CHECKSUM);
+        Assertions.assertTrue(verifier.verify(artifact, dependency));
+        Assertions.assertEquals(1, calculations.get());
+    }
+
+    @Test
+    public void testChecksumThatCouldNotBeFetchedFailsVerification() throws Exception {
+        final Dependency dependency = new Dependency("a.b", "c", "1.0", null, Collections.emptySet());
+        final ChecksumDependencyVerifier verifier = createVerifier(new AtomicInteger(), resolver(503), new PassthroughDependencyVerifierFactory().create(null));
+        final File artifact = directory.resolve("c-1.0.jar").toFile();
+        Files.write(artifact.toPath(), new byte[]{1, 2, 3});
+
+        Assertions.assertFalse(verifier.verify(artifact, dependency), "Fetch failure should not fall back");
+        Assertions.assertFalse(verifier.getChecksumFile(dependency).exists(), "Fetch failure should not be stored as a missing checksum");
+    }
+
+    @Test
+    public void testUnpublishedChecksumFallsBack() throws Exception {
+        final Dependency dependency = new Dependency("a.b", "c", "1.0", null, Collections.emptySet());
+        final ChecksumDependencyVerifier verifier = createVerifier(new AtomicInteger(), resolver(404), new PassthroughDependencyVerifierFactory().create(null));
+        final File artifact = directory.resolve("c-1.0.jar").toFile();
+        Files.write(artifact.toPath(), new byte[]{1, 2, 3});
+
+        Assertions.assertTrue(verifier.verify(artifact, dependency), "Missing checksum should fall back");
+        Assertions.assertEquals(0, verifier.getChecksumFile(dependency).length(), "Missing checksum should be stored as an empty file");
+    }
+
+    private static DependencyResolver resolver(final int checksumStatus) throws IOException {
+        final HttpTransport transport = request -> CompletableFuture.completedFuture(new TransportResponse() {
+            @Override
+            public int statusCode() {
+                return checksumStatus;
+            }
+
+            @Override
+            public String header(final String name) {
+                return null;
+            }
+
+            @Override
+            public InputStream body() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        final ResolutionResult result = new ResolutionResult(
+                new Repository(new URL("https://repo.example.com/")),
+                new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar"),
+                new URL("https://repo.example.com/a/b/c/1.0/c-1.0.jar.sha256"),
+                new ChecksumFetcher(transport),
+                false,
+                true
+        );
+        return dependency -> Optional.of(result);
+    }
+
+    private ChecksumDependencyVerifier createVerifier(final AtomicInteger calculations) {
+        return createVerifier(calculations, null, null);
+    }
+
+    private ChecksumDependencyVerifier createVerifier(final AtomicInteger calculations, final DependencyResolver resolver, final DependencyVerifier fallback) {
+        final ChecksumCalculator calculator = new ChecksumCalculator() {
+            @Override
+            public String calculate(final File file) {
+                calculations.incrementAndGet();
+                return CHECKSUM;
+            }
+
+            @Override
+            public String getAlgorithm() {
+                return "SHA-256";
+            }
+        };
+        final DependencyOutputWriterFactory checksumWriterFactory = new DependencyOutputWriterFactory(ChecksumFilePathStrategy.createStrategy(directory.toFile(), "SHA-256"));
+        return new ChecksumDependencyVerifier(resolver, checksumWriterFactory, fallback, calculator);
+    }
+
+    private File prepare(final ChecksumDependencyVerifier verifier, final Dependency dependency) throws IOException {
+        Files.write(verifier.getChecksumFile(dependency).toPath(), CHECKSUM.getBytes(StandardCharsets.UTF_8));
+        final File artifact = directory.resolve("c-1.0.jar").toFile();
+        Files.write(artifact.toPath(), new byte[]{1, 2, 3});
+        return artifact;
+    }
+}
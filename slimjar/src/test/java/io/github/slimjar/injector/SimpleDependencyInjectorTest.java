@@ -0,0 +1,136 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector;
+
+import io.github.slimjar.injector.helper.InjectionHelper;
+import io.github.slimjar.injector.helper.InjectionHelperFactory;
+import io.github.slimjar.injector.scheduler.DependencyScheduler;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.DependencyData;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class SimpleDependencyInjectorTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        Mockito.clearAllCaches();
+    }
+
+    @Test
+    public void testInjectionOrderIsDeterministic() throws Exception {
+        final List<Dependency> dependencies = Arrays.asList(dependency("first"), dependency("second"), dependency("third"), dependency("fourth"));
+        for (int run = 0; run < 5; run++) {
+            // Every download waits for the one declared after it, so they finish in reverse order
+            final Map<Dependency, CountDownLatch> downloaded = new HashMap<>();
+            for (final Dependency dependency : dependencies) {
+                downloaded.put(dependency, new CountDownLatch(1));
+            }
+            final InjectionHelper helper = new InjectionHelper(
+                    dependency -> {
+                        final int next = dependencies.indexOf(dependency) + 1;
+                        if (next < dependencies.size()) {
+                            Assertions.assertTrue(downloaded.get(dependencies.get(next)).await(5, TimeUnit.SECONDS), "Later download should finish first");
+                        }
+                        downloaded.get(dependency).countDown();
+                        return new File(dependency.artifactId() + ".jar");
+                    },
+                    (dependency, file) -> file
+            );
+            final List<String> injected = new ArrayList<>();
+            injector(helper).inject(url -> injected.add(fileName(url)), data(dependencies), Collections.emptyMap());
+
+            Assertions.assertEquals(Arrays.asList("first.jar", "second.jar", "third.jar", "fourth.jar"), injected, "Injection should follow declaration order regardless of completion order");
+        }
+    }
+
+    @Test
+    public void testFailedDownloadInjectsNothing() throws Exception {
+        final Dependency ready = dependency("ready");
+        final Dependency broken = dependency("broken");
+        final CountDownLatch injection = new CountDownLatch(1);
+        final InjectionHelper helper = new InjectionHelper(
+                dependency -> {
+                    // The broken download only fails once its prepared sibling had the time to be injected
+                    if (dependency.equals(broken)) {
+                        injection.await(1, TimeUnit.SECONDS);
+                        throw new IOException("Could not download " + dependency.artifactId());
+                    }
+                    return new File(dependency.artifactId() + ".jar");
+                },
+                (dependency, file) -> file
+        );
+        final List<String> injected = new ArrayList<>();
+        final SimpleDependencyInjector injector = injector(helper);
+
+        Assertions.assertThrows(InjectionFailedException.class, () -> injector.inject(url -> {
+            injected.add(fileName(url));
+            injection.countDown();
+        }, data(Arrays.asList(ready, broken)), Collections.emptyMap()));
+        Assertions.assertTrue(injected.isEmpty(), "A failed download should not leave a partial classpath");
+    }
+
+    private SimpleDependencyInjector injector(final InjectionHelper helper) throws Exception {
+        final InjectionHelperFactory factory = Mockito.mock(InjectionHelperFactory.class);
+        Mockito.when(factory.create(Mockito.any(), Mockito.any())).thenReturn(helper);
+        return new SimpleDependencyInjector(factory, DependencyScheduler.defaultLimits(), executor, event -> {});
+    }
+
+    private static DependencyData data(final List<Dependency> dependencies) {
+        return new DependencyData(Collections.emptySet(), Collections.emptySet(), dependencies, Collections.emptySet());
+    }
+
+    private static String fileName(final URL url) {
+        return url.getPath().substring(url.getPath().lastIndexOf('/') + 1);
+    }
+
+    private static Dependency dependency(final String artifactId) {
+        return new Dependency("a.b.c", artifactId, "1.0", null, Collections.emptySet());
+    }
+}
@@ -0,0 +1,163 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector.scheduler;
+
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.injector.InjectionFailedException;
+import io.github.slimjar.injector.helper.InjectionHelper;
+import io.github.slimjar.progress.ProgressEvent;
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DependencySchedulerTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testGraphDeduplicatesInDepthFirstOrder() {
+        final Dependency shared = dependency("shared");
+        final Dependency left = dependency("left", shared);
+        final Dependency right = dependency("right", shared);
+        final DependencyGraph graph = DependencyGraph.of(Arrays.asList(left, right));
+
+        Assertions.assertEquals(Arrays.asList(left, shared, right), graph.order(), "Graph order should follow first occurrence");
+        Assertions.assertTrue(graph.parentsOf(shared).containsAll(Arrays.asList(left, right)), "Shared dependency should know both parents");
+    }
+
+    @Test
+    public void testInjectionFollowsGraphOrder() throws Exception {
+        final Dependency leaf = dependency("leaf");
+        final Dependency large = dependency("large");
+        final CountDownLatch leafRelocated = new CountDownLatch(1);
+        final InjectionHelper helper = new InjectionHelper(
+                dependency -> {
+                    // The large sibling only finishes once the leaf went through every stage
+                    if (dependency.equals(large)) {
+                        Assertions.assertTrue(leafRelocated.await(5, TimeUnit.SECONDS), "Leaf should not wait for its sibling");
+                    }
+                    return new File(dependency.artifactId() + ".jar");
+                },
+                (dependency, file) -> {
+                    if (dependency.equals(leaf)) leafRelocated.countDown();
+                    return file;
+                }
+        );
+        final List<String> injected = new ArrayList<>();
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor, DependencyScheduler.defaultLimits());
+        scheduler.run(url -> injected.add(fileName(url)), Arrays.asList(large, leaf));
+
+        Assertions.assertEquals(Arrays.asList("large.jar", "leaf.jar"), injected, "Injection should keep declaration order");
+    }
+
+    @Test
+    public void testAggregatorTransitivesAreSkipped() throws Exception {
+        final Dependency transitive = dependency("transitive");
+        final Dependency aggregator = dependency("aggregator", transitive);
+        final InjectionHelper helper = new InjectionHelper(
+                dependency -> dependency.equals(aggregator) ? null : new File(dependency.artifactId() + ".jar"),
+                (dependency, file) -> file
+        );
+        final List<String> injected = new ArrayList<>();
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor, DependencyScheduler.defaultLimits());
+        scheduler.run(url -> injected.add(fileName(url)), Collections.singleton(aggregator));
+
+        Assertions.assertTrue(injected.isEmpty(), "Transitives of aggregators should not be injected");
+    }
+
+    @Test
+    public void testUnverifiedDependencyIsNotInjected() {
+        final Dependency rejected = dependency("rejected");
+        final InjectionHelper helper = new InjectionHelper(
+                dependency -> new File(dependency.artifactId() + ".jar"),
+                (dependency, file) -> file,
+                null,
+                new DependencyVerifier() {
+                    @Override
+                    public boolean verify(final File file, final Dependency dependency) {
+                        return false;
+                    }
+
+                    @Override
+                    public File getChecksumFile(final Dependency dependency) {
+                        return null;
+                    }
+                },
+                null
+        );
+        final List<String> injected = new ArrayList<>();
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor, DependencyScheduler.defaultLimits());
+
+        Assertions.assertThrows(InjectionFailedException.class, () -> scheduler.run(url -> injected.add(fileName(url)), Collections.singleton(rejected)));
+        Assertions.assertTrue(injected.isEmpty(), "Dependencies failing verification should not be injected");
+    }
+
+    @Test
+    public void testProgressOnlyReachesOwnListener() throws Exception {
+        final InjectionHelper helper = new InjectionHelper(
+                dependency -> new File(dependency.artifactId() + ".jar"),
+                (dependency, file) -> file
+        );
+        final List<ProgressEvent> first = new CopyOnWriteArrayList<>();
+        final List<ProgressEvent> second = new CopyOnWriteArrayList<>();
+        new DependencyScheduler(helper, executor, DependencyScheduler.defaultLimits(), first::add).run(url -> {}, Collections.singleton(dependency("first")));
+        new DependencyScheduler(helper, executor, DependencyScheduler.defaultLimits(), second::add).run(url -> {}, Collections.singleton(dependency("second")));
+
+        Assertions.assertFalse(first.isEmpty(), "Scheduler should report its progress");
+        Assertions.assertTrue(first.stream().allMatch(event -> event.getDependency().artifactId().equals("first")), "Progress of other schedulers should not be reported");
+        Assertions.assertTrue(second.stream().allMatch(event -> event.getDependency().artifactId().equals("second")), "Progress of other schedulers should not be reported");
+    }
+
+    private static String fileName(final URL url) {
+        return url.getPath().substring(url.getPath().lastIndexOf('/') + 1);
+    }
+
+    private static Dependency dependency(final String artifactId, final Dependency... transitive) {
+        return new Dependency("a.b.c", artifactId, "1.0", null, Arrays.asList(transitive));
+    }
+}
@@ -0,0 +1,72 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.progress;
+
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProgressInputStreamTest {
+
+    @Test
+    public void testReportsDownloadedBytes() throws IOException {
+        final Dependency dependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+        final byte[] content = new byte[200 * 1024];
+        final List<ProgressEvent> events = new ArrayList<>();
+        try (final InputStream inputStream = new ProgressInputStream(new ByteArrayInputStream(content), events::add, dependency, content.length)) {
+            final byte[] buffer = new byte[8192];
+            while (inputStream.read(buffer) != -1) {
+                // drain
+            }
+        }
+        Assertions.assertEquals(4, events.size());
+        final ProgressEvent last = events.get(events.size() - 1);
+        Assertions.assertEquals(ProgressEvent.Type.BYTES, last.getType());
+        Assertions.assertEquals(dependency, last.getDependency());
+        Assertions.assertEquals(content.length, last.getBytes());
+        Assertions.assertEquals(content.length, last.getTotalBytes());
+    }
+
+    @Test
+    public void testReportsRemainderOfUnknownLength() throws IOException {
+        final Dependency dependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+        final List<ProgressEvent> events = new ArrayList<>();
+        try (final InputStream inputStream = new ProgressInputStream(new ByteArrayInputStream(new byte[100]), events::add, dependency, -1)) {
+            while (inputStream.read() != -1) {
+                // drain
+            }
+        }
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(100, events.get(0).getBytes());
+        Assertions.assertEquals(-1, events.get(0).getTotalBytes());
+    }
+}
@@ -26,14 +26,28 @@ package io.github.slimjar.resolver;
 
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.resolver.enquirer.RepositoryEnquirer;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.resolver.ranking.RepositoryRanker;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -89,4 +103,182 @@ public class DependencyResolverTest {
         Assertions.assertEquals(url1, url2, "Impure resolution: Instance");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCachingDependencyResolverSingleFlight() throws Exception {
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/")));
+        final AtomicInteger enquiries = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            enquiries.incrementAndGet();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DummyRepositoryEnquirer().enquire(dependency);
+        };
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final CachingDependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+                @Override
+                public boolean ping(URL url) {
+                    return true;
+                }
+
+                @Override
+                public boolean isSupported(URL url) {
+                    return true;
+                }
+            }, repositories, repositoryEnquirerFactory, Collections.emptyMap(), executor);
+            final Dependency testDependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+            final CompletableFuture<ResolutionResult> first = dependencyResolver.resolveAsync(testDependency);
+            final CompletableFuture<ResolutionResult> second = dependencyResolver.resolveAsync(testDependency);
+            release.countDown();
+
+            Assertions.assertEquals(first.get(5, TimeUnit.SECONDS).getDependencyURL(), second.get(5, TimeUnit.SECONDS).getDependencyURL());
+            Assertions.assertTrue(dependencyResolver.resolve(testDependency).isPresent());
+            Assertions.assertEquals(1, enquiries.get(), "Concurrent resolutions were not coalesced");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCachingDependencyResolverFailureExpiry() throws Exception {
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/")));
+        final AtomicInteger enquiries = new AtomicInteger();
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            enquiries.incrementAndGet();
+            return null;
+        };
+        final CachingDependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        }, repositories, repositoryEnquirerFactory, Collections.emptyMap(), Runnable::run, 50);
+        final Dependency testDependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+
+        Assertions.assertFalse(dependencyResolver.resolve(testDependency).isPresent());
+        Assertions.assertFalse(dependencyResolver.resolve(testDependency).isPresent());
+        Assertions.assertEquals(1, enquiries.get(), "Failed resolution was not cached");
+        Thread.sleep(100);
+        Assertions.assertFalse(dependencyResolver.resolve(testDependency).isPresent());
+        Assertions.assertEquals(2, enquiries.get(), "Failed resolution did not expire");
+    }
+
+    @Test
+    public void testCachingDependencyResolverAsksBestRankedRepositoryFirst() throws Exception {
+        final Repository slowRepository = new Repository(new URL("https://slow.tld/"));
+        final Repository fastRepository = new Repository(new URL("https://fast.tld/"));
+        final Collection<Repository> repositories = Arrays.asList(slowRepository, fastRepository);
+        final Path rankingPath = Files.createTempFile("slimjar", "ranking");
+        final RepositoryRanker ranker = RepositoryRanker.load(rankingPath);
+        ranker.record(slowRepository.url().toString(), true, TimeUnit.SECONDS.toNanos(2));
+        ranker.record(fastRepository.url().toString(), true, TimeUnit.MILLISECONDS.toNanos(5));
+        final Collection<Repository> asked = new ConcurrentLinkedQueue<>();
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            asked.add(repository);
+            return new DummyRepositoryEnquirer().enquire(dependency);
+        };
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final DependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+                @Override
+                public boolean ping(URL url) {
+                    return true;
+                }
+
+                @Override
+                public boolean isSupported(URL url) {
+                    return true;
+                }
+            }, repositories, repositoryEnquirerFactory, Collections.emptyMap(), executor, 1000, null, ranker);
+            final Dependency testDependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+
+            Assertions.assertTrue(dependencyResolver.resolve(testDependency).isPresent());
+            Assertions.assertEquals(Collections.singletonList(fastRepository), new ArrayList<>(asked));
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(rankingPath);
+        }
+    }
+
+    @Test
+    public void testCachingDependencyResolverOffersServingRepositoriesAsAlternatives() throws Exception {
+        final Repository primaryRepository = new Repository(new URL("https://repo.tld/"));
+        final Repository missingRepository = new Repository(new URL("https://missing.tld/"));
+        final Repository mirrorRepository = new Repository(new URL("https://mirror.tld/maven2/"));
+        final Collection<Repository> repositories = Arrays.asList(primaryRepository, missingRepository, mirrorRepository);
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            if (repository == missingRepository) return null;
+            try {
+                return new ResolutionResult(repository, new URL(repository.url() + "a/b/c/d/1.0/d-1.0.jar"), (URL) null, false, false);
+            } catch (final MalformedURLException exception) {
+                throw new IllegalStateException(exception);
+            }
+        };
+        final DependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        }, repositories, repositoryEnquirerFactory, Collections.emptyMap(), Runnable::run);
+        final Dependency testDependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+        final ResolutionResult result = dependencyResolver.resolve(testDependency).orElseThrow(AssertionError::new);
+
+        Assertions.assertEquals(
+                Collections.singletonList(new URL("https://mirror.tld/maven2/a/b/c/d/1.0/d-1.0.jar")),
+                dependencyResolver.alternativeURLs(testDependency, result),
+                "Only repositories that found the artifact should be alternatives"
+        );
+    }
+
+    @Test
+    public void testCachingDependencyResolverKeepsRecordedResolutions() throws Exception {
+        final Repository repository = new Repository(new URL("https://repo.tld/"));
+        final URL dependencyURL = new URL("https://repo.tld/a/b/c/d/1.0/d-1.0.jar");
+        final AtomicInteger enquiries = new AtomicInteger();
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repo -> new RepositoryEnquirer() {
+            @Override
+            public ResolutionResult enquire(final Dependency dependency) {
+                enquiries.incrementAndGet();
+                return null;
+            }
+
+            @Override
+            public List<ResolutionCandidate> candidates(final Dependency dependency) {
+                return Collections.singletonList(new ResolutionCandidate(repo, dependencyURL, Collections.emptyList()));
+            }
+        };
+        final DependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        }, Collections.singletonList(repository), repositoryEnquirerFactory, Collections.emptyMap());
+        final Dependency testDependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+
+        Assertions.assertEquals(1, dependencyResolver.candidates(testDependency).size());
+        dependencyResolver.record(testDependency, new ResolutionResult(repository, dependencyURL, "abc", false, true));
+
+        Assertions.assertTrue(dependencyResolver.candidates(testDependency).isEmpty(), "Recorded dependency still offered candidates");
+        Assertions.assertEquals("abc", dependencyResolver.resolve(testDependency).map(ResolutionResult::getChecksum).orElse(null));
+        Assertions.assertEquals(0, enquiries.get(), "Recorded dependency was enquired");
+    }
+}
@@ -0,0 +1,69 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.breaker;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        final CircuitBreaker breaker = new CircuitBreaker("repo", 2, 60000);
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        Assertions.assertTrue(breaker.tryAcquire(), "Failures were not consecutive");
+        breaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire(), "Open breaker let a request through");
+    }
+
+    @Test
+    public void testHalfOpenAllowsSingleProbe() throws InterruptedException {
+        final CircuitBreaker breaker = new CircuitBreaker("repo", 1, 10);
+        breaker.recordFailure();
+        Thread.sleep(20);
+        Assertions.assertTrue(breaker.tryAcquire(), "No probe after the cool-down");
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire(), "Second probe while the first is in flight");
+        breaker.recordSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailedProbeReopens() throws InterruptedException {
+        final CircuitBreaker breaker = new CircuitBreaker("repo", 3, 10);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        Thread.sleep(20);
+        Assertions.assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire());
+    }
+}
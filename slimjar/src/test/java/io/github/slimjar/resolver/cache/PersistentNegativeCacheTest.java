@@ -0,0 +1,60 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersistentNegativeCacheTest {
+    private static final long MINUTE = 60 * 1000L;
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testLeastRecentlyUsedMissIsEvicted() {
+        final PersistentNegativeCache cache = PersistentNegativeCache.load(directory.resolve("misses"), 2, MINUTE);
+        cache.add("a");
+        cache.add("b");
+        Assertions.assertTrue(cache.contains("a"));
+        cache.add("c");
+        Assertions.assertTrue(cache.contains("a"));
+        Assertions.assertFalse(cache.contains("b"));
+        Assertions.assertTrue(cache.contains("c"));
+    }
+
+    @Test
+    public void testMissesSurviveReload() throws IOException {
+        final Path path = directory.resolve("cache").resolve("misses");
+        final PersistentNegativeCache cache = PersistentNegativeCache.load(path, 16, MINUTE);
+        cache.add("https://repo.tld/a/b/c/d/1.0/d-1.0.jar");
+        cache.save();
+
+        Assertions.assertTrue(PersistentNegativeCache.load(path, 16, MINUTE).contains("https://repo.tld/a/b/c/d/1.0/d-1.0.jar"));
+        Assertions.assertFalse(PersistentNegativeCache.load(path, 16, 0).contains("https://repo.tld/a/b/c/d/1.0/d-1.0.jar"));
+    }
+}
@@ -0,0 +1,145 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.cache;
+
+import io.github.slimjar.resolver.ChecksumFetcher;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersistentResolutionCacheTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testResolutionsSurviveReload() throws IOException {
+        final Path path = directory.resolve("cache").resolve("resolutions");
+        final Dependency dependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+        final Dependency aggregator = new Dependency("a.b.c", "bom", "1.0", null, Collections.emptyList());
+        final Repository repository = new Repository(new URL("https://repo.tld/"));
+        final URL url = new URL("https://repo.tld/a/b/c/d/1.0/d-1.0.jar");
+
+        final PersistentResolutionCache cache = PersistentResolutionCache.load(path, DAY, DAY);
+        cache.put(dependency, new ResolutionResult(repository, url, "ab-cd\t01\n", false, false));
+        cache.put(aggregator, new ResolutionResult(repository, null, (String) null, true, false));
+        cache.save();
+
+        final PersistentResolutionCache reloaded = PersistentResolutionCache.load(path, DAY, DAY);
+        final ResolutionResult result = reloaded.get(dependency);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(url, result.getDependencyURL());
+        Assertions.assertEquals(repository, result.getRepository());
+        Assertions.assertEquals("ab-cd\t01\n", result.getChecksum());
+        Assertions.assertTrue(result.isChecked());
+        final ResolutionResult aggregatorResult = reloaded.get(aggregator);
+        Assertions.assertNotNull(aggregatorResult);
+        Assertions.assertTrue(aggregatorResult.isAggregator());
+        Assertions.assertNull(aggregatorResult.getChecksum());
+    }
+
+    @Test
+    public void testSnapshotsExpireSeparately() throws IOException {
+        final Path path = directory.resolve("resolutions");
+        final Dependency release = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+        final Dependency snapshot = new Dependency("a.b.c", "d", "1.1-SNAPSHOT", null, Collections.emptyList());
+        final Repository repository = new Repository(new URL("https://repo.tld/"));
+
+        final PersistentResolutionCache cache = PersistentResolutionCache.load(path, DAY, 0);
+        cache.put(release, new ResolutionResult(repository, new URL("https://repo.tld/d-1.0.jar"), (String) null, false, false));
+        cache.put(snapshot, new ResolutionResult(repository, new URL("https://repo.tld/d-1.1-SNAPSHOT.jar"), (String) null, false, false));
+        Assertions.assertNotNull(cache.get(release));
+        Assertions.assertNull(cache.get(snapshot));
+    }
+
+    @Test
+    public void testCorruptCacheIsIgnored() throws IOException {
+        final Path path = directory.resolve("resolutions");
+        Files.write(path, Collections.singletonList("garbage"));
+        final PersistentResolutionCache cache = PersistentResolutionCache.load(path, DAY, DAY);
+        Assertions.assertNull(cache.get(new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList())));
+    }
+
+    @Test
+    public void testUnfetchedChecksumsStayLazy() throws IOException {
+        final Path path = directory.resolve("resolutions");
+        final Dependency dependency = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+        final Repository repository = new Repository(new URL("https://repo.tld/"));
+        final URL checksumURL = new URL("https://repo.tld/a/b/c/d/1.0/d-1.0.jar.sha256");
+        final AtomicInteger fetches = new AtomicInteger();
+        final HttpTransport transport = request -> {
+            fetches.incrementAndGet();
+            return CompletableFuture.completedFuture(new TransportResponse() {
+                @Override
+                public int statusCode() {
+                    return 200;
+                }
+
+                @Override
+                public String header(String name) {
+                    return null;
+                }
+
+                @Override
+                public InputStream body() {
+                    return new ByteArrayInputStream("0123abcd".getBytes(StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void close() {
+                }
+            });
+        };
+        final ChecksumFetcher checksumFetcher = new ChecksumFetcher(transport);
+
+        final PersistentResolutionCache cache = PersistentResolutionCache.load(path, DAY, DAY, checksumFetcher);
+        cache.put(dependency, new ResolutionResult(repository, new URL("https://repo.tld/a/b/c/d/1.0/d-1.0.jar"), checksumURL, checksumFetcher, false, true));
+        cache.save();
+        final ResolutionResult result = PersistentResolutionCache.load(path, DAY, DAY, checksumFetcher).get(dependency);
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(checksumURL, result.getChecksumURL());
+        Assertions.assertEquals(0, fetches.get(), "Checksum was fetched before it was needed");
+
+        Assertions.assertEquals("0123abcd", result.getChecksum());
+        Assertions.assertEquals("0123abcd", result.getChecksum());
+        Assertions.assertEquals(1, fetches.get());
+    }
+}
@@ -0,0 +1,72 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.cache;
+
+import io.github.slimjar.resolver.strategy.SnapshotMetadata;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersistentSnapshotMetadataCacheTest {
+    private static final long MINUTE = 60 * 1000L;
+    private static final String LOCATION = "https://repo.tld/a/b/c/d/1.0-SNAPSHOT/maven-metadata.xml";
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testMetadataSurvivesReload() throws IOException {
+        final Path path = directory.resolve("cache").resolve("snapshot-metadata");
+        final PersistentSnapshotMetadataCache cache = PersistentSnapshotMetadataCache.load(path, MINUTE);
+        cache.put(LOCATION, new SnapshotMetadata(new HashSet<>(Arrays.asList("1.0-20210101.123456-3")), "20210101.123456", "3", false), "\"v1\"", "Fri, 01 Jan 2021 12:34:56 GMT");
+        cache.save();
+
+        final SnapshotMetadata loaded = PersistentSnapshotMetadataCache.load(path, MINUTE).get(LOCATION);
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals("1.0-20210101.123456-3", loaded.latestJarValue("1.0"));
+        Assertions.assertEquals("20210101.123456", loaded.getTimestamp());
+
+        final PersistentSnapshotMetadataCache stale = PersistentSnapshotMetadataCache.load(path, 0);
+        Assertions.assertNull(stale.get(LOCATION), "Stale metadata was used");
+        Assertions.assertEquals("\"v1\"", stale.conditionalHeaders(LOCATION).get("If-None-Match"));
+        Assertions.assertEquals("Fri, 01 Jan 2021 12:34:56 GMT", stale.conditionalHeaders(LOCATION).get("If-Modified-Since"));
+    }
+
+    @Test
+    public void testMissingMetadataIsRemembered() throws IOException {
+        final Path path = directory.resolve("snapshot-metadata");
+        final PersistentSnapshotMetadataCache cache = PersistentSnapshotMetadataCache.load(path, MINUTE);
+        cache.put(LOCATION, null, null, null);
+        cache.save();
+
+        final PersistentSnapshotMetadataCache loaded = PersistentSnapshotMetadataCache.load(path, MINUTE);
+        Assertions.assertTrue(loaded.isFresh(LOCATION));
+        Assertions.assertNull(loaded.get(LOCATION));
+        Assertions.assertTrue(loaded.conditionalHeaders(LOCATION).isEmpty());
+    }
+}
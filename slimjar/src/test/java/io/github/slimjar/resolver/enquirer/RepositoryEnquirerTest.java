@@ -24,6 +24,7 @@
 
 package io.github.slimjar.resolver.enquirer;
 
+import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.pinger.URLPinger;
@@ -59,6 +60,26 @@ public class RepositoryEnquirerTest {
         Assertions.assertNotNull(repositoryEnquirer.enquire(new Dependency("a.b.c","d","", null, Collections.emptySet())), "Valid repo & dep should return non-null URL");
     }
 
+    @Test
+    public void testPingingEnquirerLeavesArtifactWithoutChecksumToDownloader() {
+        final URLPinger pinger = Mockito.mock(URLPinger.class);
+        Mockito.when(pinger.ping(Mockito.argThat(url -> url.getPath().endsWith(".jar")))).thenReturn(true);
+        final PathResolutionStrategy resolutionStrategy = Mockito.mock(PathResolutionStrategy.class, defaultAnswer -> Collections.singleton("https://a.b.c/repo/dep.jar"));
+
+        final RepositoryEnquirer repositoryEnquirer = new PingingRepositoryEnquirer(
+            new Repository(Mockito.mock(URL.class)),
+            resolutionStrategy,
+            new MavenChecksumPathResolutionStrategy("SHA-256", resolutionStrategy),
+            resolutionStrategy,
+            pinger
+        );
+
+        final ResolutionResult result = repositoryEnquirer.enquire(new Dependency("a.b.c","d","", null, Collections.emptySet()));
+        Assertions.assertNotNull(result, "Artifact without checksum should resolve");
+        Assertions.assertNull(result.getChecksumURL(), "No checksum is published");
+        Assertions.assertNull(result.getKnownChecksum(), "Artifact should not be hashed while resolving it");
+    }
+
     @Test
     public void testPingingEnquirerProvideInvalidURL() {
         final URL mockURL = Mockito.mock(URL.class);
@@ -24,9 +24,22 @@
 
 package io.github.slimjar.resolver.pinger;
 
+import io.github.slimjar.resolver.cache.PersistentNegativeCache;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportResponse;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.HttpsURLConnection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Assertions;
@@ -108,4 +121,119 @@ public class URLPingerTest {
         Assertions.assertFalse(result, "Non-OK should fail");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testHttpURLPingerUsesHead() throws IOException {
+        final URL mockURL = Mockito.mock(URL.class);
+        final HttpsURLConnection httpsURLConnection = Mockito.mock(HttpsURLConnection.class);
+
+        Mockito.when(mockURL.openConnection()).thenReturn(httpsURLConnection);
+        Mockito.when(mockURL.getProtocol()).thenReturn("HTTPS");
+        Mockito.doNothing().when(httpsURLConnection).connect();
+        Mockito.doReturn(HttpURLConnection.HTTP_OK).when(httpsURLConnection).getResponseCode();
+
+        final URLPinger urlPinger = new HttpURLPinger(1000, 2000);
+        Assertions.assertTrue(urlPinger.ping(mockURL), "Valid https URL");
+        Mockito.verify(httpsURLConnection).setRequestMethod("HEAD");
+        Mockito.verify(httpsURLConnection).setConnectTimeout(1000);
+        Mockito.verify(httpsURLConnection).setReadTimeout(2000);
+        Mockito.verify(httpsURLConnection, Mockito.never()).disconnect();
+    }
+
+    @Test
+    public void testHttpURLPingerFallsBackToGet() throws IOException {
+        final URL mockURL = Mockito.mock(URL.class);
+        final HttpsURLConnection headConnection = Mockito.mock(HttpsURLConnection.class);
+        final HttpsURLConnection getConnection = Mockito.mock(HttpsURLConnection.class);
+
+        Mockito.when(mockURL.openConnection()).thenReturn(headConnection, getConnection);
+        Mockito.when(mockURL.getProtocol()).thenReturn("HTTPS");
+        Mockito.doReturn(HttpURLConnection.HTTP_BAD_METHOD).when(headConnection).getResponseCode();
+        Mockito.doReturn(HttpURLConnection.HTTP_OK).when(getConnection).getResponseCode();
+
+        final URLPinger urlPinger = new HttpURLPinger();
+        Assertions.assertTrue(urlPinger.ping(mockURL), "GET fallback should succeed");
+        Mockito.verify(getConnection).setRequestMethod("GET");
+        Mockito.verify(getConnection).disconnect();
+    }
+
+    @Test
+    public void testHttpURLPingerReportsMissing() throws IOException {
+        final URL mockURL = Mockito.mock(URL.class);
+        final HttpsURLConnection httpsURLConnection = Mockito.mock(HttpsURLConnection.class);
+
+        Mockito.when(mockURL.openConnection()).thenReturn(httpsURLConnection);
+        Mockito.when(mockURL.getProtocol()).thenReturn("HTTPS");
+        Mockito.doReturn(HttpURLConnection.HTTP_NOT_FOUND).when(httpsURLConnection).getResponseCode();
+
+        final URLPinger urlPinger = new HttpURLPinger();
+        Assertions.assertEquals(PingResult.MISSING, urlPinger.check(mockURL));
+    }
+
+    @Test
+    public void testCachingURLPingerSkipsKnownMisses() throws IOException {
+        final URL missingURL = new URL("https://repo.tld/missing.jar");
+        final URL unavailableURL = new URL("https://repo.tld/unavailable.jar");
+        final AtomicInteger pings = new AtomicInteger();
+        final URLPinger delegate = new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return check(url) == PingResult.FOUND;
+            }
+
+            @Override
+            public PingResult check(URL url) {
+                pings.incrementAndGet();
+                return url.equals(missingURL) ? PingResult.MISSING : PingResult.UNAVAILABLE;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        };
+        final Path cachePath = Files.createTempFile("slimjar", "misses");
+        try {
+            final URLPinger urlPinger = new CachingURLPinger(delegate, PersistentNegativeCache.load(cachePath, 16, 60000));
+            Assertions.assertFalse(urlPinger.ping(missingURL));
+            Assertions.assertFalse(urlPinger.ping(missingURL));
+            Assertions.assertEquals(1, pings.get(), "Known miss should not be pinged again");
+            Assertions.assertFalse(urlPinger.ping(unavailableURL));
+            Assertions.assertFalse(urlPinger.ping(unavailableURL));
+            Assertions.assertEquals(3, pings.get(), "Unknown outcomes should not be cached");
+        } finally {
+            Files.deleteIfExists(cachePath);
+        }
+    }
+
+    @Test
+    public void testTransportURLPingerFallsBackToGet() throws IOException {
+        final List<String> methods = new ArrayList<>();
+        final HttpTransport transport = request -> {
+            methods.add(request.getMethod());
+            final int statusCode = "HEAD".equals(request.getMethod()) ? HttpURLConnection.HTTP_BAD_METHOD : HttpURLConnection.HTTP_OK;
+            return CompletableFuture.completedFuture(new TransportResponse() {
+                @Override
+                public int statusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public String header(String name) {
+                    return null;
+                }
+
+                @Override
+                public InputStream body() {
+                    return new ByteArrayInputStream(new byte[0]);
+                }
+
+                @Override
+                public void close() {
+                }
+            });
+        };
+        final URLPinger urlPinger = new TransportURLPinger(transport);
+        Assertions.assertTrue(urlPinger.ping(new URL("https://repo.tld/a.jar")), "GET fallback should succeed");
+        Assertions.assertEquals(Arrays.asList("HEAD", "GET"), methods);
+    }
+}
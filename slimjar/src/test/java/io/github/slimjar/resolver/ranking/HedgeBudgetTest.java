@@ -0,0 +1,72 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.ranking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HedgeBudgetTest {
+
+    @Test
+    public void testHedgesAreCappedByRequestShare() {
+        final HedgeBudget budget = new HedgeBudget(0.1, 10);
+        Assertions.assertTrue(budget.tryAcquire());
+        Assertions.assertTrue(budget.tryAcquire());
+        Assertions.assertFalse(budget.tryAcquire(), "Allowance exceeded without any requests");
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest();
+        }
+        Assertions.assertTrue(budget.tryAcquire());
+        Assertions.assertFalse(budget.tryAcquire(), "More than one hedge per ten requests");
+    }
+
+    @Test
+    public void testConcurrentHedgesAreCapped() {
+        final HedgeBudget budget = new HedgeBudget(1, 1);
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest();
+        }
+        Assertions.assertTrue(budget.tryAcquire());
+        Assertions.assertFalse(budget.tryAcquire(), "Second hedge allowed while the first is in flight");
+        budget.release();
+        Assertions.assertTrue(budget.tryAcquire());
+    }
+
+    @Test
+    public void testZeroConcurrencyDisablesHedging() {
+        final HedgeBudget budget = new HedgeBudget(1, 0);
+        budget.recordRequest();
+        Assertions.assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    public void testZeroRatioDisablesHedging() {
+        final HedgeBudget budget = new HedgeBudget(0, 4);
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+        Assertions.assertFalse(budget.tryAcquire(), "Allowance granted a hedge with hedging disabled");
+    }
+}
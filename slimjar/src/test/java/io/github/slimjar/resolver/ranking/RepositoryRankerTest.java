@@ -0,0 +1,67 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.ranking;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RepositoryRankerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testFastReliableRepositoryRanksFirst() {
+        final RepositoryRanker ranker = RepositoryRanker.load(directory.resolve("repositories"));
+        for (int i = 0; i < 10; i++) {
+            ranker.record("slow", true, TimeUnit.MILLISECONDS.toNanos(400));
+            ranker.record("fast", true, TimeUnit.MILLISECONDS.toNanos(20));
+            ranker.record("flaky", i % 5 == 0, TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        final List<String> ranked = ranker.rank(Arrays.asList("unknown", "slow", "flaky", "fast"), Function.identity());
+        Assertions.assertEquals(Arrays.asList("unknown", "fast", "flaky", "slow"), ranked);
+        Assertions.assertEquals(400, ranker.hedgeDelayMillis("slow"));
+        Assertions.assertEquals(50, ranker.hedgeDelayMillis("fast"));
+    }
+
+    @Test
+    public void testRankingSurvivesReload() throws IOException {
+        final Path path = directory.resolve("cache").resolve("repositories");
+        final RepositoryRanker ranker = RepositoryRanker.load(path);
+        ranker.record("https://slow.tld/", true, TimeUnit.MILLISECONDS.toNanos(300));
+        ranker.record("https://fast.tld/", true, TimeUnit.MILLISECONDS.toNanos(10));
+        ranker.save();
+
+        final RepositoryRanker reloaded = RepositoryRanker.load(path);
+        Assertions.assertEquals(Arrays.asList("https://fast.tld/", "https://slow.tld/"), reloaded.rank(Arrays.asList("https://slow.tld/", "https://fast.tld/"), Function.identity()));
+        Assertions.assertEquals(300, reloaded.hedgeDelayMillis("https://slow.tld/"));
+    }
+}
@@ -24,14 +24,24 @@
 
 package io.github.slimjar.resolver.strategy;
 
+import io.github.slimjar.resolver.SnapshotMetadataFetcher;
+import io.github.slimjar.resolver.cache.PersistentSnapshotMetadataCache;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.transport.HttpTransport;
+import io.github.slimjar.transport.TransportRequest;
+import io.github.slimjar.transport.TransportResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -48,4 +58,66 @@ public class PathResolutionStrategyTest {
         Assertions.assertEquals(new HashSet<>(resolvedPath), new HashSet<>(Collections.singleton("https://repo.tld/a/b/c/d/1.0/d-1.0.jar")), "Maven Path Resolution (LOCAL)");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testPathResolutionStrategySnapshotMetadata() throws MalformedURLException {
+        final String metadata = "<metadata><versioning><snapshot><timestamp>20210101.123456</timestamp><buildNumber>3</buildNumber></snapshot>"
+                + "<snapshotVersions>"
+                + "<snapshotVersion><classifier>sources</classifier><extension>jar</extension><value>1.0-20210101.123456-3</value></snapshotVersion>"
+                + "<snapshotVersion><extension>jar</extension><value>1.0-20210101.123456-3</value></snapshotVersion>"
+                + "<snapshotVersion><extension>pom</extension><value>1.0-20210101.123456-3</value></snapshotVersion>"
+                + "</snapshotVersions></versioning></metadata>";
+        final List<TransportRequest> requests = new CopyOnWriteArrayList<>();
+        final HttpTransport transport = request -> {
+            requests.add(request);
+            final boolean revalidation = request.getHeaders().containsKey("If-None-Match");
+            return CompletableFuture.completedFuture(new TransportResponse() {
+                @Override
+                public int statusCode() {
+                    return revalidation ? 304 : 200;
+                }
+
+                @Override
+                public String header(String name) {
+                    return "ETag".equals(name) ? "\"v1\"" : null;
+                }
+
+                @Override
+                public InputStream body() {
+                    return new ByteArrayInputStream(revalidation ? new byte[0] : metadata.getBytes());
+                }
+
+                @Override
+                public void close() {
+                }
+            });
+        };
+        final Repository repository = new Repository(new URL("https://repo.tld/"));
+        final Dependency dependency = new Dependency("a.b.c", "d", "1.0-SNAPSHOT", null, Collections.emptySet());
+        final String expected = "https://repo.tld/a/b/c/d/1.0-SNAPSHOT/d-1.0-20210101.123456-3.jar";
+
+        final PersistentSnapshotMetadataCache cache = PersistentSnapshotMetadataCache.load(null, 60000);
+        final PathResolutionStrategy strategy = new MavenMetadataSnapshotPathResolutionStrategy(new MavenPathResolutionStrategy(), cache);
+        final SnapshotMetadataFetcher fetcher = new SnapshotMetadataFetcher(transport, cache);
+        Assertions.assertEquals(Collections.singleton("https://repo.tld/a/b/c/d/1.0-SNAPSHOT/d-1.0-SNAPSHOT.jar"), new HashSet<>(strategy.pathTo(repository, dependency)));
+        Assertions.assertTrue(requests.isEmpty(), "Paths were computed with network access");
+
+        fetcher.refresh(repository, dependency);
+        fetcher.refresh(repository, dependency);
+        Assertions.assertEquals(Collections.singleton(expected), new HashSet<>(strategy.pathTo(repository, dependency)));
+        Assertions.assertEquals(1, requests.size(), "Fresh metadata was fetched again");
+        Assertions.assertEquals("https://repo.tld/a/b/c/d/1.0-SNAPSHOT/maven-metadata.xml", requests.get(0).getUrl().toString());
+
+        requests.clear();
+        final PersistentSnapshotMetadataCache staleCache = PersistentSnapshotMetadataCache.load(null, 0);
+        final SnapshotMetadataFetcher revalidating = new SnapshotMetadataFetcher(transport, staleCache);
+        revalidating.refresh(repository, dependency);
+        revalidating.refresh(repository, dependency);
+        Assertions.assertEquals("\"v1\"", requests.get(1).getHeaders().get("If-None-Match"), "Stale metadata was not revalidated");
+
+        final Dependency release = new Dependency("a.b.c", "d", "1.0", null, Collections.emptySet());
+        requests.clear();
+        fetcher.refresh(repository, release);
+        Assertions.assertEquals(Collections.singleton("https://repo.tld/a/b/c/d/1.0/d-1.0.jar"), new HashSet<>(strategy.pathTo(repository, release)));
+        Assertions.assertTrue(requests.isEmpty(), "Release fetched snapshot metadata");
+    }
+}
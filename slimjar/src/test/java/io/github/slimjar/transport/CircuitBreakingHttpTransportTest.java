@@ -0,0 +1,102 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import io.github.slimjar.resolver.breaker.CircuitBreakers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CircuitBreakingHttpTransportTest {
+
+    @Test
+    public void testFailuresOfAnyRequestOpenTheHostBreaker() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        final HttpTransport delegate = request -> {
+            sent.incrementAndGet();
+            final CompletableFuture<TransportResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new SocketTimeoutException("Read timed out"));
+            return failed;
+        };
+        final HttpTransport transport = new CircuitBreakingHttpTransport(delegate, new CircuitBreakers(2, 60000));
+        Assertions.assertThrows(SocketTimeoutException.class, () -> transport.send(TransportRequest.head(new URL("https://repo.example.com/releases/a.jar"))));
+        Assertions.assertThrows(SocketTimeoutException.class, () -> transport.send(TransportRequest.get(new URL("https://repo.example.com/releases/a.jar.sha256"))));
+
+        Assertions.assertThrows(ConnectException.class, () -> transport.send(TransportRequest.get(new URL("https://repo.example.com/snapshots/b.jar"))),
+                "Open breaker should skip every repository of the host");
+        Assertions.assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testErrorStatusCountsAsAnswer() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        final HttpTransport delegate = request -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(new StatusResponse(404));
+        };
+        final HttpTransport transport = new CircuitBreakingHttpTransport(delegate, new CircuitBreakers(1, 60000));
+        final URL url = new URL("https://repo.example.com/a.jar");
+        for (int i = 0; i < 3; i++) {
+            try (final TransportResponse response = transport.send(TransportRequest.get(url))) {
+                Assertions.assertEquals(404, response.statusCode());
+            }
+        }
+        Assertions.assertEquals(3, sent.get());
+    }
+
+    private static final class StatusResponse implements TransportResponse {
+        private final int statusCode;
+
+        private StatusResponse(final int statusCode) {
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String header(final String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream body() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
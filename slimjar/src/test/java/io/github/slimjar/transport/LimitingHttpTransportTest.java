@@ -0,0 +1,152 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class LimitingHttpTransportTest {
+
+    @Test
+    public void testOverloadIsRetriedAfterRetryAfter() throws Exception {
+        final Deque<Integer> statusCodes = new ArrayDeque<>(Arrays.asList(429, 503, 200));
+        final HttpTransport delegate = request -> CompletableFuture.completedFuture(new StatusResponse(statusCodes.poll(), "0"));
+        final LimitingHttpTransport transport = new LimitingHttpTransport(delegate, 4, 8, 3);
+        final URL url = new URL("https://repo.example.com/a.jar");
+        try (final TransportResponse response = transport.sendAsync(TransportRequest.get(url)).get(10, TimeUnit.SECONDS)) {
+            Assertions.assertEquals(200, response.statusCode());
+        }
+        Assertions.assertTrue(statusCodes.isEmpty(), "Overloaded responses were not retried");
+        Assertions.assertTrue(transport.limitOf(url).getLimit() < 4, "Limit was not lowered on overload");
+    }
+
+    @Test
+    public void testOverloadIsReturnedWhenRetriesAreExhausted() throws Exception {
+        final HttpTransport delegate = request -> CompletableFuture.completedFuture(new StatusResponse(429, "0"));
+        final LimitingHttpTransport transport = new LimitingHttpTransport(delegate, 4, 8, 1);
+        try (final TransportResponse response = transport.send(TransportRequest.get(new URL("https://repo.example.com/a.jar")))) {
+            Assertions.assertEquals(429, response.statusCode());
+        }
+    }
+
+    @Test
+    public void testLimitQueuesExcessRequests() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 4);
+        Assertions.assertTrue(limit.acquire().isDone());
+        final CompletableFuture<Void> waiting = limit.acquire();
+        Assertions.assertFalse(waiting.isDone(), "Permit granted above the limit");
+        limit.release(false);
+        Assertions.assertTrue(waiting.isDone(), "Waiting request was not granted the released permit");
+        Assertions.assertEquals(2, limit.getLimit(), "Limit did not grow after a success");
+    }
+
+    @Test
+    public void testPlaceIsHeldUntilResponseIsClosed() throws Exception {
+        final HttpTransport delegate = request -> CompletableFuture.completedFuture(new StatusResponse(200, null));
+        final LimitingHttpTransport transport = new LimitingHttpTransport(delegate, 1, 1, 0);
+        final URL url = new URL("https://repo.example.com/a.jar");
+        final TransportResponse first = transport.send(TransportRequest.get(url));
+        final CompletableFuture<TransportResponse> second = transport.sendAsync(TransportRequest.get(url));
+        Assertions.assertFalse(second.isDone(), "Second request was sent while the first body was still open");
+        first.close();
+        second.get(10, TimeUnit.SECONDS).close();
+        Assertions.assertEquals(0, transport.limitOf(url).getInFlight());
+    }
+
+    @Test
+    public void testFollowUpIsSentWithoutPlace() throws Exception {
+        final HttpTransport delegate = request -> CompletableFuture.completedFuture(new StatusResponse(200, null));
+        final LimitingHttpTransport transport = new LimitingHttpTransport(delegate, 1, 1, 0);
+        final URL url = new URL("https://repo.example.com/a.jar");
+        final TransportResponse artifact = transport.send(TransportRequest.get(url));
+        final CompletableFuture<TransportResponse> checksum = transport.sendAsync(TransportRequest.get(new URL(url + ".sha256")).asFollowUp());
+        Assertions.assertTrue(checksum.isDone(), "Follow-up waited for the place of the response it was made for");
+        checksum.get().close();
+        Assertions.assertEquals(1, transport.limitOf(url).getInFlight(), "Follow-up took or gave back a place");
+        artifact.close();
+        Assertions.assertEquals(0, transport.limitOf(url).getInFlight());
+    }
+
+    @Test
+    public void testWaitForPlaceIsBounded() throws Exception {
+        final HttpTransport delegate = request -> CompletableFuture.completedFuture(new StatusResponse(200, null));
+        final LimitingHttpTransport transport = new LimitingHttpTransport(delegate, 1, 1, 0);
+        final URL url = new URL("https://repo.example.com/a.jar");
+        final TransportResponse first = transport.send(TransportRequest.get(url));
+        final ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                () -> transport.sendAsync(TransportRequest.get(url).withTimeout(50)).get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause() instanceof SocketTimeoutException);
+        first.close();
+        Assertions.assertEquals(0, transport.limitOf(url).getInFlight(), "Timed out request kept a place");
+    }
+
+    @Test
+    public void testRetryAfterParsing() {
+        Assertions.assertEquals(120000, LimitingHttpTransport.parseRetryAfter("120"));
+        Assertions.assertEquals(0, LimitingHttpTransport.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        Assertions.assertEquals(-1, LimitingHttpTransport.parseRetryAfter("soon"));
+        Assertions.assertEquals(-1, LimitingHttpTransport.parseRetryAfter(null));
+    }
+
+    private static final class StatusResponse implements TransportResponse {
+        private final int statusCode;
+        private final String retryAfter;
+
+        private StatusResponse(final int statusCode, final String retryAfter) {
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String header(final String name) {
+            return "Retry-After".equalsIgnoreCase(name) ? retryAfter : null;
+        }
+
+        @Override
+        public InputStream body() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
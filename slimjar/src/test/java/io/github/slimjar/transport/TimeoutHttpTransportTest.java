@@ -0,0 +1,118 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.transport;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+public class TimeoutHttpTransportTest {
+
+    @Test
+    public void testTimeoutsAdaptToObservedLatency() throws Exception {
+        final URL url = new URL("https://repo.example.com/a.jar");
+        final AdaptiveTimeouts timeouts = new AdaptiveTimeouts(10000, 15000, 30000, true);
+        Assertions.assertEquals(10000, timeouts.timeoutMillis(url, TransportRequest.Kind.PING), "Unknown host did not get the ceiling");
+        for (int i = 0; i < 20; i++) {
+            timeouts.record(url, 100);
+        }
+        Assertions.assertEquals(1000, timeouts.timeoutMillis(url, TransportRequest.Kind.PING), "Fast host was not timed out at the floor");
+        Assertions.assertEquals(5000, timeouts.timeoutMillis(url, TransportRequest.Kind.ARTIFACT));
+        Assertions.assertEquals(30000, timeouts.timeoutMillis(new URL("https://other.example.com/a.jar"), TransportRequest.Kind.ARTIFACT));
+        for (int i = 0; i < 10; i++) {
+            timeouts.recordTimeout(url);
+        }
+        Assertions.assertEquals(10000, timeouts.timeoutMillis(url, TransportRequest.Kind.PING), "Timeouts did not back off");
+    }
+
+    @Test
+    public void testFixedTimeoutsIgnoreLatency() throws Exception {
+        final URL url = new URL("https://repo.example.com/a.jar");
+        final AdaptiveTimeouts timeouts = new AdaptiveTimeouts(10000, 15000, 30000, false);
+        timeouts.record(url, 100);
+        Assertions.assertEquals(15000, timeouts.timeoutMillis(url, TransportRequest.Kind.METADATA));
+    }
+
+    @Test
+    public void testStalledBodyIsAborted() throws Exception {
+        final CountDownLatch closed = new CountDownLatch(1);
+        final InputStream stalling = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    closed.await();
+                } catch (final InterruptedException exception) {
+                    throw new IOException(exception);
+                }
+                throw new IOException("Stream closed");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        final HttpTransport delegate = request -> CompletableFuture.completedFuture(new StallingResponse(stalling));
+        final TimeoutHttpTransport transport = new TimeoutHttpTransport(delegate, new AdaptiveTimeouts(100, 100, 100, true));
+        try (final TransportResponse response = transport.send(TransportRequest.get(new URL("https://repo.example.com/a.jar")))) {
+            final long start = System.currentTimeMillis();
+            Assertions.assertThrows(IOException.class, () -> response.body().read());
+            Assertions.assertTrue(System.currentTimeMillis() - start < 5000, "Stall was not detected in time");
+        }
+    }
+
+    private static final class StallingResponse implements TransportResponse {
+        private final InputStream body;
+
+        private StallingResponse(final InputStream body) {
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public String header(final String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream body() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+}